@@ -0,0 +1,40 @@
+package com.tank2d.tankserver.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point của benchmarks.jar: nhận mọi option của JMH (regex benchmark, -f, -wi, -p ...)
+ * và mặc định ghi kết quả JSON vào results/jmh-yyyyMMdd-HHmmss.json để diff giữa các lần chạy.
+ * Truyền -rf / -rff để ghi ra chỗ khác.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue() && !cmd.getResult().hasValue()) {
+            File dir = new File("results");
+            dir.mkdirs();
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            File out = new File(dir, "jmh-" + stamp + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(out.getPath());
+            System.out.println("[BenchmarkRunner] Results -> " + out.getAbsolutePath());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.db.Connector;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Bật profile h2 của server (DatabaseConfig) không kèm seed.sql, rồi sinh dữ liệu benchmark.
+ * Phải start trước lần đầu Connector được dùng vì profile được đọc khi tạo pool.
+ *
+ * Dữ liệu:
+ *  - ATTRIBUTES: hp, mp, dmg, spd, def, crit
+ *  - items "Item 1..N" (mỗi item 3 attributes, tất cả bán trong shop)
+ *  - tanks "Tank 1..N" (mỗi tank 4 attributes, tank 1 là tank mặc định)
+ *  - users "user1..N" / password "pass", mỗi user có vài tank + item
+ */
+public final class EmbeddedDatabase {
+
+    public static final String[] ATTRIBUTES = {"hp", "mp", "dmg", "spd", "def", "crit"};
+    public static final String PASSWORD = "pass";
+
+    /** Số item / tank mỗi user sở hữu */
+    public static final int ITEMS_PER_USER = 10;
+    public static final int TANKS_PER_USER = 3;
+
+    private static boolean started;
+
+    private EmbeddedDatabase() {
+    }
+
+    public static synchronized void start(int users, int items, int tanks) throws SQLException {
+        if (started) return;
+
+        System.setProperty("tankserver.db.profile", "h2");
+        System.setProperty("tankserver.db.seed", "false");
+
+        try (Connection conn = Connector.getConnection()) {
+            conn.setAutoCommit(false);
+            seed(conn, users, items, tanks);
+            conn.commit();
+        }
+        started = true;
+    }
+
+    private static void seed(Connection conn, int users, int items, int tanks) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO attribute (name) VALUES (?)")) {
+            for (String name : ATTRIBUTES) {
+                ps.setString(1, name);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement item = conn.prepareStatement(
+                "INSERT INTO item (name, description, base_price, item_type, rarity) VALUES (?, ?, ?, 'consumable', 'common')");
+             PreparedStatement attr = conn.prepareStatement(
+                     "INSERT INTO item_attribute (item_id, attribute_id, attribute_value) VALUES (?, ?, ?)");
+             PreparedStatement shop = conn.prepareStatement(
+                     "INSERT INTO shop (item_id, discount, stock, available) VALUES (?, 0.1, 1000, 1)")) {
+            for (int i = 1; i <= items; i++) {
+                item.setString(1, "Item " + i);
+                item.setString(2, "Benchmark item " + i);
+                item.setInt(3, 100 + i);
+                item.addBatch();
+                for (int a = 0; a < 3; a++) {
+                    attr.setInt(1, i);
+                    attr.setInt(2, (i + a) % ATTRIBUTES.length + 1);
+                    attr.setDouble(3, 5 * (a + 1));
+                    attr.addBatch();
+                }
+                shop.setInt(1, i);
+                shop.addBatch();
+            }
+            item.executeBatch();
+            attr.executeBatch();
+            shop.executeBatch();
+        }
+
+        try (PreparedStatement tank = conn.prepareStatement(
+                "INSERT INTO tank (name, description, base_price) VALUES (?, ?, ?)");
+             PreparedStatement attr = conn.prepareStatement(
+                     "INSERT INTO tank_attribute (tank_id, attribute_id, attribute_value) VALUES (?, ?, ?)")) {
+            for (int t = 1; t <= tanks; t++) {
+                tank.setString(1, "Tank " + t);
+                tank.setString(2, "Benchmark tank " + t);
+                tank.setInt(3, t == 1 ? 0 : 1000 * t);
+                tank.addBatch();
+                for (int a = 0; a < 4; a++) {
+                    attr.setInt(1, t);
+                    attr.setInt(2, a + 1);
+                    attr.setDouble(3, 10 * (a + 1) + t);
+                    attr.addBatch();
+                }
+            }
+            tank.executeBatch();
+            attr.executeBatch();
+        }
+
+        try (PreparedStatement user = conn.prepareStatement(
+                "INSERT INTO user (username, password, gold) VALUES (?, ?, 100000)");
+             PreparedStatement userTank = conn.prepareStatement(
+                     "INSERT INTO user_tank (user_id, tank_id, is_equipped) VALUES (?, ?, ?)");
+             PreparedStatement userItem = conn.prepareStatement(
+                     "INSERT INTO user_item (user_id, item_id, quantity) VALUES (?, ?, ?)")) {
+            for (int u = 1; u <= users; u++) {
+                user.setString(1, "user" + u);
+                user.setString(2, PASSWORD);
+                user.addBatch();
+                for (int t = 0; t < Math.min(TANKS_PER_USER, tanks); t++) {
+                    userTank.setInt(1, u);
+                    userTank.setInt(2, (u + t) % tanks + 1);
+                    userTank.setInt(3, t == 0 ? 1 : 0);
+                    userTank.addBatch();
+                }
+                for (int i = 0; i < Math.min(ITEMS_PER_USER, items); i++) {
+                    userItem.setInt(1, u);
+                    userItem.setInt(2, (u * 7 + i) % items + 1);
+                    userItem.setInt(3, 1 + i);
+                    userItem.addBatch();
+                }
+                if (u % 1000 == 0) {
+                    user.executeBatch();
+                    userTank.executeBatch();
+                    userItem.executeBatch();
+                }
+            }
+            user.executeBatch();
+            userTank.executeBatch();
+            userItem.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.log.LogLevel;
+import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.session.SessionRegistry;
+
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Dựng object của server mà không cần socket / database thật.
+ */
+public final class Fixtures {
+
+    private static final Field USERNAME;
+    private static final Field CURRENT_ROOM;
+
+    static {
+        try {
+            USERNAME = ClientHandler.class.getDeclaredField("username");
+            USERNAME.setAccessible(true);
+            CURRENT_ROOM = ClientHandler.class.getDeclaredField("currentRoom");
+            CURRENT_ROOM.setAccessible(true);
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Fixtures() {
+    }
+
+    /**
+     * ClientHandler "đã login" với username cho trước, socket không kết nối
+     */
+    public static ClientHandler client(String username) {
+        Socket socket = new Socket() {
+            @Override
+            public InetAddress getInetAddress() {
+                return InetAddress.getLoopbackAddress();
+            }
+        };
+        ClientHandler handler = new ClientHandler(socket, event -> { });
+        try {
+            USERNAME.set(handler, username);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return handler;
+    }
+
+    /**
+     * Đưa client vào SessionRegistry như sau LOGIN (tra theo username, findRoomByPlayer...);
+     * gỡ bằng SessionRegistry.disconnected
+     */
+    public static void register(ClientHandler client) {
+        SessionRegistry.connected(client);
+        SessionRegistry.login(client, client.getUsername());
+    }
+
+    /** Gán currentRoom như sau CREATE_ROOM / JOIN_ROOM (Room.addPlayer không đụng tới client) */
+    public static void enterRoom(ClientHandler client, Room room) {
+        try {
+            CURRENT_ROOM.set(client, room);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tắt server log (Log level OFF) để không làm ngập console của JMH.
+     * Với level OFF, chi phí log trong kết quả đo chỉ còn phần kiểm tra level.
+     */
+    public static void silenceServerLogs() {
+        Log.setLevel(LogLevel.OFF);
+    }
+}
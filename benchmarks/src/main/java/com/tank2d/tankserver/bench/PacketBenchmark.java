@@ -0,0 +1,119 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packet.toJson / Packet.fromJson với 3 payload điển hình:
+ *  - login:     LOGIN (2 field)
+ *  - roomList:  ROOM_LIST_DATA với 100 phòng
+ *  - inventory: INVENTORY_DATA với 3 tanks + 10 items có attributes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacketBenchmark {
+
+    @Param({"login", "roomList", "inventory"})
+    public String payload;
+
+    private Packet packet;
+    private String json;
+
+    @Setup
+    public void setup() {
+        packet = switch (payload) {
+            case "login" -> loginPacket();
+            case "roomList" -> roomListPacket(100);
+            case "inventory" -> inventoryPacket(3, 10);
+            default -> throw new IllegalArgumentException(payload);
+        };
+        json = packet.toJson();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return packet.toJson();
+    }
+
+    @Benchmark
+    public Packet fromJson() {
+        return Packet.fromJson(json);
+    }
+
+    // -------------------------------
+    // 🔹 PAYLOADS
+    // -------------------------------
+
+    static Packet loginPacket() {
+        Packet p = new Packet(PacketType.LOGIN);
+        p.data.put("username", "player42");
+        p.data.put("password", "secret");
+        return p;
+    }
+
+    static Packet roomListPacket(int rooms) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 1; i <= rooms; i++) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("id", i);
+            info.put("name", "Room " + i);
+            info.put("players", i % 4 + 1);
+            info.put("maxPlayers", 4);
+            info.put("hasPassword", i % 3 == 0);
+            list.add(info);
+        }
+        Packet p = new Packet(PacketType.ROOM_LIST_DATA);
+        p.data.put("rooms", list);
+        return p;
+    }
+
+    static Packet inventoryPacket(int tanks, int items) {
+        List<Map<String, Object>> tankList = new ArrayList<>();
+        for (int i = 1; i <= tanks; i++) {
+            Map<String, Object> tank = new HashMap<>();
+            tank.put("tankId", i);
+            tank.put("name", "Tank " + i);
+            tank.put("description", "Benchmark tank " + i);
+            tank.put("price", 1000 * i);
+            tank.put("isEquipped", i == 1 ? 1 : 0);
+            tank.put("attributes", attributes("hp", 100 + i, "dmg", 10 + i, "spd", 3, "def", 5));
+            tankList.add(tank);
+        }
+        List<Map<String, Object>> itemList = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("itemId", i);
+            item.put("name", "Item " + i);
+            item.put("description", "Benchmark item " + i);
+            item.put("quantity", i);
+            item.put("price", 100 + i);
+            item.put("attributes", attributes("hp", 50, "mp", 20, "crit", 1));
+            itemList.add(item);
+        }
+        Packet p = new Packet(PacketType.INVENTORY_DATA);
+        p.data.put("gold", 12345);
+        p.data.put("tanks", tankList);
+        p.data.put("items", itemList);
+        return p;
+    }
+
+    static AttributeSet attributes(Object... pairs) {
+        AttributeSet set = new AttributeSet();
+        for (int i = 0; i < pairs.length; i += 2) {
+            set.set((String) pairs[i], ((Number) pairs[i + 1]).doubleValue());
+        }
+        return set;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.inventory.InventoryData;
+import com.tank2d.tankserver.core.shop.ShopItem;
+import com.tank2d.tankserver.db.AccountRepository;
+import com.tank2d.tankserver.db.InventoryRepository;
+import com.tank2d.tankserver.db.ShopRepository;
+import com.tank2d.tankserver.db.TankShopRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository chạy trên profile h2 (EmbeddedDatabase) thay vì MySQL:
+ * đo chi phí phía server (lấy connection từ pool, SQL, map ResultSet) chứ không phải network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"200"})
+    public int items;
+
+    @Param({"50"})
+    public int tanks;
+
+    private final AccountRepository accounts = new AccountRepository();
+    private final ShopRepository shop = new ShopRepository();
+    private final TankShopRepository tankShop = new TankShopRepository();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Fixtures.silenceServerLogs();
+        EmbeddedDatabase.start(users, items, tanks);
+        AttributeRegistry.load();
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    @Benchmark
+    public boolean login() {
+        return accounts.login("user" + randomUser(), EmbeddedDatabase.PASSWORD);
+    }
+
+    @Benchmark
+    public int getUserIdByUsername() {
+        return accounts.getUserIdByUsername("user" + randomUser());
+    }
+
+    @Benchmark
+    public List<ShopItem> getAllAvailableItems() {
+        return shop.getAllAvailableItems();
+    }
+
+    @Benchmark
+    public List<ShopItem> getAllAvailableTanks() {
+        return tankShop.getAllAvailableTanks();
+    }
+
+    @Benchmark
+    public InventoryData loadInventory() {
+        return InventoryRepository.loadInventory(randomUser());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> getUserInventoryLegacy() {
+        return InventoryRepository.getUserInventory(randomUser());
+    }
+}
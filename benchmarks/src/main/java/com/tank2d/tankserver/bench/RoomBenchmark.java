@@ -0,0 +1,37 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.room.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room.getPlayerNames (được gọi ở mỗi ROOM_UPDATE và trong findRoomByPlayer)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomBenchmark {
+
+    @Param({"2", "4", "8"})
+    public int players;
+
+    private Room room;
+
+    @Setup
+    public void setup() {
+        room = new Room(1, "Bench room", Fixtures.client("host"), players, null);
+        for (int i = 1; i < players; i++) {
+            room.addPlayer(Fixtures.client("player" + i));
+        }
+    }
+
+    @Benchmark
+    public List<String> getPlayerNames() {
+        return room.getPlayerNames();
+    }
+}
@@ -0,0 +1,87 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.room.RoomManager;
+import com.tank2d.tankserver.core.session.SessionRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoomManager.getRooms / findRoomByPlayer khi có nhiều phòng.
+ * Mỗi phòng PLAYERS_PER_ROOM người chơi, mọi người chơi đã login (SessionRegistry) và có currentRoom;
+ * findRoomByPlayer tra qua SessionRegistry (O(1), không phụ thuộc số phòng) với người trong phòng
+ * cuối và một username không tồn tại.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomManagerBenchmark {
+
+    private static final int PLAYERS_PER_ROOM = 4;
+
+    @Param({"100", "1000", "5000"})
+    public int rooms;
+
+    private final List<Integer> roomIds = new ArrayList<>();
+    private final List<ClientHandler> clients = new ArrayList<>();
+    private String lastPlayer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Fixtures.silenceServerLogs();
+        for (int r = 0; r < rooms; r++) {
+            ClientHandler host = login("host" + r);
+            Room room = RoomManager.createRoom("Room " + r, host, PLAYERS_PER_ROOM, null);
+            Fixtures.enterRoom(host, room);
+            for (int p = 1; p < PLAYERS_PER_ROOM; p++) {
+                lastPlayer = "player" + r + "_" + p;
+                ClientHandler player = login(lastPlayer);
+                room.addPlayer(player);
+                Fixtures.enterRoom(player, room);
+            }
+            roomIds.add(room.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (int id : roomIds) {
+            RoomManager.removeRoom(id);
+        }
+        roomIds.clear();
+        for (ClientHandler c : clients) {
+            SessionRegistry.disconnected(c);
+        }
+        clients.clear();
+    }
+
+    private ClientHandler login(String username) {
+        ClientHandler client = Fixtures.client(username);
+        Fixtures.register(client);
+        clients.add(client);
+        return client;
+    }
+
+    @Benchmark
+    public Collection<Room> getRooms() {
+        return RoomManager.getRooms();
+    }
+
+    @Benchmark
+    public Room findRoomByPlayerHit() {
+        return RoomManager.findRoomByPlayer(lastPlayer);
+    }
+
+    @Benchmark
+    public Room findRoomByPlayerMiss() {
+        return RoomManager.findRoomByPlayer("nobody");
+    }
+}
@@ -0,0 +1,57 @@
+package com.tank2d.tankserver.bench;
+
+import com.tank2d.tankserver.core.shop.ShopItem;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShopItem: khởi tạo từ Map attributes (như ShopRepository) và serialize
+ * ra JSON giống ClientHandler.handleShopList.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShopItemBenchmark {
+
+    @Param({"2", "6"})
+    public int attributeCount;
+
+    private static final String[] NAMES = {"hp", "mp", "dmg", "spd", "def", "crit"};
+
+    private Map<String, Double> attributes;
+    private ShopItem item;
+
+    @Setup
+    public void setup() {
+        attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(NAMES[i], 10.0 * (i + 1));
+        }
+        item = construct();
+    }
+
+    @Benchmark
+    public ShopItem construct() {
+        return new ShopItem(7, "Health Potion", "Restores HP", 150, 0.1, 99, attributes);
+    }
+
+    @Benchmark
+    public String serialize() {
+        Map<String, Object> itemMap = new HashMap<>();
+        itemMap.put("id", item.id);
+        itemMap.put("name", item.name);
+        itemMap.put("description", item.description);
+        itemMap.put("price", item.price);
+        itemMap.put("discount", item.discount);
+        itemMap.put("stock", item.stock);
+        itemMap.put("attributes", item.attributes);
+        return new JSONObject(itemMap).toString();
+    }
+}
@@ -1,12 +1,16 @@
 package com.tank2d.tankserver;
 
 import com.tank2d.tankserver.core.MasterServer;
+import com.tank2d.tankserver.core.log.Log;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.util.Arrays;
+
 public class MasterServerMain extends Application {
+    private static final Log log = Log.get(MasterServerMain.class);
 
     @Override
     public void start(Stage stage) throws Exception {
@@ -26,9 +30,14 @@ public class MasterServerMain extends Application {
     }
 
     public static void main(String[] args) {
+        // --embedded-db: chạy với H2 in-memory + seed data thay vì MySQL
+        if (Arrays.asList(args).contains("--embedded-db")) {
+            System.setProperty("tankserver.db.profile", "h2");
+        }
+
         if (args.length > 0 && args[0].equals("--console")) {
             // Run in console mode
-            System.out.println("Starting Master Server in console mode...");
+            log.info("Starting Master Server in console mode...");
             new MasterServer().start(11640);
         } else {
             // Run with GUI
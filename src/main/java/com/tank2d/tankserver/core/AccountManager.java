@@ -1,16 +1,26 @@
 package com.tank2d.tankserver.core;
 
+import com.tank2d.tankserver.core.auth.AuthGuard;
 import com.tank2d.tankserver.db.AccountRepository;
 
 public class AccountManager {
     private static final AccountRepository repo = new AccountRepository();
 
     public static boolean login(String username, String password) {
-        return repo.login(username, password);
+        boolean ok = repo.login(username, password);
+        if (ok) AuthGuard.loginSucceeded(username);
+        return ok;
     }
 
     public static boolean register(String username, String password) {
-        return repo.register(username, password);
+        // Filter chỉ báo "có thể đã có" → SELECT xác nhận; còn lại để ràng buộc UNIQUE của INSERT quyết định
+        if (AuthGuard.mightBeTaken(username) && repo.getUserIdByUsername(username) > 0) {
+            AuthGuard.duplicateRejected();
+            return false;
+        }
+        boolean ok = repo.register(username, password);
+        if (ok) AuthGuard.registered(username);
+        return ok;
     }
 
     public static int getUserIdByUsername(String username) {
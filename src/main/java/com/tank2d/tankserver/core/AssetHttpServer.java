@@ -3,21 +3,43 @@ package com.tank2d.tankserver.core;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.metrics.PrometheusExporter;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Simple HTTP server for serving tank and item images
+ *  - /assets: ảnh tank / item (cache bytes trong memory, kiểm tra lastModified mỗi request)
+ *  - /metrics: số liệu server dạng Prometheus text exposition
  */
 public class AssetHttpServer {
+    private static final Log log = Log.get(AssetHttpServer.class);
+
     private HttpServer server;
     private final int port;
     private final File assetRoot;
 
+    // Asset cache
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final long MAX_CACHED_FILE_BYTES = 2L * 1024 * 1024;
+
+    private record CachedAsset(byte[] bytes, long lastModified) { }
+
+    private final Map<String, CachedAsset> cache = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
     public AssetHttpServer(int port) {
         this.port = port;
         // Assets stored in resources/images/
@@ -30,16 +52,17 @@ public class AssetHttpServer {
     public void start() throws IOException {
         server = HttpServer.create(new InetSocketAddress(port), 0);
         server.createContext("/assets", new AssetHandler());
+        server.createContext("/metrics", new MetricsHandler());
         server.setExecutor(null); // Use default executor
         server.start();
-        System.out.println("[AssetHttpServer] Started on port " + port);
-        System.out.println("[AssetHttpServer] Serving from: " + assetRoot.getAbsolutePath());
+        log.info("Started on port " + port);
+        log.info("Serving from: " + assetRoot.getAbsolutePath());
     }
 
     public void stop() {
         if (server != null) {
             server.stop(0);
-            System.out.println("[AssetHttpServer] Stopped");
+            log.info("Stopped");
         }
     }
 
@@ -63,7 +86,7 @@ public class AssetHttpServer {
                 OutputStream os = exchange.getResponseBody();
                 os.write(response.getBytes());
                 os.close();
-                System.out.println("[AssetHttpServer] 404: " + relativePath);
+                log.debug(() -> "404: " + relativePath);
                 return;
             }
 
@@ -74,7 +97,7 @@ public class AssetHttpServer {
                 OutputStream os = exchange.getResponseBody();
                 os.write(response.getBytes());
                 os.close();
-                System.out.println("[AssetHttpServer] 403: Attempted directory traversal");
+                log.warn("403: Attempted directory traversal: " + relativePath);
                 return;
             }
 
@@ -86,8 +109,8 @@ public class AssetHttpServer {
                 contentType = "image/jpeg";
             }
 
-            // Send file
-            byte[] fileBytes = Files.readAllBytes(file.toPath());
+            // Send file (từ cache nếu file chưa đổi)
+            byte[] fileBytes = readAsset(relativePath, file);
             exchange.getResponseHeaders().set("Content-Type", contentType);
             exchange.getResponseHeaders().set("Cache-Control", "public, max-age=86400"); // Cache for 1 day
             exchange.sendResponseHeaders(200, fileBytes.length);
@@ -95,10 +118,53 @@ public class AssetHttpServer {
             os.write(fileBytes);
             os.close();
             
-            System.out.println("[AssetHttpServer] Served: " + relativePath + " (" + fileBytes.length + " bytes)");
+            log.debug(() -> "Served: " + relativePath + " (" + fileBytes.length + " bytes)");
         }
     }
 
+    private class MetricsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            byte[] body = PrometheusExporter.scrape(AssetHttpServer.this).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    // -------------------------------
+    // 🔹 ASSET CACHE
+    // -------------------------------
+
+    private byte[] readAsset(String relativePath, File file) throws IOException {
+        long lastModified = file.lastModified();
+        CachedAsset cached = cache.get(relativePath);
+        if (cached != null && cached.lastModified() == lastModified) {
+            cacheHits.increment();
+            return cached.bytes();
+        }
+
+        cacheMisses.increment();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if (bytes.length <= MAX_CACHED_FILE_BYTES && cachedBytes.get() + bytes.length <= MAX_CACHE_BYTES) {
+            CachedAsset previous = cache.put(relativePath, new CachedAsset(bytes, lastModified));
+            cachedBytes.addAndGet(bytes.length - (previous != null ? previous.bytes().length : 0));
+        }
+        return bytes;
+    }
+
+    private void invalidate(String relativePath) {
+        CachedAsset removed = cache.remove(relativePath);
+        if (removed != null) cachedBytes.addAndGet(-removed.bytes().length);
+    }
+
+    public long getCacheHits() { return cacheHits.sum(); }
+    public long getCacheMisses() { return cacheMisses.sum(); }
+    public int getCacheEntries() { return cache.size(); }
+    public long getCacheBytes() { return cachedBytes.get(); }
+
     /**
      * Save tank image with naming convention: tankName.toLowerCase().replace(" ", "_") + ".png"
      */
@@ -115,10 +181,11 @@ public class AssetHttpServer {
             Files.copy(sourceFile.toPath(), targetFile.toPath(), 
                       java.nio.file.StandardCopyOption.REPLACE_EXISTING);
 
-            System.out.println("[AssetHttpServer] Saved tank asset: " + fileName);
+            invalidate("/tanks/" + fileName);
+            log.info("Saved tank asset: " + fileName);
             return true;
         } catch (IOException e) {
-            System.err.println("[AssetHttpServer] Failed to save tank asset: " + e.getMessage());
+            log.error("Failed to save tank asset: " + e.getMessage());
             return false;
         }
     }
@@ -139,10 +206,11 @@ public class AssetHttpServer {
             Files.copy(sourceFile.toPath(), targetFile.toPath(), 
                       java.nio.file.StandardCopyOption.REPLACE_EXISTING);
 
-            System.out.println("[AssetHttpServer] Saved item asset: " + fileName);
+            invalidate("/items/" + fileName);
+            log.info("Saved item asset: " + fileName);
             return true;
         } catch (IOException e) {
-            System.err.println("[AssetHttpServer] Failed to save item asset: " + e.getMessage());
+            log.error("Failed to save item asset: " + e.getMessage());
             return false;
         }
     }
@@ -153,8 +221,9 @@ public class AssetHttpServer {
     public boolean deleteTankAsset(String tankName) {
         String fileName = tankName.toLowerCase().replace(" ", "_") + ".png";
         File file = new File(new File(assetRoot, "tanks"), fileName);
+        invalidate("/tanks/" + fileName);
         if (file.exists() && file.delete()) {
-            System.out.println("[AssetHttpServer] Deleted tank asset: " + fileName);
+            log.info("Deleted tank asset: " + fileName);
             return true;
         }
         return false;
@@ -166,13 +235,26 @@ public class AssetHttpServer {
     public boolean deleteItemAsset(String itemName) {
         String fileName = itemName.toLowerCase().replace(" ", "_") + ".png";
         File file = new File(new File(assetRoot, "items"), fileName);
+        invalidate("/items/" + fileName);
         if (file.exists() && file.delete()) {
-            System.out.println("[AssetHttpServer] Deleted item asset: " + fileName);
+            log.info("Deleted item asset: " + fileName);
             return true;
         }
         return false;
     }
 
+    /**
+     * File ảnh hiện tại của item/tank (dir = "items" | "tanks"), có thể chưa tồn tại
+     */
+    public File getAssetFile(String dir, String name) {
+        return new File(new File(assetRoot, dir), assetFileName(name));
+    }
+
+    /** Quy ước tên file asset: name.toLowerCase().replace(" ", "_") + ".png" */
+    public static String assetFileName(String name) {
+        return name.toLowerCase().replace(" ", "_") + ".png";
+    }
+
     /**
      * Get URL for tank image
      */
@@ -0,0 +1,345 @@
+package com.tank2d.tankserver.core;
+
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.catalog.Catalog;
+import com.tank2d.tankserver.core.catalog.CatalogEntry;
+import com.tank2d.tankserver.core.catalog.CatalogResult;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.db.CatalogRepository;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Business Logic Layer for bulk catalog import/export (Admin)
+ *
+ * File JSON:
+ *   {"items": [{"name", "description", "price", "type", "rarity", "asset", "attributes": {"hp": 50}}],
+ *    "tanks": [{"name", "description", "price", "asset", "attributes": {...}}]}
+ *
+ * File CSV (header bắt buộc):
+ *   kind,name,description,price,type,rarity,asset,attributes
+ *   item,Health Potion,Restores HP,100,consumable,common,items/health_potion.png,hp=50;mp=0
+ *
+ * "asset" tương đối với thư mục chứa file catalog. Export copy PNG hiện có ra cạnh file
+ * export theo quy ước tên của AssetHttpServer (items/xxx.png, tanks/xxx.png), nên file
+ * export import lại được nguyên vẹn.
+ */
+public class CatalogManager {
+    private static final Log log = Log.get(CatalogManager.class);
+
+    public static final Set<String> ITEM_TYPES = Set.of("consumable", "equipment", "upgrade");
+    public static final Set<String> RARITIES = Set.of("common", "rare", "epic", "legendary");
+
+    /**
+     * Validate (không cần database) rồi ghi cả catalog trong một transaction.
+     * Asset PNG được copy sau khi commit.
+     */
+    public static CatalogResult importCatalog(File file, AssetHttpServer assetServer) {
+        CatalogResult result = new CatalogResult();
+        long start = System.currentTimeMillis();
+
+        Catalog catalog;
+        try {
+            catalog = parse(file);
+        } catch (Exception e) {
+            result.errors.add("Cannot read catalog: " + e.getMessage());
+            return result;
+        }
+
+        File baseDir = file.getAbsoluteFile().getParentFile();
+        result.errors.addAll(validate(catalog, baseDir));
+        if (!result.isSuccess()) {
+            log.warn("Validation failed: " + result);
+            return result;
+        }
+
+        // Tên attribute phải có trong bảng attribute (resolve trước khi mở transaction)
+        result.errors.addAll(validateAttributes(catalog));
+        if (!result.isSuccess()) {
+            log.warn("Validation failed: " + result);
+            return result;
+        }
+
+        CatalogRepository.importCatalog(catalog.items, catalog.tanks, result);
+
+        if (result.isSuccess() && assetServer != null) {
+            for (CatalogEntry e : catalog.items) {
+                if (e.asset != null) assetServer.saveItemAsset(e.name, new File(baseDir, e.asset));
+            }
+            for (CatalogEntry e : catalog.tanks) {
+                if (e.asset != null) assetServer.saveTankAsset(e.name, new File(baseDir, e.asset));
+            }
+        }
+
+        result.elapsedMs = System.currentTimeMillis() - start;
+        log.info("Import " + file.getName() + ": " + result);
+        return result;
+    }
+
+    /**
+     * Export toàn bộ items + tanks ra file JSON, kèm PNG từ assetServer (null = không export asset)
+     */
+    public static CatalogResult exportCatalog(File file, AssetHttpServer assetServer) {
+        CatalogResult result = new CatalogResult();
+        long start = System.currentTimeMillis();
+        File baseDir = file.getAbsoluteFile().getParentFile();
+
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            CatalogRepository.exportCatalog(out, result,
+                    (dir, name) -> exportAsset(assetServer, dir, name, baseDir, result));
+        } catch (IOException e) {
+            result.errors.add("Cannot write catalog: " + e.getMessage());
+        }
+
+        result.elapsedMs = System.currentTimeMillis() - start;
+        log.info("Export " + file.getName() + ": " + result);
+        return result;
+    }
+
+    /**
+     * Copy asset của entity sang baseDir/dir/, trả về đường dẫn tương đối hoặc null nếu không có asset
+     */
+    private static String exportAsset(AssetHttpServer assetServer, String dir, String name,
+                                      File baseDir, CatalogResult result) {
+        if (assetServer == null) return null;
+        File source = assetServer.getAssetFile(dir, name);
+        if (!source.isFile()) return null;
+
+        String relative = dir + "/" + AssetHttpServer.assetFileName(name);
+        File target = new File(baseDir, relative);
+        try {
+            Files.createDirectories(target.getParentFile().toPath());
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return relative;
+        } catch (IOException e) {
+            result.errors.add("Cannot export asset " + relative + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // -------------------------------
+    // 🔹 PARSE
+    // -------------------------------
+
+    public static Catalog parse(File file) throws IOException {
+        if (file.getName().toLowerCase().endsWith(".csv")) {
+            return parseCsv(file);
+        }
+        return parseJson(file);
+    }
+
+    private static Catalog parseJson(File file) throws IOException {
+        JSONObject root = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        Catalog catalog = new Catalog();
+
+        JSONArray items = root.optJSONArray("items");
+        if (items != null) {
+            for (int i = 0; i < items.length(); i++) {
+                catalog.items.add(fromJson(items.getJSONObject(i)));
+            }
+        }
+        JSONArray tanks = root.optJSONArray("tanks");
+        if (tanks != null) {
+            for (int i = 0; i < tanks.length(); i++) {
+                catalog.tanks.add(fromJson(tanks.getJSONObject(i)));
+            }
+        }
+        return catalog;
+    }
+
+    private static CatalogEntry fromJson(JSONObject obj) {
+        CatalogEntry e = new CatalogEntry();
+        e.name = obj.optString("name", null);
+        e.description = obj.optString("description", "");
+        e.price = obj.optInt("price", -1);
+        e.type = obj.optString("type", null);
+        e.rarity = obj.optString("rarity", null);
+        e.asset = obj.optString("asset", null);
+        JSONObject attrs = obj.optJSONObject("attributes");
+        if (attrs != null) {
+            for (String key : attrs.keySet()) {
+                e.attributes.set(key, attrs.optDouble(key, Double.NaN));
+            }
+        }
+        return e;
+    }
+
+    private static Catalog parseCsv(File file) throws IOException {
+        Catalog catalog = new Catalog();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine(); // kind,name,description,price,type,rarity,asset,attributes
+            if (header == null) return catalog;
+
+            String line;
+            int lineNo = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                List<String> cols = splitCsv(line);
+                if (cols.size() < 8) {
+                    throw new IOException("Line " + lineNo + ": expected 8 columns, got " + cols.size());
+                }
+
+                CatalogEntry e = new CatalogEntry();
+                e.name = cols.get(1);
+                e.description = cols.get(2);
+                try {
+                    e.price = Integer.parseInt(cols.get(3).trim());
+                } catch (NumberFormatException ex) {
+                    e.price = -1;
+                }
+                e.type = emptyToNull(cols.get(4));
+                e.rarity = emptyToNull(cols.get(5));
+                e.asset = emptyToNull(cols.get(6));
+                for (String pair : cols.get(7).split(";")) {
+                    int eq = pair.indexOf('=');
+                    if (eq <= 0) continue;
+                    double value;
+                    try {
+                        value = Double.parseDouble(pair.substring(eq + 1).trim());
+                    } catch (NumberFormatException ex) {
+                        value = Double.NaN;
+                    }
+                    e.attributes.set(pair.substring(0, eq).trim(), value);
+                }
+
+                if ("tank".equalsIgnoreCase(cols.get(0).trim())) {
+                    catalog.tanks.add(e);
+                } else {
+                    catalog.items.add(e);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /** Tách một dòng CSV, hỗ trợ giá trị trong dấu ngoặc kép và "" escape */
+    private static List<String> splitCsv(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cols.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        cols.add(sb.toString());
+        return cols;
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+
+    // -------------------------------
+    // 🔹 VALIDATE (offline)
+    // -------------------------------
+
+    public static List<String> validate(Catalog catalog, File baseDir) {
+        List<String> errors = new ArrayList<>();
+        validateEntries(catalog.items, "item", true, baseDir, errors);
+        validateEntries(catalog.tanks, "tank", false, baseDir, errors);
+        return errors;
+    }
+
+    /**
+     * Tên attribute không có trong bảng attribute → lỗi import (thay vì bị bỏ qua khi ghi)
+     */
+    private static List<String> validateAttributes(Catalog catalog) {
+        Set<String> names = new HashSet<>();
+        collectAttributeNames(catalog.items, names);
+        collectAttributeNames(catalog.tanks, names);
+
+        List<String> errors = new ArrayList<>();
+        Set<String> unknown = new HashSet<>(AttributeRegistry.resolveDatabaseIds(names));
+        if (unknown.isEmpty()) return errors;
+        reportUnknownAttributes(catalog.items, "item", unknown, errors);
+        reportUnknownAttributes(catalog.tanks, "tank", unknown, errors);
+        return errors;
+    }
+
+    private static void collectAttributeNames(List<CatalogEntry> entries, Set<String> names) {
+        for (CatalogEntry e : entries) {
+            names.addAll(e.attributes.keySet());
+        }
+    }
+
+    private static void reportUnknownAttributes(List<CatalogEntry> entries, String kind,
+                                                Set<String> unknown, List<String> errors) {
+        for (int i = 0; i < entries.size(); i++) {
+            CatalogEntry e = entries.get(i);
+            for (String name : e.attributes.keySet()) {
+                if (unknown.contains(name)) {
+                    errors.add(kind + " #" + (i + 1) + " (" + e.name + "): unknown attribute '" + name + "'");
+                }
+            }
+        }
+    }
+
+    private static void validateEntries(List<CatalogEntry> entries, String kind, boolean isItem,
+                                        File baseDir, List<String> errors) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < entries.size(); i++) {
+            CatalogEntry e = entries.get(i);
+            String where = kind + " #" + (i + 1) + (e.name != null ? " (" + e.name + ")" : "");
+
+            if (e.name == null || e.name.isBlank()) {
+                errors.add(where + ": name is required");
+            } else if (!names.add(e.name.toLowerCase())) {
+                errors.add(where + ": duplicate name");
+            }
+            if (e.price < 0) {
+                errors.add(where + ": price must be a non-negative integer");
+            }
+            if (isItem) {
+                if (e.type == null || !ITEM_TYPES.contains(e.type)) {
+                    errors.add(where + ": type must be one of " + ITEM_TYPES);
+                }
+                if (e.rarity == null || !RARITIES.contains(e.rarity)) {
+                    errors.add(where + ": rarity must be one of " + RARITIES);
+                }
+            }
+            for (int a = 0; a < e.attributes.size(); a++) {
+                if (Double.isNaN(e.attributes.valueAt(a))) {
+                    errors.add(where + ": attribute values must be numbers");
+                    break;
+                }
+            }
+            if (e.asset != null) {
+                File asset = new File(baseDir, e.asset);
+                if (!asset.isFile()) {
+                    errors.add(where + ": asset not found: " + e.asset);
+                } else if (!asset.getName().toLowerCase().endsWith(".png")) {
+                    errors.add(where + ": asset must be a PNG file");
+                }
+            }
+        }
+    }
+}
@@ -1,34 +1,89 @@
 package com.tank2d.tankserver.core;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import com.tank2d.tankserver.core.auth.AuthGuard;
+import com.tank2d.tankserver.core.inventory.InventoryCache;
+import com.tank2d.tankserver.core.inventory.InventoryData;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.metrics.ConnectionMetrics;
+import com.tank2d.tankserver.core.metrics.CountingInputStream;
+import com.tank2d.tankserver.core.metrics.CountingOutputStream;
+import com.tank2d.tankserver.core.metrics.MetricsRegistry;
+import com.tank2d.tankserver.core.net.FrameReader;
+import com.tank2d.tankserver.core.net.IdleMonitor;
+import com.tank2d.tankserver.core.net.PacketRateLimiter;
+import com.tank2d.tankserver.core.net.TimingWheel;
+import com.tank2d.tankserver.core.presence.PresenceService;
+import com.tank2d.tankserver.core.room.MatchmakingService;
 import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.room.RoomChatService;
+import com.tank2d.tankserver.core.room.RoomListPublisher;
 import com.tank2d.tankserver.core.room.RoomManager;
+import com.tank2d.tankserver.core.room.RoomQuery;
+import com.tank2d.tankserver.core.room.RoomSnapshot;
+import com.tank2d.tankserver.core.session.SessionRegistry;
 import com.tank2d.tankserver.core.shop.BuyResult;
+import com.tank2d.tankserver.db.InventoryRepository;
 import com.tank2d.tankserver.ui.MasterServerDashboard.ServerEvent;
 import com.tank2d.tankserver.utils.Packet;
 import com.tank2d.tankserver.utils.PacketType;
+import com.tank2d.tankserver.utils.Settings;
 
 public class ClientHandler implements Runnable {
+    private static final Log log = Log.get(ClientHandler.class);
+    private static final AtomicLong NEXT_CONNECTION_ID = new AtomicLong();
+
+    /** Số packet tối đa chờ gửi cho một client; đầy = client không đọc kịp → đóng connection */
+    private static final int SEND_QUEUE_CAPACITY = Settings.getInt("tankserver.net.sendQueue", 1024);
+    /** Thời gian chờ writer gửi nốt hàng đợi trước khi đóng hẳn (kick) */
+    private static final long CLOSE_GRACE_MS = 2000;
+    /** Đánh dấu cuối hàng đợi: writer flush rồi đóng socket (so sánh theo identity) */
+    private static final String CLOSE_MARKER = new String("close");
+
+    private final long connectionId = NEXT_CONNECTION_ID.incrementAndGet();
     private final Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
+    private FrameReader in;
+    private Writer out;
+    /**
+     * Hàng đợi gửi: mọi thread (push room list, chat, presence, ...) chỉ offer không chặn,
+     * một writer thread riêng của connection ghi ra socket
+     */
+    private final BlockingQueue<String> outbox = new ArrayBlockingQueue<>(SEND_QUEUE_CAPACITY);
+    private volatile Thread writer;
     private String username;
+    // volatile: PresenceService đọc từ thread "presence"
+    private volatile int userId = -1;
     private final Consumer<ServerEvent> eventCallback;
     private final String clientIP;
-    private Room currentRoom;
+    // volatile: MatchmakingService gán phòng từ thread matcher
+    private volatile Room currentRoom;
     private InetSocketAddress udpEndpoint;
+    private ConnectionMetrics metrics;
+    private final PacketRateLimiter rateLimiter = new PacketRateLimiter();
+    /** Request đang xử lý đã trả về packet lỗi (xem send) */
+    private boolean requestFailed;
+
+    // Lifecycle: IdleMonitor đọc lastActivityNanos, cleanup() chạy đúng một lần
+    private volatile long lastActivityNanos = System.nanoTime();
+    private long pingedAt; // chỉ thread của IdleMonitor
+    private volatile TimingWheel.Timeout idleTimeout;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile String closeReason;
 
     public ClientHandler(Socket socket, Consumer<ServerEvent> eventCallback) {
         this.socket = socket;
@@ -43,7 +98,7 @@ public class ClientHandler implements Runnable {
         int port = (int) p.data.get("udpPort");
 
         this.udpEndpoint = new InetSocketAddress(ip, port);
-        System.out.println("[Server] " + username + " reported UDP endpoint: " + ip + ":" + port);
+        log.debug(() -> username + " reported UDP endpoint: " + ip + ":" + port);
     }
 
 // Thêm vào switch trong handlePacket():
@@ -72,8 +127,7 @@ public class ClientHandler implements Runnable {
             botCount = currentRoom.getBotCount();
         }
 
-        System.out.println("[Server] 🎮 Starting game in room: " + currentRoom.getName());
-        System.out.println("[Server] 🤖 Bot count: " + botCount + " (from room: " + currentRoom.getBotCount() + ")");
+        log.info("🎮 Starting game in room: " + currentRoom.getName() + " (bots: " + botCount + ")");
 
 
         // Lấy map đã chọn
@@ -105,9 +159,9 @@ public class ClientHandler implements Runnable {
                 peer.put("ip", c.udpEndpoint.getAddress().getHostAddress());
                 peer.put("udpPort", c.udpEndpoint.getPort());
                 peers.add(peer);
-                System.out.println("[Server] Added peer: " + c.getUsername() + " @ " + c.udpEndpoint);
+                log.debug(() -> "Added peer: " + c.getUsername() + " @ " + c.udpEndpoint);
             } else {
-                System.out.println("[Server] WARNING: No UDP endpoint for " + c.getUsername());
+                log.warn("No UDP endpoint for " + c.getUsername());
             }
         }
 
@@ -122,50 +176,217 @@ public class ClientHandler implements Runnable {
             start.data.put("peers", peers); // ← Quan trọng: gửi danh sách peers để P2P
             client.send(start);
         }
+        currentRoom.startMatch();
+        for (ClientHandler c : currentRoom.getPlayers()) PresenceService.changed(c);
 
-        System.out.println("Sent START_GAME with " + peers.size() + " peers and " + botCount + " bots to all players.");
+        log.debug("Sent START_GAME with " + peers.size() + " peers and " + botCount + " bots to all players");
+    }
+
+    /** Host báo trận đã xong: phòng về sảnh chờ, người chơi đổi IN_GAME → IN_ROOM */
+    private void handleMatchEnd(Packet p) {
+        Room room = currentRoom;
+        if (room == null) return;
+        if (!room.getHost().equals(this)) {
+            sendError("Only host can end the match!");
+            return;
+        }
+        if (!room.endMatch()) return;
+        for (ClientHandler c : room.getPlayers()) PresenceService.changed(c);
+        broadcastToRoom(room, PacketType.ROOM_UPDATE, "Match ended");
+        log.debug(() -> "Match ended in room: " + room.getName());
     }
 
     @Override
     public void run() {
         try {
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
+            metrics = MetricsRegistry.openConnection(clientIP + ":" + socket.getPort());
+            in = new FrameReader(new CountingInputStream(socket.getInputStream(), metrics));
+            out = new BufferedWriter(new OutputStreamWriter(new CountingOutputStream(socket.getOutputStream(), metrics)));
+            writer = Thread.ofVirtual().name("client-writer-" + connectionId).start(this::writeLoop);
 
-            System.out.println("Client connected: " + socket.getInetAddress());
+            log.debug(() -> "Client connected: " + socket.getInetAddress());
+            idleTimeout = IdleMonitor.watch(this);
 
             String line;
-            while ((line = in.readLine()) != null) {
+            while ((line = in.readFrame()) != null) {
+                lastActivityNanos = System.nanoTime();
+                metrics.packetsIn.increment();
+                Packet p;
+                try {
+                    p = Packet.fromJson(line);
+                } catch (Exception ex) {
+                    MetricsRegistry.recordInvalidPacket();
+                    String invalid = line;
+                    log.debug(() -> "Invalid packet: " + invalid);
+                    continue;
+                }
+
+                long waitNanos = rateLimiter.acquire(p.type);
+                if (waitNanos > 0) {
+                    onRateLimited(p.type, waitNanos);
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                boolean error = false;
+                requestFailed = false;
                 try {
-                    Packet p = Packet.fromJson(line);
                     handlePacket(p);
                 } catch (Exception ex) {
-                    System.out.println("Invalid packet: " + line);
+                    error = true;
+                    log.warn("Error handling " + PacketType.nameOf(p.type) + ": " + ex);
                 }
+                MetricsRegistry.recordPacket(p.type, System.nanoTime() - start, error || requestFailed);
             }
         } catch (Exception e) {
-            System.out.println("Client disconnected: " + (username != null ? username : clientIP));
-            notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_DISCONNECTED, clientIP, username != null ? username : "Unknown"));
-
-            if (currentRoom != null) {
-                currentRoom.removePlayer(this);
-                broadcastToRoom(currentRoom, PacketType.ROOM_UPDATE, "Player " + username + " left the room");
-                if (currentRoom.getPlayers().isEmpty()) {
-                    RoomManager.removeRoom(currentRoom.getId());
+            if (closeReason == null) closeReason = e.getClass().getSimpleName();
+        } finally {
+            cleanup();
+        }
+    }
+
+    // -------------------------------
+    // 🔹 LIFECYCLE
+    // -------------------------------
+
+    /**
+     * Đường dọn dẹp duy nhất khi connection kết thúc (EOF, lỗi đọc, idle timeout, server stop):
+     * rời hàng chờ / phòng / room list, xóa cache của session, đóng socket, báo MasterServer.
+     */
+    private void cleanup() {
+        if (!closed.compareAndSet(false, true)) return;
+
+        TimingWheel.Timeout timeout = idleTimeout;
+        if (timeout != null) timeout.cancel();
+        MatchmakingService.cancel(this);
+        RoomListPublisher.unsubscribe(this);
+        leaveCurrentRoom("Player " + username + " left the room");
+        SessionRegistry.disconnected(this);
+        PresenceService.changed(this);
+        // Bị kick vì login nơi khác: cache inventory đang thuộc về session mới
+        if (userId > 0 && !SessionRegistry.isOnline(username)) InventoryCache.evict(userId);
+        if (metrics != null) MetricsRegistry.closeConnection(metrics);
+        disconnect();
+        Thread w = writer;
+        if (w != null) w.interrupt();
+
+        String reason = closeReason != null ? closeReason : "closed by client";
+        log.debug(() -> "Client disconnected: " + (username != null ? username : clientIP) + " (" + reason + ")");
+        notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_DISCONNECTED, connectionId, clientIP, username != null ? username : "Unknown"));
+    }
+
+    private void leaveCurrentRoom(String message) {
+        Room room = currentRoom;
+        if (room == null) return;
+        currentRoom = null;
+        boolean closed = room.removePlayerAndCloseIfEmpty(this);
+        PresenceService.changed(this);
+        if (closed) {
+            RoomManager.removeRoom(room.getId());
+        } else {
+            broadcastToRoom(room, PacketType.ROOM_UPDATE, message);
+        }
+    }
+
+    /** Đóng socket từ thread khác; vòng đọc kết thúc và cleanup() chạy trên thread của client */
+    public void close(String reason) {
+        if (closeReason == null) closeReason = reason;
+        disconnect();
+    }
+
+    public boolean isClosed() {
+        return closed.get() || socket.isClosed();
+    }
+
+    /** Báo SESSION_KICKED {msg} cho client rồi đóng connection (login trùng account, admin kick) */
+    public void kick(String reason) {
+        if (isClosed()) return;
+        Packet p = new Packet(PacketType.SESSION_KICKED);
+        p.data.put("msg", reason);
+        send(p);
+        closeAfterFlush(reason);
+    }
+
+    /**
+     * Đóng sau khi writer gửi hết các packet đã xếp hàng; đóng hẳn sau CLOSE_GRACE_MS
+     * nếu client không đọc để writer gửi xong
+     */
+    private void closeAfterFlush(String reason) {
+        if (closeReason == null) closeReason = reason;
+        if (!outbox.offer(CLOSE_MARKER)) {
+            disconnect();
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(CLOSE_GRACE_MS);
+            } catch (InterruptedException ignored) {
+                // đóng ngay
+            }
+            disconnect();
+        });
+    }
+
+    /** Writer thread: lấy từ outbox ghi ra socket, flush khi hàng đợi trống */
+    private void writeLoop() {
+        try {
+            while (true) {
+                String json = outbox.take();
+                if (json == CLOSE_MARKER) {
+                    out.flush();
+                    break;
                 }
+                out.write(json);
+                out.write('\n');
+                if (outbox.isEmpty()) out.flush();
             }
+        } catch (InterruptedException e) {
+            // cleanup() dừng writer
+        } catch (IOException e) {
+            if (closeReason == null) closeReason = "write failed: " + e.getMessage();
         } finally {
             disconnect();
         }
     }
 
+    public long getLastActivityNanos() {
+        return lastActivityNanos;
+    }
+
+    /** true nếu chưa PING cho khoảng im lặng hiện tại (gọi từ IdleMonitor) */
+    public boolean markPingDue() {
+        long last = lastActivityNanos;
+        if (pingedAt == last) return false;
+        pingedAt = last;
+        return true;
+    }
+
+    private void onRateLimited(int type, long waitNanos) {
+        log.debug(() -> "Rate limited " + PacketType.nameOf(type) + " from " + (username != null ? username : clientIP));
+        if (PacketRateLimiter.actionFor(type) == PacketRateLimiter.Action.DROP) return;
+
+        Packet p = new Packet(PacketType.RATE_LIMITED);
+        p.data.put("type", type);
+        p.data.put("retryAfterMs", Math.max(1, waitNanos / 1_000_000));
+        send(p);
+    }
+
+    public void sendPing() {
+        if (!isClosed()) send(new Packet(PacketType.PING));
+    }
+
+    public void setIdleTimeout(TimingWheel.Timeout timeout) {
+        idleTimeout = timeout;
+        if (closed.get()) timeout.cancel();
+    }
+
     public void disconnect() {
         try {
             if (socket != null && !socket.isClosed()) {
                 socket.close();
             }
         } catch (IOException e) {
-            System.out.println("Error closing client socket: " + e.getMessage());
+            log.warn("Error closing client socket: " + e.getMessage());
         }
     }
 
@@ -177,10 +398,18 @@ public class ClientHandler implements Runnable {
             case PacketType.JOIN_ROOM -> handleJoinRoom(p);
             case PacketType.LEAVE_ROOM -> handleLeaveRoom(p);
             case PacketType.PLAYER_READY -> handlePlayerReady(p);
+            case PacketType.ROOM_CHAT -> handleRoomChat(p);
             case PacketType.START_GAME -> handleStartGame(p);
+            case PacketType.MATCH_END -> handleMatchEnd(p);
             case PacketType.SELECT_MAP -> handleSelectMap(p);
             case PacketType.BOT_COUNT_CHANGED -> handleBotCountChanged(p);
             case PacketType.ROOM_LIST -> handleRoomList(p);
+            case PacketType.ROOM_LIST_SUBSCRIBE -> RoomListPublisher.subscribe(this);
+            case PacketType.ROOM_LIST_UNSUBSCRIBE -> RoomListPublisher.unsubscribe(this);
+            case PacketType.PING -> send(new Packet(PacketType.PONG));
+            case PacketType.PONG -> { } // lastActivity đã cập nhật khi đọc
+            case PacketType.QUICK_PLAY -> handleQuickPlay(p);
+            case PacketType.QUICK_PLAY_CANCEL -> MatchmakingService.cancel(this);
             case PacketType.SHOP_LIST -> handleShopList(p);
             case PacketType.BUY_ITEM -> handleBuyItem(p);
             case PacketType.TANK_SHOP_LIST -> handleTankShopList(p);
@@ -188,25 +417,49 @@ public class ClientHandler implements Runnable {
             case PacketType.EQUIP_TANK -> handleEquipTank(p);
             case PacketType.INVENTORY_REQUEST -> handleInventoryRequest(p);
             case PacketType.REPORT_UDP_ENDPOINT -> handleReportUdpEndpoint(p);
+            case PacketType.FRIEND_LIST -> handleFriendList(p);
+            case PacketType.FRIEND_ADD -> handleFriendAdd(p);
+            case PacketType.FRIEND_REMOVE -> handleFriendRemove(p);
 
         }
     }
 
     private void handleLogin(Packet p) {
+        SessionRegistry.logout(this, username);
+        if (userId > 0) {
+            InventoryCache.evict(userId);
+            PresenceService.changed(this); // account cũ → OFFLINE
+            userId = -1;
+        }
         username = (String) p.data.get("username");
         String password = (String) p.data.get("password");
 
-        System.out.println("=== LOGIN ATTEMPT ===");
-        System.out.println("Username: '" + username + "'");
-        System.out.println("Password length: " + (password != null ? password.length() : "null"));
+        String blocked = AuthGuard.checkLogin(clientIP, username);
+        if (blocked != null) {
+            String name = username;
+            username = null;
+            sendError(blocked);
+            notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_LOGIN, connectionId, clientIP, name + " (BLOCKED)"));
+            return;
+        }
 
         boolean success = AccountManager.login(username, password);
+        if (success && !SessionRegistry.login(this, username)) {
+            String name = username;
+            username = null;
+            sendError("This account is already online!");
+            notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_LOGIN, connectionId, clientIP, name + " (ALREADY ONLINE)"));
+            return;
+        }
         
         if (success) {
-            System.out.println("✓ Login SUCCESS for: " + username);
-            System.out.println("ClientHandler.username is now set to: " + this.username);
+            userId = AccountManager.getUserIdByUsername(username);
+            metrics.username = username;
+            PresenceService.loggedIn(this);
+            log.debug(() -> "Login OK: " + username);
         } else {
-            System.out.println("✗ Login FAILED for: " + username);
+            String failed = username;
+            log.debug(() -> "Login failed: " + failed);
             this.username = null; // Clear username on failed login
         }
         
@@ -214,46 +467,57 @@ public class ClientHandler implements Runnable {
         resp.data.put("msg", success ? "Welcome " + username + "!" : "Invalid credentials!");
         send(resp);
 
-        notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_LOGIN, clientIP, username + (success ? " (SUCCESS)" : " (FAILED)")));
+        notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_LOGIN, connectionId, clientIP, username + (success ? " (SUCCESS)" : " (FAILED)")));
     }
 
     private void handleRegister(Packet p) {
         String user = (String) p.data.get("username");
         String pass = (String) p.data.get("password");
 
+        String blocked = AuthGuard.checkRegister(clientIP);
+        if (blocked != null) {
+            Packet resp = new Packet(PacketType.REGISTER_FAIL);
+            resp.data.put("msg", blocked);
+            send(resp);
+            notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_REGISTER, connectionId, clientIP, user + " (BLOCKED)"));
+            return;
+        }
+
         boolean ok = AccountManager.register(user, pass);
         Packet resp = new Packet(ok ? PacketType.REGISTER_OK : PacketType.REGISTER_FAIL);
         resp.data.put("msg", ok ? "Registered successfully!" : "Username already exists!");
         send(resp);
 
-        notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_REGISTER, clientIP, user + (ok ? " (SUCCESS)" : " (FAILED)")));
+        notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_REGISTER, connectionId, clientIP, user + (ok ? " (SUCCESS)" : " (FAILED)")));
     }
 
     private void handleRoomList(Packet p) {
-        Packet resp = new Packet(PacketType.ROOM_LIST_DATA);
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (Room r : RoomManager.getRooms()) {
-            Map<String, Object> roomInfo = new HashMap<>();
-            roomInfo.put("id", Integer.valueOf(r.getId())); // ✅ ensure integer
-            roomInfo.put("name", r.getName());
-            roomInfo.put("players", Integer.valueOf(r.getPlayers().size())); // ✅ ensure integer
-            roomInfo.put("maxPlayers", Integer.valueOf(r.getMaxPlayers()));  // ✅ ensure integer
-            roomInfo.put("hasPassword", Boolean.valueOf(r.hasPassword()));   // ✅ ensure boolean, not string
-            list.add(roomInfo);
+        if (p.data.isEmpty()) {
+            // Không filter: chuỗi dùng chung, chỉ build lại khi phòng thay đổi
+            sendEncoded(PacketType.ROOM_LIST_DATA, RoomManager.getEncodedRoomList());
+            return;
         }
 
+        RoomManager.RoomPage page = RoomManager.queryRooms(RoomQuery.from(p.data));
+        List<Map<String, Object>> list = new ArrayList<>(page.rooms().size());
+        for (RoomSnapshot room : page.rooms()) {
+            list.add(room.toMap());
+        }
+        Packet resp = new Packet(PacketType.ROOM_LIST_DATA);
         resp.data.put("rooms", list);
-        System.out.println("send back room list" + list.toString());
+        if (page.nextCursor() != null) resp.data.put("nextCursor", page.nextCursor());
         send(resp);
     }
 
     private void handleCreateRoom(Packet p) {
+        if (!leaveQuickPlay()) return;
         String roomName = (String) p.data.get("roomName");
         int maxPlayers = (int) p.data.get("maxPlayers");
         String password = (String) p.data.get("password");
 
         Room room = RoomManager.createRoom(roomName, this, maxPlayers, password);
         currentRoom = room;
+        PresenceService.changed(this);
 
         Packet resp = new Packet(PacketType.ROOM_CREATED);
         resp.data.put("roomId", room.getId());
@@ -261,11 +525,12 @@ public class ClientHandler implements Runnable {
         resp.data.put("maxPlayers", room.getMaxPlayers());
         resp.data.put("players", room.getPlayerNames());
 
-        System.out.println("Room created: " + room.getName() + " by " + username);
+        log.debug(() -> "Room created: " + room.getName() + " by " + username);
         send(resp);
     }
 
     private void handleJoinRoom(Packet p) {
+        if (!leaveQuickPlay()) return;
         int roomId = (int) p.data.get("roomId");
         String password = (String) p.data.get("password");
 
@@ -274,6 +539,10 @@ public class ClientHandler implements Runnable {
             sendError("Room not found!");
             return;
         }
+        if (room.isInGame()) {
+            sendError("Game already in progress!");
+            return;
+        }
         if (room.isFull()) {
             sendError("Room is full!");
             return;
@@ -283,27 +552,80 @@ public class ClientHandler implements Runnable {
             return;
         }
 
-        room.addPlayer(this);
+        if (!room.addPlayer(this)) {
+            // Đầy, vừa đóng hoặc vừa vào trận giữa lúc kiểm tra và lúc vào
+            sendError(room.isClosed() ? "Room not found!"
+                    : room.isInGame() ? "Game already in progress!" : "Room is full!");
+            return;
+        }
         currentRoom = room;
+        PresenceService.changed(this);
 
+        sendRoomJoined(room);
+        broadcastToRoom(room, PacketType.ROOM_UPDATE, username + " joined the room");
+    }
+
+    private void sendRoomJoined(Room room) {
         Packet resp = new Packet(PacketType.ROOM_JOINED);
         resp.data.put("roomId", room.getId());
         resp.data.put("roomName", room.getName());
         resp.data.put("maxPlayers", room.getMaxPlayers());
         resp.data.put("players", room.getPlayerNames());
         resp.data.put("selectedMap", room.getSelectedMap()); // Send current selected map
+        resp.data.put("host", room.getHost().getUsername());
+        send(resp);
+        RoomChatService.sendHistory(room, this);
+    }
+
+    // -------------------------------
+    // 🔹 QUICK PLAY
+    // -------------------------------
+
+    private void handleQuickPlay(Packet p) {
+        if (username == null) {
+            sendError("You must be logged in!");
+            return;
+        }
+        if (currentRoom != null) {
+            sendError("Leave your room before quick play!");
+            return;
+        }
+        String map = (String) p.data.get("map");
+        int maxPlayers = p.data.get("maxPlayers") instanceof Number n
+                ? n.intValue() : MatchmakingService.DEFAULT_MAX_PLAYERS;
+
+        if (!MatchmakingService.enqueue(this, map, maxPlayers)) {
+            sendError("Already in the quick play queue!");
+            return;
+        }
+        Packet resp = new Packet(PacketType.QUICK_PLAY_QUEUED);
+        resp.data.put("queueSize", MatchmakingService.getQueueSize());
         send(resp);
+    }
 
+    /** Hủy quick play trước khi tự tạo / vào phòng; false nếu matcher đang xếp phòng cho client này */
+    private boolean leaveQuickPlay() {
+        if (MatchmakingService.cancel(this)) return true;
+        sendError("Quick play match in progress!");
+        return false;
+    }
+
+    /** Gọi từ thread matcher sau khi đã thêm client vào room */
+    public void onQuickPlayMatched(Room room) {
+        currentRoom = room;
+        if (closed.get()) {
+            // cleanup() đã chạy trong lúc đang được xếp phòng
+            leaveCurrentRoom("Player " + username + " left the room");
+            return;
+        }
+        PresenceService.changed(this);
+        sendRoomJoined(room);
         broadcastToRoom(room, PacketType.ROOM_UPDATE, username + " joined the room");
+        log.debug(() -> "Quick play: " + username + " -> " + room.getName());
     }
 
     private void handleLeaveRoom(Packet p) {
-        if (currentRoom == null) return;
-        Room room = currentRoom;
-        room.removePlayer(this);
-        broadcastToRoom(room, PacketType.ROOM_UPDATE, username + " left the room");
-        currentRoom = null;
-        if (room.getPlayers().isEmpty()) RoomManager.removeRoom(room.getId());
+        leaveCurrentRoom(username + " left the room");
     }
 
     private void handlePlayerReady(Packet p) {
@@ -312,6 +634,16 @@ public class ClientHandler implements Runnable {
         broadcastToRoom(currentRoom, PacketType.ROOM_UPDATE, username + (ready ? " is ready!" : " is not ready"));
     }
     
+    private void handleRoomChat(Packet p) {
+        Room room = currentRoom;
+        if (room == null) {
+            sendError("You are not in a room!");
+            return;
+        }
+        String error = RoomChatService.post(this, room, (String) p.data.get("text"));
+        if (error != null) sendError(error);
+    }
+
     private void handleSelectMap(Packet p) {
         if (currentRoom == null) {
             sendError("You are not in a room!");
@@ -335,7 +667,7 @@ public class ClientHandler implements Runnable {
         }
         
         currentRoom.setSelectedMap(selectedMap);
-        System.out.println("Host " + username + " selected map: " + selectedMap);
+        log.debug(() -> "Host " + username + " selected map: " + currentRoom.getSelectedMap());
         
         // Broadcast to all players in room
         Packet resp = new Packet(PacketType.MAP_SELECTED);
@@ -347,17 +679,13 @@ public class ClientHandler implements Runnable {
     }
     
     private void handleBotCountChanged(Packet p) {
-        System.out.println("[Server] Received BOT_COUNT_CHANGED from " + username);
-        
         if (currentRoom == null) {
             sendError("You are not in a room!");
-            System.out.println("[Server] ❌ " + username + " is not in a room yet!");
             return;
         }
         
         if (!currentRoom.getHost().equals(this)) {
             sendError("Only host can change bot count!");
-            System.out.println("[Server] ❌ " + username + " is not the host!");
             return;
         }
         
@@ -370,7 +698,7 @@ public class ClientHandler implements Runnable {
         }
         
         currentRoom.setBotCount(botCount);
-        System.out.println("[Server] ✅ Host " + username + " set bot count to: " + botCount);
+        log.debug(() -> "Host " + username + " set bot count to: " + botCount);
         
         // Broadcast to all players in room
         Packet resp = new Packet(PacketType.BOT_COUNT_CHANGED);
@@ -404,35 +732,22 @@ public class ClientHandler implements Runnable {
         resp.data.put("items", itemsData);
         
         // ✅ Gửi thêm gold của user
-        if (username != null) {
-            int userId = AccountManager.getUserIdByUsername(username);
-            if (userId > 0) {
-                int gold = AccountManager.getUserGold(userId);
-                resp.data.put("gold", gold);
-                System.out.println("Sent shop list with " + items.size() + " items and gold: " + gold + " to " + username);
-            }
+        if (userId > 0) {
+            int gold = AccountManager.getUserGold(userId);
+            resp.data.put("gold", gold);
         }
         
         send(resp);
     }
 
     private void handleBuyItem(Packet p) {
-        System.out.println("=== handleBuyItem called ===");
-        System.out.println("Current username: " + username);
-        
         if (username == null) {
-            System.out.println("ERROR: username is NULL!");
             sendError("You must be logged in!");
             return;
         }
         
-        // Lấy userId từ username
-        System.out.println("Querying userId for username: '" + username + "'");
-        int userId = AccountManager.getUserIdByUsername(username);
-        System.out.println("Retrieved userId: " + userId);
-        
         if (userId <= 0) {
-            System.out.println("ERROR: User not found in database! userId=" + userId);
+            log.warn("User not found in database: " + username);
             sendError("User not found!");
             return;
         }
@@ -440,8 +755,6 @@ public class ClientHandler implements Runnable {
         int itemId = ((Number) p.data.get("itemId")).intValue();
         int quantity = ((Number) p.data.get("quantity")).intValue();
         
-        System.out.println(username + " is buying item " + itemId + " x" + quantity);
-        
         BuyResult result = ShopManager.buyItem(userId, itemId, quantity);
         
         Packet resp;
@@ -449,13 +762,24 @@ public class ClientHandler implements Runnable {
             resp = new Packet(PacketType.BUY_SUCCESS);
             resp.data.put("gold", result.remainingGold);
             resp.data.put("msg", "Purchase successful!");
-            System.out.println(username + " bought item successfully. Remaining gold: " + result.remainingGold);
+            log.debug(() -> username + " bought item " + itemId + " x" + quantity + ", gold left: " + result.remainingGold);
         } else {
             resp = new Packet(PacketType.BUY_FAIL);
             resp.data.put("msg", result.status);
-            System.out.println(username + " purchase failed: " + result.status);
+            log.debug(() -> username + " purchase failed: " + result.status);
         }
         send(resp);
+
+        if ("SUCCESS".equals(result.status)) {
+            // Push deltas so the client can patch its local inventory
+            sendGoldChanged(result.remainingGold);
+            Map<String, Object> item = InventoryCache.findItem(userId, itemId);
+            if (item != null) {
+                Packet delta = new Packet(PacketType.INVENTORY_ITEM_CHANGED);
+                delta.data.put("item", item);
+                send(delta);
+            }
+        }
     }
     
     private void handleInventoryRequest(Packet p) {
@@ -464,44 +788,110 @@ public class ClientHandler implements Runnable {
             return;
         }
         
-        int userId = AccountManager.getUserIdByUsername(username);
         if (userId <= 0) {
             sendError("User not found!");
             return;
         }
         
-        // Get user's tanks from tank table
-        var userTanks = TankShopManager.getUserTanks(userId);
-        
-        // Get equipped tank
-        var equippedTank = TankShopManager.getEquippedTank(userId);
-        
-        // Get user's items from item table
-        var inventoryItems = InventoryManager.getUserInventory(userId);
-        
-        // Get user's gold
-        int gold = AccountManager.getUserGold(userId);
+        // Served from the per-user cache; loaded in one round trip on first request
+        InventoryData inventory = InventoryCache.get(userId);
+        if (inventory == null) {
+            sendError("Could not load inventory, please try again");
+            return;
+        }
         
+        // Encode under the cache lock so write-through updates can't interleave,
+        // write to the socket after releasing it
         Packet resp = new Packet(PacketType.INVENTORY_DATA);
-        resp.data.put("tanks", userTanks);
-        resp.data.put("items", inventoryItems);
-        resp.data.put("gold", gold);
-        resp.data.put("equippedTank", equippedTank);
-        
-        System.out.println("Sent inventory: " + userTanks.size() + " tanks, " + inventoryItems.size() + " items to " + username);
+        String json;
+        synchronized (inventory) {
+            resp.data.put("tanks", inventory.tanks);
+            resp.data.put("items", inventory.items);
+            resp.data.put("gold", inventory.gold);
+            resp.data.put("equippedTank", inventory.equippedTank);
+            json = resp.toJson();
+        }
+        sendEncoded(resp.type, json);
+    }
+
+    // -------------------------------
+    // 🔹 FRIENDS
+    // -------------------------------
+
+    private void handleFriendList(Packet p) {
+        if (userId <= 0) {
+            sendError("You must be logged in!");
+            return;
+        }
+        List<Map<String, Object>> friends = PresenceService.getFriendList(userId);
+        if (friends == null) {
+            sendError("Could not load friend list!");
+            return;
+        }
+        Packet resp = new Packet(PacketType.FRIEND_LIST_DATA);
+        resp.data.put("friends", friends);
         send(resp);
     }
 
+    private void handleFriendAdd(Packet p) {
+        if (userId <= 0) {
+            sendError("You must be logged in!");
+            return;
+        }
+        String name = (String) p.data.get("username");
+        int friendId = name != null ? AccountManager.getUserIdByUsername(name) : -1;
+        if (friendId <= 0) {
+            sendError("User not found!");
+            return;
+        }
+        String error = PresenceService.addFriend(this, friendId, name);
+        if (error != null) sendError(error);
+    }
+
+    private void handleFriendRemove(Packet p) {
+        if (userId <= 0) {
+            sendError("You must be logged in!");
+            return;
+        }
+        String name = (String) p.data.get("username");
+        String error = name != null ? PresenceService.removeFriend(this, name) : "User not found!";
+        if (error != null) sendError(error);
+    }
+
     private void broadcastToRoom(Room room, int type, String msg) {
         Packet p = new Packet(type);
         p.data.put("msg", msg);
         p.data.put("players", room.getPlayerNames());
         p.data.put("maxPlayers", room.getMaxPlayers());
+        p.data.put("host", room.getHost().getUsername());
         for (ClientHandler c : room.getPlayers()) c.send(p);
     }
 
     private void send(Packet p) {
-        out.println(p.toJson());
+        sendEncoded(p.type, p.toJson());
+    }
+
+    /**
+     * Gửi packet đã encode sẵn (một chuỗi JSON dùng chung cho nhiều client, vd. room list push).
+     * Gọi được từ thread bất kỳ và không bao giờ chặn: chỉ xếp vào hàng đợi gửi của connection.
+     * Hàng đợi đầy (client không đọc) → đóng connection thay vì làm chậm thread đang gửi.
+     */
+    public void sendEncoded(int type, String json) {
+        if (PacketType.isFailure(type)) requestFailed = true;
+        if (isClosed()) return;
+        if (!outbox.offer(json)) {
+            MetricsRegistry.recordSlowConsumer();
+            log.debug(() -> "Send queue full, closing " + (username != null ? username : clientIP));
+            close("send queue full");
+            return;
+        }
+        if (metrics != null) metrics.packetsOut.increment();
+    }
+
+    private void sendGoldChanged(int gold) {
+        Packet p = new Packet(PacketType.GOLD_CHANGED);
+        p.data.put("gold", gold);
+        send(p);
     }
 
     private void sendError(String msg) {
@@ -517,6 +907,19 @@ public class ClientHandler implements Runnable {
     public String getUsername() {
         return this.username;
     }
+
+    /** Id duy nhất của connection trong process (Dashboard, ...) */
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    public Room getCurrentRoom() {
+        return currentRoom;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
     
     private void handleTankShopList(Packet p) {
         var tanks = TankShopManager.getAllTanks();
@@ -535,17 +938,18 @@ public class ClientHandler implements Runnable {
             tankList.add(t);
         }
         
-        int gold = AccountManager.getUserGold(AccountManager.getUserIdByUsername(username));
-        
         Packet resp = new Packet(PacketType.TANK_SHOP_LIST_DATA);
         resp.data.put("tanks", tankList);
-        resp.data.put("gold", gold);
+        resp.data.put("gold", userId > 0 ? AccountManager.getUserGold(userId) : 0);
         send(resp);
     }
     
     private void handleBuyTank(Packet p) {
+        if (userId <= 0) {
+            sendError("You must be logged in!");
+            return;
+        }
         int tankId = (int) p.data.get("tankId");
-        int userId = AccountManager.getUserIdByUsername(username);
         
         BuyResult result = TankShopManager.buyTank(userId, tankId);
         
@@ -554,6 +958,14 @@ public class ClientHandler implements Runnable {
             resp.data.put("msg", "Tank purchased successfully!");
             resp.data.put("remainingGold", result.remainingGold);
             send(resp);
+
+            sendGoldChanged(result.remainingGold);
+            Map<String, Object> tank = InventoryCache.findTank(userId, tankId);
+            if (tank != null) {
+                Packet delta = new Packet(PacketType.INVENTORY_TANK_ADDED);
+                delta.data.put("tank", tank);
+                send(delta);
+            }
         } else {
             Packet resp = new Packet(PacketType.BUY_FAIL);
             resp.data.put("msg", result.status);
@@ -562,8 +974,11 @@ public class ClientHandler implements Runnable {
     }
     
     private void handleEquipTank(Packet p) {
+        if (userId <= 0) {
+            sendError("You must be logged in!");
+            return;
+        }
         int tankId = (int) p.data.get("tankId");
-        int userId = AccountManager.getUserIdByUsername(username);
         
         boolean success = TankShopManager.equipTank(userId, tankId);
         
@@ -571,6 +986,14 @@ public class ClientHandler implements Runnable {
             Packet resp = new Packet(PacketType.EQUIP_TANK_SUCCESS);
             resp.data.put("tankId", tankId);
             send(resp);
+
+            Packet delta = new Packet(PacketType.EQUIPPED_TANK_CHANGED);
+            delta.data.put("tankId", tankId);
+            Map<String, Object> tank = InventoryCache.findTank(userId, tankId);
+            if (tank != null) {
+                delta.data.put("equippedTank", InventoryRepository.findEquippedTank(List.of(tank)));
+            }
+            send(delta);
         } else {
             Packet resp = new Packet(PacketType.EQUIP_TANK_FAIL);
             resp.data.put("msg", "Failed to equip tank");
@@ -1,5 +1,6 @@
 package com.tank2d.tankserver.core;
 
+import com.tank2d.tankserver.core.inventory.InventoryData;
 import com.tank2d.tankserver.db.InventoryRepository;
 
 import java.util.List;
@@ -16,4 +17,11 @@ public class InventoryManager {
     public static List<Map<String, Object>> getUserInventory(int userId) {
         return InventoryRepository.getUserInventory(userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Lấy tanks, items, gold và tank đang equip của user trong một lần load
+     */
+    public static InventoryData loadInventory(int userId) {
+        return InventoryRepository.loadInventory(userId);
+    }
+}
@@ -1,5 +1,9 @@
 package com.tank2d.tankserver.core;
 
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.db.AttributeRepository;
 import com.tank2d.tankserver.db.ShopRepository;
 
 import java.sql.Connection;
@@ -14,6 +18,8 @@ import java.util.Map;
  * Business Logic Layer for Item Management (Admin)
  */
 public class ItemShopManager {
+    private static final Log log = Log.get(ItemShopManager.class);
+
     
     private static final ShopRepository shopRepo = new ShopRepository();
     
@@ -52,11 +58,10 @@ public class ItemShopManager {
                 items.add(item);
             }
             
-            System.out.println("[ItemShopManager] Loaded " + items.size() + " items");
+            log.info("Loaded " + items.size() + " items");
             
         } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error loading items: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading items: " + e.getMessage(), e);
         }
         
         return items;
@@ -66,7 +71,7 @@ public class ItemShopManager {
      * Get item attributes
      */
     private static Map<String, Double> getItemAttributes(Connection conn, int itemId) {
-        Map<String, Double> attributes = new HashMap<>();
+        Map<String, Double> attributes = new AttributeSet();
         
         String sql = """
             SELECT a.name, ia.attribute_value
@@ -83,7 +88,7 @@ public class ItemShopManager {
                 attributes.put(rs.getString("name"), rs.getDouble("attribute_value"));
             }
         } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error loading attributes: " + e.getMessage());
+            log.error("Error loading attributes: " + e.getMessage());
         }
         
         return attributes;
@@ -98,6 +103,9 @@ public class ItemShopManager {
         String itemSql = "INSERT INTO item (name, description, base_price, item_type, rarity) VALUES (?, ?, ?, ?, ?)";
         String attrSql = "INSERT INTO item_attribute (item_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
         
+        // Resolve attribute id trước transaction (có thể phải reload bảng attribute)
+        if (attributes != null) AttributeRegistry.resolveDatabaseIds(attributes.keySet());
+
         try (Connection conn = com.tank2d.tankserver.db.Connector.getConnection()) {
             conn.setAutoCommit(false);
             
@@ -121,25 +129,14 @@ public class ItemShopManager {
             }
             
             // Insert attributes
-            try (PreparedStatement ps = conn.prepareStatement(attrSql)) {
-                for (Map.Entry<String, Double> entry : attributes.entrySet()) {
-                    int attrId = getAttributeId(conn, entry.getKey());
-                    if (attrId > 0) {
-                        ps.setInt(1, itemId);
-                        ps.setInt(2, attrId);
-                        ps.setDouble(3, entry.getValue());
-                        ps.executeUpdate();
-                    }
-                }
-            }
+            AttributeRepository.insertAttributes(conn, attrSql, itemId, attributes);
             
             conn.commit();
-            System.out.println("[ItemShopManager] Created item: " + name + " (ID: " + itemId + ")");
+            log.info("Created item: " + name + " (ID: " + itemId + ")");
             return true;
             
         } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error creating item: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating item: " + e.getMessage(), e);
             return false;
         }
     }
@@ -154,6 +151,9 @@ public class ItemShopManager {
         String deleteAttrSql = "DELETE FROM item_attribute WHERE item_id = ?";
         String insertAttrSql = "INSERT INTO item_attribute (item_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
         
+        // Resolve attribute id trước transaction (có thể phải reload bảng attribute)
+        if (attributes != null) AttributeRegistry.resolveDatabaseIds(attributes.keySet());
+
         try (Connection conn = com.tank2d.tankserver.db.Connector.getConnection()) {
             conn.setAutoCommit(false);
             
@@ -175,25 +175,14 @@ public class ItemShopManager {
             }
             
             // Insert new attributes
-            try (PreparedStatement ps = conn.prepareStatement(insertAttrSql)) {
-                for (Map.Entry<String, Double> entry : attributes.entrySet()) {
-                    int attrId = getAttributeId(conn, entry.getKey());
-                    if (attrId > 0) {
-                        ps.setInt(1, itemId);
-                        ps.setInt(2, attrId);
-                        ps.setDouble(3, entry.getValue());
-                        ps.executeUpdate();
-                    }
-                }
-            }
+            AttributeRepository.insertAttributes(conn, insertAttrSql, itemId, attributes);
             
             conn.commit();
-            System.out.println("[ItemShopManager] Updated item: " + itemId);
+            log.info("Updated item: " + itemId);
             return true;
             
         } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error updating item: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error updating item: " + e.getMessage(), e);
             return false;
         }
     }
@@ -211,32 +200,14 @@ public class ItemShopManager {
             int affected = ps.executeUpdate();
             
             if (affected > 0) {
-                System.out.println("[ItemShopManager] Deleted item: " + itemId);
+                log.info("Deleted item: " + itemId);
                 return true;
             }
             
         } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error deleting item: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error deleting item: " + e.getMessage(), e);
         }
         
         return false;
     }
-    
-    /**
-     * Get attribute ID by name
-     */
-    private static int getAttributeId(Connection conn, String attributeName) {
-        String sql = "SELECT id FROM attribute WHERE name = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, attributeName);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        } catch (Exception e) {
-            System.err.println("[ItemShopManager] Error getting attribute ID: " + e.getMessage());
-        }
-        return 0;
-    }
 }
@@ -1,16 +1,24 @@
 package com.tank2d.tankserver.core;
 
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.auth.AuthGuard;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.session.SessionRegistry;
 import com.tank2d.tankserver.ui.MasterServerDashboard.ServerEvent;
 import com.tank2d.tankserver.utils.Constant;
+import com.tank2d.tankserver.utils.Settings;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Consumer;
+import jdk.net.ExtendedSocketOptions;
 
 public class MasterServer {
-    private final List<ClientHandler> clients = new ArrayList<>();
+    private static final Log log = Log.get(MasterServer.class);
+
+    /** Giây im lặng trước probe keepalive đầu tiên (mặc định của OS là 2 giờ) */
+    private static final int KEEPALIVE_IDLE_S = Settings.getInt("tankserver.net.keepAliveIdle", 60);
+
     private Consumer<ServerEvent> eventCallback;
     private ServerSocket serverSocket;
     private volatile boolean running = false;
@@ -27,6 +35,11 @@ public class MasterServer {
         try {
             serverSocket = new ServerSocket(port);
             running = true;
+
+            // Intern attribute names once so catalog/inventory rows share ids
+            AttributeRegistry.load();
+            // Username filter cho chống flood LOGIN / REGISTER
+            AuthGuard.load();
 //            System.out.println("Master Server started on TCP port " + port);
             
 //            // Start Game Relay Server for UDP game state forwarding
@@ -38,12 +51,16 @@ public class MasterServer {
                 try {
                     Socket socket = serverSocket.accept();
                     String clientIP = socket.getInetAddress().getHostAddress();
-                    
+                    // Request/response nhỏ: tắt Nagle để reply không bị giữ chờ delayed ACK
+                    socket.setTcpNoDelay(true);
+                    enableKeepAlive(socket);
+
                     ClientHandler handler = new ClientHandler(socket, this::notifyEvent);
-                    clients.add(handler);
+                    // Handler tự gỡ khỏi registry khi connection kết thúc (ClientHandler.cleanup)
+                    SessionRegistry.connected(handler);
                     new Thread(handler).start();
                     
-                    notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_CONNECTED, clientIP, ""));
+                    notifyEvent(new ServerEvent(ServerEvent.Type.CLIENT_CONNECTED, handler.getConnectionId(), clientIP, ""));
                 } catch (IOException e) {
                     if (running) {
                         notifyEvent(new ServerEvent(ServerEvent.Type.SERVER_ERROR, "", "Accept failed: " + e.getMessage()));
@@ -56,6 +73,25 @@ public class MasterServer {
         }
     }
 
+    /**
+     * TCP keepalive: OS tự probe connection im lặng nên peer chết / mất mạng (half-open) bị đóng
+     * cả khi client không trả PING, kể cả lúc đang trong trận (IdleMonitor không đóng khi in-game).
+     */
+    private static void enableKeepAlive(Socket socket) throws IOException {
+        socket.setKeepAlive(true);
+        if (KEEPALIVE_IDLE_S <= 0) return;
+        // TCP_KEEPIDLE / INTERVAL / COUNT không có trên mọi OS: thiếu thì dùng mặc định của OS
+        if (socket.supportedOptions().contains(ExtendedSocketOptions.TCP_KEEPIDLE)) {
+            socket.setOption(ExtendedSocketOptions.TCP_KEEPIDLE, KEEPALIVE_IDLE_S);
+        }
+        if (socket.supportedOptions().contains(ExtendedSocketOptions.TCP_KEEPINTERVAL)) {
+            socket.setOption(ExtendedSocketOptions.TCP_KEEPINTERVAL, 15);
+        }
+        if (socket.supportedOptions().contains(ExtendedSocketOptions.TCP_KEEPCOUNT)) {
+            socket.setOption(ExtendedSocketOptions.TCP_KEEPCOUNT, 4);
+        }
+    }
+
     public void stop() {
         running = false;
         
@@ -67,25 +103,24 @@ public class MasterServer {
             }
             
             // Disconnect all clients
-            for (ClientHandler client : clients) {
-                client.disconnect();
+            for (ClientHandler client : SessionRegistry.connections()) {
+                client.close("server stopped");
             }
-            clients.clear();
             
         } catch (IOException e) {
-            System.out.println("Error stopping server: " + e.getMessage());
+            log.error("Error stopping server: " + e.getMessage());
         }
     }
 
-    public void removeClient(ClientHandler client) {
-        clients.remove(client);
+    public int getClientCount() {
+        return SessionRegistry.getConnectionCount();
     }
 
     private void notifyEvent(ServerEvent event) {
         if (eventCallback != null) {
             eventCallback.accept(event);
         }
-        // Also print to console
-        System.out.println("[SERVER] " + event.getType() + ": " + event.getMessage());
+        // Also log to console
+        log.debug(() -> event.getType() + ": " + event.getMessage());
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 
+import com.tank2d.tankserver.core.inventory.InventoryCache;
+import com.tank2d.tankserver.core.log.Log;
 import com.tank2d.tankserver.core.shop.BuyResult;
 import com.tank2d.tankserver.core.shop.ShopItem;
 import com.tank2d.tankserver.db.AccountRepository;
@@ -16,6 +18,8 @@ import com.tank2d.tankserver.db.ShopRepository.ShopItemInfo;
  * Xử lý logic nghiệp vụ, validate, và điều phối các Repository
  */
 public class ShopManager {
+    private static final Log log = Log.get(ShopManager.class);
+
     
     private static final ShopRepository shopRepo = new ShopRepository();
     private static final AccountRepository accountRepo = new AccountRepository();
@@ -58,7 +62,7 @@ public class ShopManager {
             int totalCost = finalPrice * quantity;
 
             // 4. Lấy gold của user và validate
-            int userGold = accountRepo.getUserGold(userId);
+            int userGold = accountRepo.getUserGold(conn, userId);
             if (userGold < totalCost) {
                 result.status = "NOT_ENOUGH_GOLD";
                 conn.rollback();
@@ -76,21 +80,21 @@ public class ShopManager {
 
             result.status = "SUCCESS";
             result.remainingGold = userGold - totalCost;
-            
-            System.out.println("[ShopManager] User " + userId + " bought item " + itemId + " x" + quantity + 
-                             " for " + totalCost + " gold");
+
+            log.debug(() -> "User " + userId + " bought item " + itemId + " x" + quantity
+                    + " for " + totalCost + " gold");
 
         } catch (Exception e) {
             // Rollback nếu có lỗi
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.out.println("[ShopManager] Transaction rolled back: " + e.getMessage());
+                    log.info("Transaction rolled back: " + e.getMessage());
                 } catch (SQLException rollbackEx) {
-                    System.out.println("[ShopManager] Rollback failed: " + rollbackEx.getMessage());
+                    log.warn("Rollback failed: " + rollbackEx.getMessage());
                 }
             }
-            e.printStackTrace();
+            log.error("Buy item failed", e);
             result.status = "ERROR: " + e.getMessage();
             
         } finally {
@@ -99,11 +103,16 @@ public class ShopManager {
                 try {
                     conn.close();
                 } catch (SQLException closeEx) {
-                    System.out.println("[ShopManager] Failed to close connection: " + closeEx.getMessage());
+                    log.warn("Failed to close connection: " + closeEx.getMessage());
                 }
             }
         }
-        
+
+        // 7. Cập nhật cache inventory (write-through), sau khi connection đã trả về pool
+        if ("SUCCESS".equals(result.status)) {
+            InventoryCache.onItemPurchased(userId, itemId, result.remainingGold);
+        }
+
         return result;
     }
 }
@@ -1,5 +1,7 @@
 package com.tank2d.tankserver.core;
 
+import com.tank2d.tankserver.core.inventory.InventoryCache;
+import com.tank2d.tankserver.core.log.Log;
 import com.tank2d.tankserver.core.shop.BuyResult;
 import com.tank2d.tankserver.core.shop.ShopItem;
 import com.tank2d.tankserver.db.AccountRepository;
@@ -16,6 +18,8 @@ import java.util.Map;
  * Business Logic Layer for Tank Shop
  */
 public class TankShopManager {
+    private static final Log log = Log.get(TankShopManager.class);
+
     
     private static final TankShopRepository tankRepo = new TankShopRepository();
     private static final AccountRepository accountRepo = new AccountRepository();
@@ -67,7 +71,7 @@ public class TankShopManager {
             }
             
             // 2. Check user gold
-            int userGold = accountRepo.getUserGold(userId);
+            int userGold = accountRepo.getUserGold(conn, userId);
             if (userGold < price) {
                 result.status = "NOT_ENOUGH_GOLD";
                 conn.rollback();
@@ -90,19 +94,19 @@ public class TankShopManager {
             
             result.status = "SUCCESS";
             result.remainingGold = userGold - price;
-            
-            System.out.println("[TankShopManager] User " + userId + " bought tank " + tankId + " for " + price + " gold");
+
+            log.debug(() -> "User " + userId + " bought tank " + tankId + " for " + price + " gold");
             
         } catch (Exception e) {
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.out.println("[TankShopManager] Transaction rolled back: " + e.getMessage());
+                    log.info("Transaction rolled back: " + e.getMessage());
                 } catch (SQLException rollbackEx) {
-                    System.out.println("[TankShopManager] Rollback failed: " + rollbackEx.getMessage());
+                    log.warn("Rollback failed: " + rollbackEx.getMessage());
                 }
             }
-            e.printStackTrace();
+            log.error("Buy tank failed", e);
             result.status = "ERROR: " + e.getMessage();
             
         } finally {
@@ -110,11 +114,16 @@ public class TankShopManager {
                 try {
                     conn.close();
                 } catch (SQLException closeEx) {
-                    System.out.println("[TankShopManager] Failed to close connection: " + closeEx.getMessage());
+                    log.warn("Failed to close connection: " + closeEx.getMessage());
                 }
             }
         }
-        
+
+        // 6. Cập nhật cache inventory (write-through), sau khi connection đã trả về pool
+        if ("SUCCESS".equals(result.status)) {
+            InventoryCache.onTankPurchased(userId, tankId, result.remainingGold);
+        }
+
         return result;
     }
     
@@ -122,7 +131,11 @@ public class TankShopManager {
      * Equip tank cho user
      */
     public static boolean equipTank(int userId, int tankId) {
-        return tankRepo.equipTank(userId, tankId);
+        boolean success = tankRepo.equipTank(userId, tankId);
+        if (success) {
+            InventoryCache.onTankEquipped(userId, tankId);
+        }
+        return success;
     }
     
     /**
@@ -0,0 +1,144 @@
+package com.tank2d.tankserver.core.attribute;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.db.AttributeRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AttributeRegistry
+ * Intern tên attribute ("hp", "dmg", "spd", ...) thành id nhỏ liên tục (0, 1, 2, ...)
+ * để AttributeSet lưu attributes bằng mảng primitive thay vì HashMap<String, Double>.
+ *
+ * Bảng attribute được load một lần lúc server start; tên chưa có trong bảng
+ * vẫn được cấp id mới khi gặp lần đầu.
+ *
+ * Đồng thời cache name → attribute.id (id trong database) cho các thao tác ghi
+ * của admin, thay vì SELECT id FROM attribute cho từng attribute.
+ * Tên chưa có trong bảng được gọi resolveDatabaseIds(...) trước khi mở transaction: reload
+ * tối đa một lần, tên vẫn thiếu được nhớ (negative cache) trong MISS_TTL_MS để không reload lại
+ * mỗi lần gặp. Reload lỗi giữ nguyên cache cũ.
+ */
+public class AttributeRegistry {
+    private static final Log log = Log.get(AttributeRegistry.class);
+
+    /** Thời gian nhớ một tên không có trong bảng attribute */
+    private static final long MISS_TTL_MS = 30_000;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile Map<String, Integer> databaseIds = Map.of();
+    private static final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+    /**
+     * Load tên attribute từ database
+     */
+    public static void load() {
+        refresh();
+        log.info("" + size() + " attributes registered");
+    }
+
+    /**
+     * Reload bảng attribute (name → database id).
+     * @return false nếu đọc lỗi, khi đó cache cũ được giữ nguyên
+     */
+    public static synchronized boolean refresh() {
+        Map<String, Integer> loaded = AttributeRepository.getAllAttributes();
+        if (loaded == null) {
+            log.warn("Attribute reload failed, keeping " + databaseIds.size() + " cached attributes");
+            return false;
+        }
+        for (String name : loaded.keySet()) {
+            idOf(name);
+        }
+        databaseIds = Map.copyOf(loaded);
+        misses.keySet().removeIf(loaded::containsKey);
+        return true;
+    }
+
+    /**
+     * Đảm bảo cache có database id của các tên, gọi trước khi mở transaction ghi attributes.
+     * Reload tối đa một lần nếu có tên lạ chưa bị nhớ là không tồn tại.
+     * @return các tên không có trong bảng attribute (rỗng nếu đủ)
+     */
+    public static List<String> resolveDatabaseIds(Collection<String> attributeNames) {
+        List<String> unknown = unknownNames(attributeNames);
+        if (unknown.isEmpty()) return unknown;
+
+        long now = System.currentTimeMillis();
+        boolean stale = false;
+        for (String name : unknown) {
+            Long missedAt = misses.get(name);
+            if (missedAt == null || now - missedAt > MISS_TTL_MS) {
+                stale = true;
+                break;
+            }
+        }
+        if (!stale || !refresh()) return unknown;
+
+        unknown = unknownNames(attributeNames);
+        for (String name : unknown) {
+            misses.put(name, now);
+        }
+        return unknown;
+    }
+
+    /**
+     * attribute.id trong database theo cache (không truy vấn, dùng được trong transaction).
+     * Trả về 0 nếu attribute không tồn tại.
+     */
+    public static int getDatabaseId(String name) {
+        Integer id = databaseIds.get(name);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Id của attribute, cấp id mới nếu chưa có
+     */
+    public static int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /**
+     * Id của attribute, -1 nếu chưa có (không cấp id mới)
+     */
+    public static int find(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    public static int size() {
+        return names.length;
+    }
+
+    private static List<String> unknownNames(Collection<String> attributeNames) {
+        List<String> unknown = new ArrayList<>();
+        Map<String, Integer> known = databaseIds;
+        for (String name : attributeNames) {
+            if (!known.containsKey(name)) unknown.add(name);
+        }
+        return unknown;
+    }
+
+    private static synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) return existing;
+
+        int id = names.length;
+        String[] grown = Arrays.copyOf(names, id + 1);
+        grown[id] = name;
+        names = grown;
+        ids.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,209 @@
+package com.tank2d.tankserver.core.attribute;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * AttributeSet
+ * Attributes của một item/tank lưu bằng 2 mảng song song (id attribute đã sort + giá trị double),
+ * id lấy từ AttributeRegistry. Không có Double boxing và không lặp lại key String cho mỗi dòng.
+ *
+ * Vẫn là một Map<String, Double> nên JSON output ({"hp": 50.0, "dmg": 10.0}) và code
+ * đang dùng getOrDefault(...) không thay đổi.
+ */
+public class AttributeSet extends AbstractMap<String, Double> {
+
+    private static final int[] NO_IDS = new int[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private int[] ids = NO_IDS;
+    private double[] values = NO_VALUES;
+
+    public AttributeSet() {
+    }
+
+    public AttributeSet(Map<String, Double> attributes) {
+        if (attributes == null || attributes.isEmpty()) return;
+
+        // Dựng thẳng 2 mảng rồi sort theo id, không gọi putAll/put (có thể bị override) trong constructor
+        int n = 0;
+        long[] packed = new long[attributes.size()];
+        double[] raw = new double[attributes.size()];
+        for (Map.Entry<String, Double> e : attributes.entrySet()) {
+            if (e.getValue() == null) continue;
+            packed[n] = ((long) AttributeRegistry.idOf(e.getKey()) << 32) | n;
+            raw[n] = e.getValue();
+            n++;
+        }
+        Arrays.sort(packed, 0, n);
+
+        ids = new int[n];
+        values = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = (int) (packed[i] >>> 32);
+            values[i] = raw[(int) packed[i]];
+        }
+    }
+
+    /**
+     * Dùng lại nếu đã là AttributeSet, ngược lại copy sang dạng compact
+     */
+    public static AttributeSet of(Map<String, Double> attributes) {
+        return attributes instanceof AttributeSet set ? set : new AttributeSet(attributes);
+    }
+
+    // -------------------------------
+    // 🔹 PRIMITIVE ACCESS
+    // -------------------------------
+
+    public double getDouble(String name, double defaultValue) {
+        int id = AttributeRegistry.find(name);
+        return id < 0 ? defaultValue : getDouble(id, defaultValue);
+    }
+
+    public double getDouble(int attributeId, double defaultValue) {
+        int idx = Arrays.binarySearch(ids, attributeId);
+        return idx >= 0 ? values[idx] : defaultValue;
+    }
+
+    public void set(String name, double value) {
+        set(AttributeRegistry.idOf(name), value);
+    }
+
+    public void set(int attributeId, double value) {
+        int idx = Arrays.binarySearch(ids, attributeId);
+        if (idx >= 0) {
+            values[idx] = value;
+            return;
+        }
+
+        int insertAt = -idx - 1;
+        int[] newIds = new int[ids.length + 1];
+        double[] newValues = new double[values.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(values, 0, newValues, 0, insertAt);
+        newIds[insertAt] = attributeId;
+        newValues[insertAt] = value;
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, ids.length - insertAt);
+        System.arraycopy(values, insertAt, newValues, insertAt + 1, values.length - insertAt);
+        ids = newIds;
+        values = newValues;
+    }
+
+    /** Registry id của phần tử thứ index */
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    /** Giá trị của phần tử thứ index */
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    // -------------------------------
+    // 🔹 MAP VIEW
+    // -------------------------------
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String name)) return false;
+        int id = AttributeRegistry.find(name);
+        return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    @Override
+    public Double get(Object key) {
+        if (!(key instanceof String name)) return null;
+        int id = AttributeRegistry.find(name);
+        if (id < 0) return null;
+        int idx = Arrays.binarySearch(ids, id);
+        return idx >= 0 ? values[idx] : null;
+    }
+
+    @Override
+    public Double put(String key, Double value) {
+        if (value == null) return remove(key);
+        Double previous = get(key);
+        set(key, value);
+        return previous;
+    }
+
+    @Override
+    public Double remove(Object key) {
+        if (!(key instanceof String name)) return null;
+        int id = AttributeRegistry.find(name);
+        if (id < 0) return null;
+        int idx = Arrays.binarySearch(ids, id);
+        if (idx < 0) return null;
+
+        double previous = values[idx];
+        removeAt(idx);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        ids = NO_IDS;
+        values = NO_VALUES;
+    }
+
+    private void removeAt(int idx) {
+        int[] newIds = new int[ids.length - 1];
+        double[] newValues = new double[values.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, idx);
+        System.arraycopy(values, 0, newValues, 0, idx);
+        System.arraycopy(ids, idx + 1, newIds, idx, ids.length - idx - 1);
+        System.arraycopy(values, idx + 1, newValues, idx, values.length - idx - 1);
+        ids = newIds;
+        values = newValues;
+    }
+
+    @Override
+    public Set<Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+                    private boolean canRemove = false;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < ids.length;
+                    }
+
+                    @Override
+                    public Entry<String, Double> next() {
+                        if (next >= ids.length) throw new NoSuchElementException();
+                        Entry<String, Double> e = new SimpleImmutableEntry<>(AttributeRegistry.nameOf(ids[next]), values[next]);
+                        next++;
+                        canRemove = true;
+                        return e;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (!canRemove) throw new IllegalStateException();
+                        removeAt(--next);
+                        canRemove = false;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+}
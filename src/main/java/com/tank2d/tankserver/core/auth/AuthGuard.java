@@ -0,0 +1,176 @@
+package com.tank2d.tankserver.core.auth;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.db.AccountRepository;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AuthGuard
+ * Chặn flood LOGIN / REGISTER trước khi tới AccountRepository:
+ *  - Cửa sổ trượt trong bộ nhớ: số lần login theo IP, số lần login sai theo username,
+ *    số lần register theo IP
+ *  - Bloom filter username (seed từ bảng user lúc start): register username chắc chắn chưa có
+ *    → INSERT luôn; có thể đã có → SELECT xác nhận trước, trùng thật thì từ chối không cần INSERT
+ *
+ * Filter chỉ là gợi ý, không bao giờ tự từ chối: báo "có thể đã có" có thể nhầm (~USERNAME_FPP),
+ * còn "chưa có" có thể sai với user thêm vào bảng ngoài server sau lúc start (ràng buộc UNIQUE
+ * của INSERT vẫn chặn). Login luôn hỏi DB; username đăng nhập được mà filter chưa có thì thêm vào.
+ * Chưa load được filter (DB lỗi) thì mọi request đi thẳng vào DB như trước.
+ *
+ * Cấu hình (system property → biến môi trường), 0 = không giới hạn:
+ *   tankserver.auth.login.perIp        đăng nhập / IP / phút (mặc định 30)
+ *   tankserver.auth.login.failsPerUser đăng nhập sai / username / 5 phút (mặc định 10)
+ *   tankserver.auth.register.perIp     đăng ký / IP / giờ (mặc định 10)
+ *   tankserver.auth.trustLoopback      bỏ qua giới hạn IP cho 127.0.0.1 / ::1 (mặc định false; bật cho load test)
+ *   tankserver.auth.bloomCapacity      số username dự kiến (mặc định 1000000)
+ */
+public class AuthGuard {
+
+    private static final Log log = Log.get(AuthGuard.class);
+
+    private static final double USERNAME_FPP = 0.001;
+
+    private static final SlidingWindowCounter loginsPerIp = new SlidingWindowCounter(
+            TimeUnit.MINUTES.toMillis(1), Settings.getInt("tankserver.auth.login.perIp", 30));
+    private static final SlidingWindowCounter loginFailsPerUser = new SlidingWindowCounter(
+            TimeUnit.MINUTES.toMillis(5), Settings.getInt("tankserver.auth.login.failsPerUser", 10));
+    private static final SlidingWindowCounter registersPerIp = new SlidingWindowCounter(
+            TimeUnit.HOURS.toMillis(1), Settings.getInt("tankserver.auth.register.perIp", 10));
+    private static final boolean TRUST_LOOPBACK =
+            Settings.getBoolean("tankserver.auth.trustLoopback", false);
+
+    private static volatile BloomFilter usernames;
+
+    private static final LongAdder loginBlocked = new LongAdder();
+    private static final LongAdder registerBlocked = new LongAdder();
+    private static final LongAdder filterMisses = new LongAdder();
+    private static final LongAdder registerDuplicate = new LongAdder();
+
+    private static final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "auth-guard-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        sweeper.scheduleWithFixedDelay(() -> {
+            loginsPerIp.sweep();
+            loginFailsPerUser.sweep();
+            registersPerIp.sweep();
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Seed bloom filter từ bảng user (gọi một lần lúc server start)
+     */
+    public static void load() {
+        long capacity = Settings.getLong("tankserver.auth.bloomCapacity", 1000000);
+        BloomFilter filter = new BloomFilter(capacity, USERNAME_FPP);
+        long[] count = {0};
+        boolean ok = new AccountRepository().forEachUsername(name -> {
+            filter.add(normalize(name));
+            count[0]++;
+        });
+        if (!ok) {
+            log.warn("Username filter disabled: could not read user table");
+            return;
+        }
+        usernames = filter;
+        log.info(count[0] + " usernames loaded into filter (" + filter.getBitCount() / 8 / 1024 + " KB, "
+                + filter.getHashCount() + " hashes)");
+    }
+
+    // -------------------------------
+    // 🔹 LOGIN
+    // -------------------------------
+
+    /**
+     * null nếu được thử đăng nhập, ngược lại lý do bị chặn (đã đếm).
+     * Được thử thì lần thử đã được giữ trước như một lần sai của username (login song song
+     * không vượt limit); loginSucceeded trả lại, login sai thì giữ nguyên.
+     */
+    public static String checkLogin(String ip, String username) {
+        if (!isTrusted(ip) && !loginsPerIp.tryAcquire(ip)) {
+            loginBlocked.increment();
+            return "Too many login attempts, try again later!";
+        }
+        if (!loginFailsPerUser.tryAcquire(normalize(username))) {
+            loginBlocked.increment();
+            return "Too many failed logins for this account, try again later!";
+        }
+        return null;
+    }
+
+    /**
+     * Login thành công: trả lại lần thử đã giữ ở checkLogin;
+     * username chưa có trong filter (thêm ngoài server) thì thêm vào
+     */
+    public static void loginSucceeded(String username) {
+        loginFailsPerUser.release(normalize(username));
+        BloomFilter filter = usernames;
+        if (filter == null || filter.mightContain(normalize(username))) return;
+        filterMisses.increment();
+        filter.add(normalize(username));
+    }
+
+    // -------------------------------
+    // 🔹 REGISTER
+    // -------------------------------
+
+    /** null nếu được đăng ký, ngược lại lý do bị chặn (đã đếm) */
+    public static String checkRegister(String ip) {
+        if (!isTrusted(ip) && !registersPerIp.tryAcquire(ip)) {
+            registerBlocked.increment();
+            return "Too many registrations from your address, try again later!";
+        }
+        return null;
+    }
+
+    /** true = username có thể đã tồn tại (cần hỏi DB), false = chắc chắn chưa có trong filter */
+    public static boolean mightBeTaken(String username) {
+        BloomFilter filter = usernames;
+        return filter == null || username == null || filter.mightContain(normalize(username));
+    }
+
+    /** Register bị từ chối vì username đã có (xác nhận bằng DB, không INSERT) */
+    public static void duplicateRejected() {
+        registerDuplicate.increment();
+    }
+
+    public static void registered(String username) {
+        BloomFilter filter = usernames;
+        if (filter != null) filter.add(normalize(username));
+    }
+
+    // -------------------------------
+    // 🔹 STATS
+    // -------------------------------
+
+    public static long getLoginBlocked() { return loginBlocked.sum(); }
+    public static long getRegisterBlocked() { return registerBlocked.sum(); }
+    public static long getFilterMisses() { return filterMisses.sum(); }
+    public static long getRegisterDuplicate() { return registerDuplicate.sum(); }
+    public static int getTrackedKeys() { return loginsPerIp.size() + loginFailsPerUser.size() + registersPerIp.size(); }
+
+    // Username trong MySQL so sánh không phân biệt hoa thường → filter dùng lowercase để không bao giờ báo sót
+    private static String normalize(String username) {
+        return username == null ? null : username.toLowerCase();
+    }
+
+    private static boolean isTrusted(String ip) {
+        if (!TRUST_LOOPBACK || ip == null) return false;
+        try {
+            return InetAddress.getByName(ip).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+}
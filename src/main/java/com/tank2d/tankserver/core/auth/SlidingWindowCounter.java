@@ -0,0 +1,102 @@
+package com.tank2d.tankserver.core.auth;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đếm sự kiện theo key (IP, username) trong cửa sổ trượt windowMs, giữ trong bộ nhớ.
+ *
+ * Mỗi key chỉ giữ 2 ô đếm (cửa sổ hiện tại + cửa sổ trước); số ước lượng là
+ * previous * phần còn nằm trong cửa sổ + current, nên bộ nhớ không phụ thuộc số sự kiện.
+ * Key không còn hoạt động bị xóa bởi sweep().
+ *
+ * Kiểm tra giới hạn và đếm là một bước (tryAcquire) trong lock của key, nên N request song song
+ * cùng key không vượt quá limit.
+ */
+public class SlidingWindowCounter {
+
+    private static final class Window {
+        long start;
+        int current;
+        int previous;
+
+        synchronized double estimate(long now, long windowMs) {
+            roll(now, windowMs);
+            double overlap = 1.0 - (double) (now - start) / windowMs;
+            return previous * overlap + current;
+        }
+
+        /** Đếm thêm một nếu chưa chạm limit; false nếu đã chạm (không đếm) */
+        synchronized boolean tryAdd(long now, long windowMs, int limit) {
+            if (estimate(now, windowMs) >= limit) return false;
+            current++;
+            return true;
+        }
+
+        /** Trả lại một lần đã đếm (có thể đã trôi sang cửa sổ trước) */
+        synchronized void release(long now, long windowMs) {
+            roll(now, windowMs);
+            if (current > 0) current--;
+            else if (previous > 0) previous--;
+        }
+
+        private void roll(long now, long windowMs) {
+            long elapsed = now - start;
+            if (elapsed < windowMs) return;
+            previous = elapsed < 2 * windowMs ? current : 0;
+            current = 0;
+            start = now - elapsed % windowMs;
+        }
+
+        synchronized boolean isIdle(long now, long windowMs) {
+            return now - start >= 2 * windowMs;
+        }
+    }
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final long windowMs;
+    private final int limit;
+
+    /** limit <= 0: không giới hạn */
+    public SlidingWindowCounter(long windowMs, int limit) {
+        this.windowMs = windowMs;
+        this.limit = limit;
+    }
+
+    /** Kiểm tra và đếm (nguyên tử): false nếu đã chạm giới hạn (lần này không được đếm) */
+    public boolean tryAcquire(String key) {
+        if (limit <= 0 || key == null) return true;
+        long now = System.currentTimeMillis();
+        boolean[] acquired = {false};
+        // Trong compute: sweep không gỡ được window giữa lúc lấy ra và lúc đếm
+        windows.compute(key, (k, w) -> {
+            if (w == null) {
+                w = new Window();
+                w.start = now;
+            }
+            acquired[0] = w.tryAdd(now, windowMs, limit);
+            return w;
+        });
+        return acquired[0];
+    }
+
+    /** Trả lại một lần tryAcquire thành công (vd. login đúng không tính là lần sai) */
+    public void release(String key) {
+        if (limit <= 0 || key == null) return;
+        long now = System.currentTimeMillis();
+        windows.computeIfPresent(key, (k, w) -> {
+            w.release(now, windowMs);
+            return w;
+        });
+    }
+
+    /** Xóa key đã im lặng hơn 2 cửa sổ */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(w -> w.isIdle(now, windowMs));
+    }
+
+    public int size() {
+        return windows.size();
+    }
+}
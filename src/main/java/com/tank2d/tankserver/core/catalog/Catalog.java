@@ -0,0 +1,16 @@
+package com.tank2d.tankserver.core.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nội dung một file catalog: danh sách items và tanks
+ */
+public class Catalog {
+    public final List<CatalogEntry> items = new ArrayList<>();
+    public final List<CatalogEntry> tanks = new ArrayList<>();
+
+    public int size() {
+        return items.size() + tanks.size();
+    }
+}
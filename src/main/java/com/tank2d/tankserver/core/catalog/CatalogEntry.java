@@ -0,0 +1,16 @@
+package com.tank2d.tankserver.core.catalog;
+
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+
+/**
+ * Một dòng trong file catalog (item hoặc tank)
+ */
+public class CatalogEntry {
+    public String name;
+    public String description;
+    public int price;
+    public String type;      // item only
+    public String rarity;    // item only
+    public String asset;     // đường dẫn PNG, tương đối với file catalog
+    public AttributeSet attributes = new AttributeSet();
+}
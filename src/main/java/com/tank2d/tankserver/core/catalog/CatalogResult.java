@@ -0,0 +1,36 @@
+package com.tank2d.tankserver.core.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kết quả import/export catalog
+ */
+public class CatalogResult {
+    public final List<String> errors = new ArrayList<>();
+    public int items;
+    public int tanks;
+    public int attributeRows;
+    public long elapsedMs;
+
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+
+    public int totalRows() {
+        return items + tanks + attributeRows;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedMs > 0 ? totalRows() * 1000.0 / elapsedMs : totalRows();
+    }
+
+    @Override
+    public String toString() {
+        if (!isSuccess()) {
+            return errors.size() + " error(s), first: " + errors.get(0);
+        }
+        return String.format("%d items, %d tanks, %d attribute rows in %d ms (%.0f rows/s)",
+                items, tanks, attributeRows, elapsedMs, rowsPerSecond());
+    }
+}
@@ -0,0 +1,202 @@
+package com.tank2d.tankserver.core.inventory;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.db.InventoryRepository;
+import com.tank2d.tankserver.db.TankRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InventoryCache
+ * Cache inventory cho các user đang online:
+ *  - Load lần đầu khi user mở inventory
+ *  - Cập nhật write-through sau khi mua item / mua tank / equip tank đã commit
+ *  - Xóa khi user disconnect
+ *
+ * Mọi thay đổi trên một InventoryData đều thực hiện trong synchronized(data),
+ * nên phía đọc cũng phải serialize trong cùng lock.
+ *
+ * Load chạy ngoài map (không giữ lock của ConcurrentHashMap khi đọc DB). Trong lúc có load
+ * đang chạy, user có một LoadStamp trong loads; mỗi write-through tăng stamp đó (nếu có) trước
+ * khi sửa cache, load nào thấy stamp đổi thì bỏ kết quả và load lại, nên không cache bản đọc
+ * trước một giao dịch vừa commit. Load xong thì gỡ stamp: ghi cho user không có load đang chạy
+ * (vd. Dashboard đổi gold của user offline) không để lại gì trong map.
+ * Write-through ghi giá trị tuyệt đối (đọc lại dòng đã commit) nên áp dụng lặp lại vẫn đúng.
+ */
+public class InventoryCache {
+
+    private static final Log log = Log.get(InventoryCache.class);
+
+    /** Số lần load lại tối đa khi liên tục có giao dịch commit trong lúc load */
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    /** Số lần ghi trong lúc có load đang chạy; chỉ sửa trong compute của loads */
+    private static final class LoadStamp {
+        volatile long writes;
+        int loaders;
+    }
+
+    private static final Map<Integer, InventoryData> cache = new ConcurrentHashMap<>();
+    private static final Map<Integer, LoadStamp> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Lấy inventory từ cache, load từ DB nếu chưa có.
+     * null nếu load lỗi (lỗi không được cache, lần sau load lại).
+     */
+    public static InventoryData get(int userId) {
+        InventoryData data = cache.get(userId);
+        if (data != null) return data;
+
+        LoadStamp stamp = loads.compute(userId, (k, s) -> {
+            if (s == null) s = new LoadStamp();
+            s.loaders++;
+            return s;
+        });
+        try {
+            for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+                long before = stamp.writes;
+                InventoryData loaded = InventoryRepository.loadInventory(userId);
+                if (loaded == null) return null;
+
+                InventoryData existing = cache.putIfAbsent(userId, loaded);
+                if (existing != null) return existing;
+
+                // Có giao dịch commit trong lúc load → bản vừa load có thể đã cũ
+                if (stamp.writes == before) return loaded;
+                cache.remove(userId, loaded);
+                if (attempt == MAX_LOAD_ATTEMPTS) {
+                    log.debug(() -> "Inventory of " + userId + " kept changing while loading, not cached");
+                    return loaded;
+                }
+            }
+            return null;
+        } finally {
+            loads.computeIfPresent(userId, (k, s) -> --s.loaders == 0 ? null : s);
+        }
+    }
+
+    public static void evict(int userId) {
+        cache.remove(userId);
+    }
+
+    public static boolean isCached(int userId) {
+        return cache.containsKey(userId);
+    }
+
+    public static int size() {
+        return cache.size();
+    }
+
+    /**
+     * Bản copy của item trong inventory đã cache, null nếu user chưa load inventory
+     */
+    public static Map<String, Object> findItem(int userId, int itemId) {
+        InventoryData data = cache.get(userId);
+        if (data == null) return null;
+        synchronized (data) {
+            for (Map<String, Object> item : data.items) {
+                if (((Number) item.get("itemId")).intValue() == itemId) return new HashMap<>(item);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bản copy của tank trong inventory đã cache, null nếu user chưa load inventory
+     */
+    public static Map<String, Object> findTank(int userId, int tankId) {
+        InventoryData data = cache.get(userId);
+        if (data == null) return null;
+        synchronized (data) {
+            for (Map<String, Object> tank : data.tanks) {
+                if (((Number) tank.get("tankId")).intValue() == tankId) return new HashMap<>(tank);
+            }
+        }
+        return null;
+    }
+
+    // -------------------------------
+    // 🔹 WRITE-THROUGH (gọi sau khi commit)
+    // -------------------------------
+
+    public static void onGoldChanged(int userId, int gold) {
+        InventoryData data = beginWrite(userId);
+        if (data == null) return;
+        synchronized (data) {
+            data.gold = gold;
+        }
+    }
+
+    /**
+     * Gọi sau khi transaction mua item đã commit và connection đã trả về pool.
+     * Đọc lại đúng dòng item đó (số lượng sau commit) thay vì reload toàn bộ inventory.
+     */
+    public static void onItemPurchased(int userId, int itemId, int remainingGold) {
+        InventoryData data = beginWrite(userId);
+        if (data == null) return;
+
+        Map<String, Object> item = InventoryRepository.getUserInventoryItem(userId, itemId);
+        if (item == null) {
+            cache.remove(userId, data);
+            return;
+        }
+        synchronized (data) {
+            data.gold = remainingGold;
+            data.items.removeIf(i -> ((Number) i.get("itemId")).intValue() == itemId);
+            data.items.add(item);
+            data.items.sort((a, b) -> ((String) a.get("name")).compareTo((String) b.get("name")));
+        }
+    }
+
+    /**
+     * Gọi sau khi transaction mua tank đã commit và connection đã trả về pool.
+     */
+    public static void onTankPurchased(int userId, int tankId, int remainingGold) {
+        InventoryData data = beginWrite(userId);
+        if (data == null) return;
+
+        Map<String, Object> tank = TankRepository.getUserTank(userId, tankId);
+        if (tank == null) {
+            cache.remove(userId, data);
+            return;
+        }
+        synchronized (data) {
+            data.gold = remainingGold;
+            data.tanks.removeIf(t -> ((Number) t.get("tankId")).intValue() == tankId);
+            data.tanks.add(tank);
+            sortTanks(data);
+        }
+    }
+
+    public static void onTankEquipped(int userId, int tankId) {
+        InventoryData data = beginWrite(userId);
+        if (data == null) return;
+        synchronized (data) {
+            for (Map<String, Object> tank : data.tanks) {
+                int id = ((Number) tank.get("tankId")).intValue();
+                tank.put("isEquipped", id == tankId ? 1 : 0);
+            }
+            sortTanks(data);
+            data.equippedTank = InventoryRepository.findEquippedTank(data.tanks);
+        }
+    }
+
+    /** Đánh dấu có ghi (nếu có load đang chạy) rồi trả về bản đang cache, null nếu chưa cache */
+    private static InventoryData beginWrite(int userId) {
+        loads.computeIfPresent(userId, (k, s) -> {
+            s.writes++;
+            return s;
+        });
+        return cache.get(userId);
+    }
+
+    /** Giữ thứ tự giống query: tank đang equip trước, sau đó theo tên */
+    private static void sortTanks(InventoryData data) {
+        data.tanks.sort((a, b) -> {
+            int eq = Integer.compare(((Number) b.get("isEquipped")).intValue(), ((Number) a.get("isEquipped")).intValue());
+            return eq != 0 ? eq : ((String) a.get("name")).compareTo((String) b.get("name"));
+        });
+    }
+}
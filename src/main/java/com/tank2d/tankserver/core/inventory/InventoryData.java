@@ -0,0 +1,21 @@
+package com.tank2d.tankserver.core.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Toàn bộ dữ liệu inventory của một user (tanks, items, gold, tank đang equip)
+ * được load trong một lần truy vấn.
+ */
+public class InventoryData {
+    public int userId;
+    public int gold;
+    public List<Map<String, Object>> tanks = new ArrayList<>();
+    public List<Map<String, Object>> items = new ArrayList<>();
+    public Map<String, Object> equippedTank;
+
+    public InventoryData(int userId) {
+        this.userId = userId;
+    }
+}
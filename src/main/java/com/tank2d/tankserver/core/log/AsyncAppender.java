@@ -0,0 +1,190 @@
+package com.tank2d.tankserver.core.log;
+
+import org.json.JSONObject;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncAppender
+ * Ring buffer nhiều producer / một consumer (slot có sequence number, không lock):
+ * thread gọi Log chỉ CAS một slot rồi trả về, thread "log-writer" format và ghi
+ * cả lô ra System.out một lần.
+ *
+ * Buffer đầy thì record bị bỏ và đếm lại; số bị bỏ được in ra ở lần ghi kế tiếp.
+ */
+public class AsyncAppender {
+
+    public enum Format { TEXT, JSON }
+
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /** Số record tối đa format vào một lần print */
+    private static final int MAX_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int mask;
+    private final LogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // chỉ thread writer ghi
+
+    private final LongAdder dropped = new LongAdder();
+    private long droppedReported;
+
+    private final Format format;
+    private final Thread writer;
+    private volatile boolean waiting;
+
+    public AsyncAppender(int capacity, Format format) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new LogRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.format = format;
+
+        writer = new Thread(this::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // -------------------------------
+    // 🔹 PRODUCER
+    // -------------------------------
+
+    /** false nếu buffer đầy (record bị bỏ) */
+    public boolean append(LogRecord record) {
+        long pos = tail.get();
+        int idx;
+        while (true) {
+            idx = (int) (pos & mask);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        slots[idx] = record;
+        sequences.set(idx, pos + 1);
+
+        if (waiting) LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * Chờ writer ghi hết những gì đã append (tối đa timeoutMs), dùng lúc shutdown
+     */
+    public void flush(long timeoutMs) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (head < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getPending() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    // -------------------------------
+    // 🔹 CONSUMER
+    // -------------------------------
+
+    private LogRecord poll() {
+        long h = head;
+        int idx = (int) (h & mask);
+        if (sequences.get(idx) != h + 1) return null;
+
+        LogRecord record = slots[idx];
+        slots[idx] = null;
+        sequences.set(idx, h + slots.length);
+        head = h + 1;
+        return record;
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(16 * 1024);
+        while (true) {
+            int n = 0;
+            LogRecord record;
+            while (n < MAX_BATCH && (record = poll()) != null) {
+                formatTo(batch, record);
+                n++;
+            }
+
+            long lost = dropped.sum() - droppedReported;
+            if (lost > 0) {
+                droppedReported += lost;
+                batch.append(TIME.format(Instant.now())).append(" WARN  [log-writer] [Log] ")
+                        .append(lost).append(" log records dropped (buffer full)\n");
+            }
+
+            if (batch.length() > 0) {
+                System.out.print(batch);
+                System.out.flush();
+                batch.setLength(0);
+                continue;
+            }
+
+            waiting = true;
+            if (sequences.get((int) (head & mask)) != head + 1) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+    private void formatTo(StringBuilder sb, LogRecord r) {
+        if (format == Format.JSON) {
+            JSONObject json = new JSONObject();
+            json.put("ts", r.timestamp());
+            json.put("level", r.level().name());
+            json.put("thread", r.thread());
+            json.put("logger", r.tag());
+            json.put("msg", r.message());
+            if (r.error() != null) json.put("error", stackTrace(r.error()));
+            sb.append(json).append('\n');
+            return;
+        }
+
+        sb.append(TIME.format(Instant.ofEpochMilli(r.timestamp()))).append(' ');
+        String level = r.level().name();
+        sb.append(level);
+        for (int i = level.length(); i < 6; i++) sb.append(' ');
+        sb.append('[').append(r.thread()).append("] [").append(r.tag()).append("] ")
+                .append(r.message()).append('\n');
+        if (r.error() != null) sb.append(stackTrace(r.error()));
+    }
+
+    private static String stackTrace(Throwable t) {
+        StringWriter sw = new StringWriter();
+        t.printStackTrace(new PrintWriter(sw));
+        return sw.toString();
+    }
+}
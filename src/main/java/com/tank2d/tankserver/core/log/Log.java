@@ -0,0 +1,125 @@
+package com.tank2d.tankserver.core.log;
+
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.function.Supplier;
+
+/**
+ * Log
+ * Facade log của server thay cho System.out.println:
+ *
+ *   private static final Log log = Log.get(ClientHandler.class);
+ *   log.info("Server started");
+ *   log.debug(() -> "Sent inventory to " + username);   // chỉ build chuỗi khi DEBUG bật
+ *
+ * Kiểm tra level là một lần đọc volatile; record được đẩy vào AsyncAppender,
+ * thread gọi không bao giờ chờ lock của stdout.
+ *
+ * Cấu hình (system property → biến môi trường, như DatabaseConfig):
+ *   tankserver.log.level   TANKSERVER_LOG_LEVEL    TRACE | DEBUG | INFO (mặc định) | WARN | ERROR | OFF
+ *   tankserver.log.format  TANKSERVER_LOG_FORMAT   text (mặc định) | json
+ *   tankserver.log.buffer  TANKSERVER_LOG_BUFFER   số slot của ring buffer (mặc định 8192)
+ *
+ * Level đổi được lúc chạy qua setLevel() (Dashboard).
+ */
+public final class Log {
+
+    private static volatile LogLevel level = LogLevel.parse(Settings.get("tankserver.log.level", "INFO"), LogLevel.INFO);
+
+    private static final AsyncAppender appender = new AsyncAppender(
+            Settings.getInt("tankserver.log.buffer", 8192),
+            "json".equalsIgnoreCase(Settings.get("tankserver.log.format", "text"))
+                    ? AsyncAppender.Format.JSON : AsyncAppender.Format.TEXT);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> appender.flush(1000), "log-flush"));
+    }
+
+    private final String tag;
+
+    private Log(String tag) {
+        this.tag = tag;
+    }
+
+    public static Log get(Class<?> owner) {
+        return new Log(owner.getSimpleName());
+    }
+
+    public static Log get(String tag) {
+        return new Log(tag);
+    }
+
+    // -------------------------------
+    // 🔹 LEVEL
+    // -------------------------------
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    public static boolean isEnabled(LogLevel l) {
+        return l.ordinal() >= level.ordinal() && l != LogLevel.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public static AsyncAppender getAppender() {
+        return appender;
+    }
+
+    /** Chờ ghi hết log đang chờ (tối đa 1s) */
+    public static void flush() {
+        appender.flush(1000);
+    }
+
+    // -------------------------------
+    // 🔹 LOG
+    // -------------------------------
+
+    public void trace(Supplier<String> message) {
+        if (isEnabled(LogLevel.TRACE)) write(LogLevel.TRACE, message.get(), null);
+    }
+
+    public void debug(String message) {
+        if (isEnabled(LogLevel.DEBUG)) write(LogLevel.DEBUG, message, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) write(LogLevel.DEBUG, message.get(), null);
+    }
+
+    public void info(String message) {
+        if (isEnabled(LogLevel.INFO)) write(LogLevel.INFO, message, null);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(LogLevel.INFO)) write(LogLevel.INFO, message.get(), null);
+    }
+
+    public void warn(String message) {
+        if (isEnabled(LogLevel.WARN)) write(LogLevel.WARN, message, null);
+    }
+
+    public void warn(Supplier<String> message) {
+        if (isEnabled(LogLevel.WARN)) write(LogLevel.WARN, message.get(), null);
+    }
+
+    public void error(String message) {
+        if (isEnabled(LogLevel.ERROR)) write(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable error) {
+        if (isEnabled(LogLevel.ERROR)) write(LogLevel.ERROR, message, error);
+    }
+
+    private void write(LogLevel l, String message, Throwable error) {
+        appender.append(new LogRecord(System.currentTimeMillis(), l, Thread.currentThread().getName(),
+                tag, message, error));
+    }
+}
@@ -0,0 +1,18 @@
+package com.tank2d.tankserver.core.log;
+
+/**
+ * Mức log, thấp → cao. OFF tắt toàn bộ.
+ */
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    /** "debug" / "DEBUG" → DEBUG, giá trị lạ → defaultLevel */
+    public static LogLevel parse(String value, LogLevel defaultLevel) {
+        if (value == null) return defaultLevel;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.tank2d.tankserver.core.log;
+
+/**
+ * Một dòng log. Tạo trên thread gọi, format trên thread ghi log của AsyncAppender.
+ */
+public record LogRecord(long timestamp, LogLevel level, String thread, String tag,
+                        String message, Throwable error) {
+}
@@ -0,0 +1,30 @@
+package com.tank2d.tankserver.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes / packets vào ra của một connection.
+ * bytesIn chỉ do thread đọc của connection ghi; bytesOut có thể đến từ thread khác
+ * (broadcast trong room) nên dùng LongAdder.
+ */
+public class ConnectionMetrics {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    public final long id = NEXT_ID.getAndIncrement();
+    public final String remote;
+    public final long connectedAt = System.currentTimeMillis();
+
+    public final LongAdder bytesIn = new LongAdder();
+    public final LongAdder bytesOut = new LongAdder();
+    public final LongAdder packetsIn = new LongAdder();
+    public final LongAdder packetsOut = new LongAdder();
+
+    /** Username sau khi login (chỉ để hiển thị) */
+    public volatile String username;
+
+    ConnectionMetrics(String remote) {
+        this.remote = remote;
+    }
+}
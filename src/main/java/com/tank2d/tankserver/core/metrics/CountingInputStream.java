@@ -0,0 +1,37 @@
+package com.tank2d.tankserver.core.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Đếm số byte thực sự đọc từ socket vào ConnectionMetrics + tổng toàn server
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private final ConnectionMetrics metrics;
+
+    public CountingInputStream(InputStream in, ConnectionMetrics metrics) {
+        super(in);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) add(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        int n = super.read(buf, off, len);
+        if (n > 0) add(n);
+        return n;
+    }
+
+    private void add(int n) {
+        metrics.bytesIn.add(n);
+        MetricsRegistry.totalBytesIn.add(n);
+    }
+}
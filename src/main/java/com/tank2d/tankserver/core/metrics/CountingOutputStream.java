@@ -0,0 +1,35 @@
+package com.tank2d.tankserver.core.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Đếm số byte ghi ra socket vào ConnectionMetrics + tổng toàn server
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private final ConnectionMetrics metrics;
+
+    public CountingOutputStream(OutputStream out, ConnectionMetrics metrics) {
+        super(out);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        add(1);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+        out.write(buf, off, len);
+        add(len);
+    }
+
+    private void add(int n) {
+        metrics.bytesOut.add(n);
+        MetricsRegistry.totalBytesOut.add(n);
+    }
+}
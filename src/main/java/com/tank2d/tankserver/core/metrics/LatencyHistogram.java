@@ -0,0 +1,121 @@
+package com.tank2d.tankserver.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram latency kiểu HDR (log-linear), đơn vị micro giây.
+ * Mỗi lũy thừa của 2 chia thành 16 bucket nên sai số tương đối tối đa ~6%,
+ * khoảng đo 0µs .. ~2^40µs (các giá trị lớn hơn dồn vào bucket cuối).
+ *
+ * record() không lock: một CAS trên bucket + LongAdder cho count / sum.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKET_COUNT - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /** Giá trị lớn nhất rơi vào bucket index (dùng khi báo percentile) */
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sumMicros.sum(), maxMicros.get());
+    }
+
+    /**
+     * Bản chụp bucket tại một thời điểm: tính nhiều percentile mà không đọc lại histogram
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        public final long count;
+        public final long sumMicros;
+        public final long maxMicros;
+
+        Snapshot(long[] buckets, long count, long sumMicros, long maxMicros) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        /** p trong [0, 1], kết quả là micro giây */
+        public long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return Math.min(upperBoundOf(i), maxMicros);
+            }
+            return maxMicros;
+        }
+
+        public double meanMicros() {
+            return count == 0 ? 0 : (double) sumMicros / count;
+        }
+
+        /**
+         * Số mẫu <= boundMicros (xấp xỉ theo bucket), dùng cho histogram dạng cumulative
+         */
+        public long countAtOrBelow(long boundMicros) {
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                if (upperBoundOf(i) > boundMicros) break;
+                seen += buckets[i];
+            }
+            return seen;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tank2d.tankserver.core.metrics;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.utils.PacketType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MetricsRegistry
+ * Số liệu runtime của server:
+ *  - Theo PacketType: count, error, latency histogram của handlePacket
+ *  - Theo connection: bytes / packets in-out
+ *
+ * Ghi không lock (LongAdder, CAS trên bucket); đọc qua getPacketMetrics() / dump()
+ * từ Dashboard hoặc bất kỳ thread nào.
+ */
+public class MetricsRegistry {
+    private static final Log log = Log.get(MetricsRegistry.class);
+
+    /** PacketType hiện tại đều < 256 → tra bằng mảng, không boxing */
+    private static final int DIRECT_TYPES = 256;
+
+    private static final AtomicReferenceArray<PacketMetrics> byType = new AtomicReferenceArray<>(DIRECT_TYPES);
+    private static final Map<Integer, PacketMetrics> otherTypes = new ConcurrentHashMap<>();
+    private static final Map<Long, ConnectionMetrics> connections = new ConcurrentHashMap<>();
+
+    static final LongAdder totalBytesIn = new LongAdder();
+    static final LongAdder totalBytesOut = new LongAdder();
+    private static final LongAdder invalidPackets = new LongAdder();
+    private static final LongAdder oversizedFrames = new LongAdder();
+    private static final LongAdder slowConsumers = new LongAdder();
+    private static final LongAdder totalConnections = new LongAdder();
+
+    private static final long startedAt = System.currentTimeMillis();
+
+    // -------------------------------
+    // 🔹 RECORD
+    // -------------------------------
+
+    public static void recordPacket(int type, long nanos, boolean error) {
+        forType(type).record(nanos, error);
+    }
+
+    /** Dòng không parse được thành Packet */
+    public static void recordInvalidPacket() {
+        invalidPackets.increment();
+    }
+
+    /** Frame vượt giới hạn của FrameReader, bị bỏ không parse */
+    public static void recordOversizedFrame() {
+        oversizedFrames.increment();
+    }
+
+    /** Connection bị đóng vì hàng đợi gửi đầy (client không đọc kịp) */
+    public static void recordSlowConsumer() {
+        slowConsumers.increment();
+    }
+
+    public static PacketMetrics forType(int type) {
+        if (type >= 0 && type < DIRECT_TYPES) {
+            PacketMetrics m = byType.get(type);
+            if (m != null) return m;
+            byType.compareAndSet(type, null, new PacketMetrics(type));
+            return byType.get(type);
+        }
+        return otherTypes.computeIfAbsent(type, PacketMetrics::new);
+    }
+
+    public static ConnectionMetrics openConnection(String remote) {
+        ConnectionMetrics m = new ConnectionMetrics(remote);
+        connections.put(m.id, m);
+        totalConnections.increment();
+        return m;
+    }
+
+    public static void closeConnection(ConnectionMetrics m) {
+        if (m != null) connections.remove(m.id);
+    }
+
+    // -------------------------------
+    // 🔹 QUERY
+    // -------------------------------
+
+    /** Các PacketType đã có ít nhất một lần ghi, theo thứ tự type */
+    public static List<PacketMetrics> getPacketMetrics() {
+        List<PacketMetrics> list = new ArrayList<>();
+        for (int i = 0; i < DIRECT_TYPES; i++) {
+            PacketMetrics m = byType.get(i);
+            if (m != null) list.add(m);
+        }
+        list.addAll(otherTypes.values());
+        list.sort(Comparator.comparingInt(m -> m.type));
+        return list;
+    }
+
+    public static Collection<ConnectionMetrics> getConnections() {
+        return connections.values();
+    }
+
+    public static int getActiveConnectionCount() {
+        return connections.size();
+    }
+
+    public static long getTotalConnections() {
+        return totalConnections.sum();
+    }
+
+    public static long getTotalBytesIn() {
+        return totalBytesIn.sum();
+    }
+
+    public static long getTotalBytesOut() {
+        return totalBytesOut.sum();
+    }
+
+    public static long getInvalidPackets() {
+        return invalidPackets.sum();
+    }
+
+    public static long getOversizedFrames() {
+        return oversizedFrames.sum();
+    }
+
+    public static long getSlowConsumers() {
+        return slowConsumers.sum();
+    }
+
+    public static long getStartedAt() {
+        return startedAt;
+    }
+
+    // -------------------------------
+    // 🔹 DUMP
+    // -------------------------------
+
+    /**
+     * Bảng text: tổng quan, từng PacketType, top connection theo bytes
+     */
+    public static String dump() {
+        double uptimeSec = Math.max(0.001, (System.currentTimeMillis() - startedAt) / 1000.0);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("=== METRICS %s (uptime %.0fs) ===%n",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), uptimeSec));
+        sb.append(String.format("connections: active=%d total=%d | bytes in=%d out=%d | invalid packets=%d oversized frames=%d%n%n",
+                getActiveConnectionCount(), getTotalConnections(), getTotalBytesIn(), getTotalBytesOut(), getInvalidPackets(),
+                getOversizedFrames()));
+
+        sb.append(String.format("%-22s %9s %7s %7s %8s %8s %8s %8s %8s %8s%n",
+                "PacketType", "count", "err%", "rate/s", "mean", "p50", "p90", "p99", "p999", "max(ms)"));
+        for (PacketMetrics m : getPacketMetrics()) {
+            LatencyHistogram.Snapshot s = m.latency.snapshot();
+            long count = m.count.sum();
+            sb.append(String.format("%-22s %9d %6.2f%% %7.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    PacketType.nameOf(m.type),
+                    count,
+                    count == 0 ? 0.0 : 100.0 * m.errors.sum() / count,
+                    count / uptimeSec,
+                    s.meanMicros() / 1000.0,
+                    s.percentile(0.50) / 1000.0,
+                    s.percentile(0.90) / 1000.0,
+                    s.percentile(0.99) / 1000.0,
+                    s.percentile(0.999) / 1000.0,
+                    s.maxMicros / 1000.0));
+        }
+
+        List<ConnectionMetrics> top = new ArrayList<>(connections.values());
+        top.sort(Comparator.comparingLong((ConnectionMetrics c) -> c.bytesIn.sum() + c.bytesOut.sum()).reversed());
+        sb.append(String.format("%n%-6s %-22s %-16s %10s %10s %8s %8s%n",
+                "conn", "remote", "user", "bytesIn", "bytesOut", "pktIn", "pktOut"));
+        for (ConnectionMetrics c : top.subList(0, Math.min(20, top.size()))) {
+            sb.append(String.format("%-6d %-22s %-16s %10d %10d %8d %8d%n",
+                    c.id, c.remote, c.username != null ? c.username : "-",
+                    c.bytesIn.sum(), c.bytesOut.sum(), c.packetsIn.sum(), c.packetsOut.sum()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ghi dump() ra file metrics-yyyyMMdd-HHmmss.txt trong thư mục dir
+     */
+    public static File dumpToFile(File dir) throws IOException {
+        if (!dir.exists()) dir.mkdirs();
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(dir, "metrics-" + stamp + ".txt");
+        Files.writeString(file.toPath(), dump(), StandardCharsets.UTF_8);
+        log.info("Dumped metrics to " + file.getAbsolutePath());
+        return file;
+    }
+}
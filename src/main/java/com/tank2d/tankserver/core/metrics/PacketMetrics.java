@@ -0,0 +1,24 @@
+package com.tank2d.tankserver.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Số liệu của một PacketType: số request, số lỗi, latency xử lý trong ClientHandler
+ */
+public class PacketMetrics {
+
+    public final int type;
+    public final LongAdder count = new LongAdder();
+    public final LongAdder errors = new LongAdder();
+    public final LatencyHistogram latency = new LatencyHistogram();
+
+    PacketMetrics(int type) {
+        this.type = type;
+    }
+
+    public void record(long nanos, boolean error) {
+        count.increment();
+        if (error) errors.increment();
+        latency.recordNanos(nanos);
+    }
+}
@@ -0,0 +1,271 @@
+package com.tank2d.tankserver.core.metrics;
+
+import com.tank2d.tankserver.core.AssetHttpServer;
+import com.tank2d.tankserver.core.auth.AuthGuard;
+import com.tank2d.tankserver.core.inventory.InventoryCache;
+import com.tank2d.tankserver.core.net.IdleMonitor;
+import com.tank2d.tankserver.core.net.PacketRateLimiter;
+import com.tank2d.tankserver.core.presence.PresenceService;
+import com.tank2d.tankserver.core.room.MatchmakingService;
+import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.room.RoomChatService;
+import com.tank2d.tankserver.core.room.RoomEventBus;
+import com.tank2d.tankserver.core.room.RoomListPublisher;
+import com.tank2d.tankserver.core.room.RoomManager;
+import com.tank2d.tankserver.core.session.SessionRegistry;
+import com.tank2d.tankserver.db.ConnectionPool;
+import com.tank2d.tankserver.db.Connector;
+import com.tank2d.tankserver.utils.PacketType;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+
+/**
+ * PrometheusExporter
+ * Xuất số liệu server theo Prometheus text format 0.0.4 cho endpoint /metrics.
+ *
+ * Scrape chỉ đọc counter / snapshot: không lặp qua từng connection (chỉ lấy số lượng)
+ * và không giữ lock của RoomManager (đọc qua RoomManager.liveRooms()).
+ */
+public class PrometheusExporter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Bucket latency (giây) của histogram tankserver_packet_latency_seconds */
+    private static final double[] LATENCY_BUCKETS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5
+    };
+
+    /** Bucket số người chơi / phòng (maxPlayers hiện tại tối đa 8) */
+    private static final int[] PLAYER_BUCKETS = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    public static String scrape(AssetHttpServer assetServer) {
+        StringBuilder sb = new StringBuilder(8192);
+        writeConnections(sb);
+        writeRooms(sb);
+        writeMatchmaking(sb);
+        writePresence(sb);
+        writePackets(sb);
+        writeDatabasePool(sb);
+        writeCaches(sb, assetServer);
+        writeJvm(sb);
+        return sb.toString();
+    }
+
+    // -------------------------------
+    // 🔹 SERVER
+    // -------------------------------
+
+    private static void writeConnections(StringBuilder sb) {
+        gauge(sb, "tankserver_connections_active", "Open client connections", MetricsRegistry.getActiveConnectionCount());
+        gauge(sb, "tankserver_sessions_online", "Logged-in sessions in the session registry", SessionRegistry.getOnlineCount());
+        counter(sb, "tankserver_sessions_kicked_total", "Older sessions closed by a duplicate login", SessionRegistry.getSessionsKicked());
+        counter(sb, "tankserver_sessions_duplicate_rejected_total", "Logins rejected because the account was already online", SessionRegistry.getDuplicatesRejected());
+        counter(sb, "tankserver_connections_total", "Client connections accepted since start", MetricsRegistry.getTotalConnections());
+        counter(sb, "tankserver_bytes_received_total", "Bytes read from client sockets", MetricsRegistry.getTotalBytesIn());
+        counter(sb, "tankserver_bytes_sent_total", "Bytes written to client sockets", MetricsRegistry.getTotalBytesOut());
+        counter(sb, "tankserver_invalid_packets_total", "Lines that could not be parsed as a packet", MetricsRegistry.getInvalidPackets());
+        counter(sb, "tankserver_oversized_frames_total", "Frames dropped for exceeding the max frame size", MetricsRegistry.getOversizedFrames());
+        counter(sb, "tankserver_slow_consumers_total", "Connections closed because their send queue was full", MetricsRegistry.getSlowConsumers());
+        counter(sb, "tankserver_auth_login_blocked_total", "Logins rejected by the per-IP / per-username windows", AuthGuard.getLoginBlocked());
+        counter(sb, "tankserver_auth_register_blocked_total", "Registrations rejected by the per-IP window", AuthGuard.getRegisterBlocked());
+        counter(sb, "tankserver_auth_filter_misses_total", "Existing usernames missing from the username filter, added on login", AuthGuard.getFilterMisses());
+        counter(sb, "tankserver_auth_register_duplicate_total", "Registrations of existing usernames rejected before the INSERT", AuthGuard.getRegisterDuplicate());
+        gauge(sb, "tankserver_auth_tracked_keys", "IPs / usernames tracked by the auth windows", AuthGuard.getTrackedKeys());
+        gauge(sb, "tankserver_idle_timers", "Connection idle timers pending on the timing wheel", IdleMonitor.getWatchedCount());
+        counter(sb, "tankserver_heartbeat_pings_total", "PING packets sent to silent connections", IdleMonitor.getPingsSent());
+        counter(sb, "tankserver_idle_timeouts_total", "Connections closed by the idle timeout", IdleMonitor.getIdleTimeouts());
+    }
+
+    private static void writeRooms(StringBuilder sb) {
+        long[] buckets = new long[PLAYER_BUCKETS.length];
+        long rooms = 0;
+        long players = 0;
+        for (Room room : RoomManager.liveRooms()) {
+            int count = room.getPlayerCount();
+            rooms++;
+            players += count;
+            for (int i = 0; i < PLAYER_BUCKETS.length; i++) {
+                if (count <= PLAYER_BUCKETS[i]) buckets[i]++;
+            }
+        }
+
+        gauge(sb, "tankserver_rooms", "Open rooms", rooms);
+        header(sb, "tankserver_room_players", "Players per open room", "histogram");
+        for (int i = 0; i < PLAYER_BUCKETS.length; i++) {
+            sb.append("tankserver_room_players_bucket{le=\"").append(PLAYER_BUCKETS[i]).append("\"} ")
+                    .append(buckets[i]).append('\n');
+        }
+        sb.append("tankserver_room_players_bucket{le=\"+Inf\"} ").append(rooms).append('\n');
+        sb.append("tankserver_room_players_sum ").append(players).append('\n');
+        sb.append("tankserver_room_players_count ").append(rooms).append('\n');
+
+        counter(sb, "tankserver_rooms_created_total", "Rooms created", RoomEventBus.getRoomsCreated());
+        counter(sb, "tankserver_rooms_removed_total", "Rooms removed", RoomEventBus.getRoomsRemoved());
+        counter(sb, "tankserver_room_events_published_total", "Room changes published to the event bus", RoomEventBus.getPublishedCount());
+        counter(sb, "tankserver_room_events_coalesced_total", "Room changes merged into a pending event", RoomEventBus.getCoalescedCount());
+        counter(sb, "tankserver_room_events_delivered_total", "Room events delivered to subscribers", RoomEventBus.getDeliveredCount());
+        gauge(sb, "tankserver_room_list_subscribers", "Lobby clients subscribed to room list pushes", RoomListPublisher.getSubscriberCount());
+        counter(sb, "tankserver_room_list_deltas_sent_total", "Room list delta packets pushed to clients", RoomListPublisher.getDeltaPacketCount());
+        counter(sb, "tankserver_room_list_snapshots_sent_total", "Room list snapshots sent on subscribe", RoomListPublisher.getSnapshotsSent());
+        gauge(sb, "tankserver_room_list_version", "Room list version (bumped on create, remove, join, leave)", RoomManager.getRoomListVersion());
+        counter(sb, "tankserver_room_list_cache_hits_total", "ROOM_LIST requests served from the encoded cache", RoomManager.getRoomListCacheHits());
+        counter(sb, "tankserver_room_list_cache_rebuilds_total", "Encoded room list rebuilds", RoomManager.getRoomListRebuilds());
+        counter(sb, "tankserver_room_chat_lines_total", "Room chat lines accepted", RoomChatService.getLinesPosted());
+        counter(sb, "tankserver_room_chat_lines_delivered_total", "Room chat lines sent in batches", RoomChatService.getLinesDelivered());
+        counter(sb, "tankserver_room_chat_lines_dropped_total", "Room chat lines overwritten in the ring before delivery", RoomChatService.getLinesDropped());
+        counter(sb, "tankserver_room_chat_batches_total", "ROOM_CHAT batches (one frame per room member)", RoomChatService.getBatchesSent());
+        counter(sb, "tankserver_room_chat_histories_total", "Chat histories sent to players joining a room", RoomChatService.getHistoriesSent());
+        counter(sb, "tankserver_room_queries_total", "Filtered / paginated ROOM_LIST queries", RoomManager.getRoomQueryCount());
+        counter(sb, "tankserver_room_query_scanned_total", "Index entries visited by room queries", RoomManager.getRoomQueryScanned());
+    }
+
+    private static void writeMatchmaking(StringBuilder sb) {
+        gauge(sb, "tankserver_matchmaking_queue", "Players waiting for quick play", MatchmakingService.getQueueSize());
+        counter(sb, "tankserver_matchmaking_enqueued_total", "Quick play requests queued", MatchmakingService.getEnqueuedCount());
+        counter(sb, "tankserver_matchmaking_cancelled_total", "Quick play requests cancelled", MatchmakingService.getCancelledCount());
+        counter(sb, "tankserver_matchmaking_matched_total", "Players placed in a room by quick play", MatchmakingService.getMatchedCount());
+        counter(sb, "tankserver_matchmaking_rooms_filled_total", "Existing rooms topped up by quick play", MatchmakingService.getRoomsFilled());
+        counter(sb, "tankserver_matchmaking_rooms_created_total", "Rooms created by quick play", MatchmakingService.getRoomsCreated());
+
+        LatencyHistogram.Snapshot s = MatchmakingService.getWaitTime();
+        header(sb, "tankserver_matchmaking_wait_seconds", "Time from quick play request to room assignment", "summary");
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            sb.append("tankserver_matchmaking_wait_seconds{quantile=\"").append(q).append("\"} ")
+                    .append(s.percentile(q) / 1_000_000.0).append('\n');
+        }
+        sb.append("tankserver_matchmaking_wait_seconds_sum ").append(s.sumMicros / 1_000_000.0).append('\n');
+        sb.append("tankserver_matchmaking_wait_seconds_count ").append(s.count).append('\n');
+    }
+
+    private static void writePresence(StringBuilder sb) {
+        gauge(sb, "tankserver_presence_friend_lists_cached", "Online users whose friend list is held in memory", PresenceService.getLoadedUsers());
+        counter(sb, "tankserver_presence_friend_list_queries_total", "Bulk friend list loads (one query per 500 users)", PresenceService.getFriendListLoads());
+        counter(sb, "tankserver_presence_friend_lists_loaded_total", "Friend lists loaded from the database", PresenceService.getFriendListsLoaded());
+        counter(sb, "tankserver_presence_changes_marked_total", "Presence changes reported by connections", PresenceService.getChangesMarked());
+        counter(sb, "tankserver_presence_changes_coalesced_total", "Presence changes merged into a pending change", PresenceService.getChangesCoalesced());
+        counter(sb, "tankserver_presence_changes_published_total", "Presence changes fanned out to friends", PresenceService.getChangesPublished());
+        counter(sb, "tankserver_presence_frames_sent_total", "Friend list, presence and add / remove frames pushed", PresenceService.getFramesSent());
+        counter(sb, "tankserver_presence_entries_sent_total", "Friend status entries carried by FRIEND_PRESENCE frames", PresenceService.getEntriesSent());
+    }
+
+    private static void writePackets(StringBuilder sb) {
+        var all = MetricsRegistry.getPacketMetrics();
+
+        header(sb, "tankserver_packets_total", "Packets handled by type", "counter");
+        for (PacketMetrics m : all) {
+            sb.append("tankserver_packets_total{type=\"").append(PacketType.nameOf(m.type)).append("\"} ")
+                    .append(m.count.sum()).append('\n');
+        }
+
+        header(sb, "tankserver_packet_errors_total", "Packets that failed or were answered with a failure packet", "counter");
+        for (PacketMetrics m : all) {
+            sb.append("tankserver_packet_errors_total{type=\"").append(PacketType.nameOf(m.type)).append("\"} ")
+                    .append(m.errors.sum()).append('\n');
+        }
+
+        header(sb, "tankserver_packets_rate_limited_total", "Packets rejected by the per-connection rate limiter", "counter");
+        for (int type : PacketRateLimiter.getLimitedTypes()) {
+            sb.append("tankserver_packets_rate_limited_total{type=\"").append(PacketType.nameOf(type))
+                    .append("\",action=\"").append(PacketRateLimiter.actionFor(type).name().toLowerCase()).append("\"} ")
+                    .append(PacketRateLimiter.getLimitedCount(type)).append('\n');
+        }
+
+        header(sb, "tankserver_packet_latency_seconds", "handlePacket latency by type", "histogram");
+        for (PacketMetrics m : all) {
+            String type = PacketType.nameOf(m.type);
+            LatencyHistogram.Snapshot s = m.latency.snapshot();
+            for (double le : LATENCY_BUCKETS) {
+                sb.append("tankserver_packet_latency_seconds_bucket{type=\"").append(type)
+                        .append("\",le=\"").append(le).append("\"} ")
+                        .append(s.countAtOrBelow((long) (le * 1_000_000))).append('\n');
+            }
+            sb.append("tankserver_packet_latency_seconds_bucket{type=\"").append(type)
+                    .append("\",le=\"+Inf\"} ").append(s.count).append('\n');
+            sb.append("tankserver_packet_latency_seconds_sum{type=\"").append(type).append("\"} ")
+                    .append(s.sumMicros / 1_000_000.0).append('\n');
+            sb.append("tankserver_packet_latency_seconds_count{type=\"").append(type).append("\"} ")
+                    .append(s.count).append('\n');
+        }
+    }
+
+    private static void writeDatabasePool(StringBuilder sb) {
+        // Pool chỉ được tạo ở lần getConnection() đầu tiên
+        ConnectionPool pool = Connector.getPool();
+        if (pool == null) return;
+
+        gauge(sb, "tankserver_db_pool_max", "Maximum pooled connections", pool.getMaxSize());
+        gauge(sb, "tankserver_db_pool_open", "Physical connections currently open", pool.getOpenCount());
+        gauge(sb, "tankserver_db_pool_active", "Connections currently borrowed", pool.getActiveCount());
+        gauge(sb, "tankserver_db_pool_idle", "Idle connections in the pool", pool.getIdleCount());
+        gauge(sb, "tankserver_db_pool_pending", "Threads waiting for a connection", pool.getPendingCount());
+        counter(sb, "tankserver_db_pool_borrows_total", "Connections borrowed", pool.getBorrowCount());
+        counter(sb, "tankserver_db_pool_created_total", "Physical connections created", pool.getCreatedCount());
+        counter(sb, "tankserver_db_pool_waits_total", "Borrows that had to wait", pool.getWaitCount());
+        counter(sb, "tankserver_db_pool_timeouts_total", "Borrows that timed out", pool.getTimeoutCount());
+    }
+
+    private static void writeCaches(StringBuilder sb, AssetHttpServer assetServer) {
+        gauge(sb, "tankserver_inventory_cache_entries", "Users with a cached inventory", InventoryCache.size());
+        if (assetServer == null) return;
+
+        long hits = assetServer.getCacheHits();
+        long misses = assetServer.getCacheMisses();
+        counter(sb, "tankserver_asset_cache_hits_total", "Asset requests served from memory", hits);
+        counter(sb, "tankserver_asset_cache_misses_total", "Asset requests read from disk", misses);
+        gauge(sb, "tankserver_asset_cache_hit_ratio", "Asset cache hit ratio since start",
+                hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        gauge(sb, "tankserver_asset_cache_entries", "Cached asset files", assetServer.getCacheEntries());
+        gauge(sb, "tankserver_asset_cache_bytes", "Bytes held by the asset cache", assetServer.getCacheBytes());
+    }
+
+    // -------------------------------
+    // 🔹 JVM
+    // -------------------------------
+
+    private static void writeJvm(StringBuilder sb) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge(sb, "jvm_memory_heap_used_bytes", "Used heap", heap.getUsed());
+        gauge(sb, "jvm_memory_heap_committed_bytes", "Committed heap", heap.getCommitted());
+        gauge(sb, "jvm_memory_heap_max_bytes", "Max heap (-1 if undefined)", heap.getMax());
+
+        header(sb, "jvm_gc_collections_total", "GC collections by collector", "counter");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sb.append("jvm_gc_collections_total{gc=\"").append(gc.getName()).append("\"} ")
+                    .append(Math.max(0, gc.getCollectionCount())).append('\n');
+        }
+        header(sb, "jvm_gc_collection_seconds_total", "GC time by collector", "counter");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sb.append("jvm_gc_collection_seconds_total{gc=\"").append(gc.getName()).append("\"} ")
+                    .append(Math.max(0, gc.getCollectionTime()) / 1000.0).append('\n');
+        }
+
+        gauge(sb, "jvm_threads_live", "Live JVM threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        gauge(sb, "tankserver_uptime_seconds", "Seconds since metrics started",
+                (System.currentTimeMillis() - MetricsRegistry.getStartedAt()) / 1000.0);
+    }
+
+    // -------------------------------
+    // 🔹 FORMAT
+    // -------------------------------
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        header(sb, name, help, "gauge");
+        sb.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, long value) {
+        header(sb, name, help, "counter");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.tank2d.tankserver.core.net;
+
+import com.tank2d.tankserver.core.metrics.MetricsRegistry;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FrameReader
+ * Đọc packet theo dòng ('\n') thay cho BufferedReader.readLine(), có giới hạn kích thước:
+ *  - Đọc vào buffer byte dùng lại cho cả connection, không tạo String cho dòng dở dang
+ *  - Frame nằm gọn trong buffer đọc thì decode thẳng từ đó (không copy)
+ *  - Chỉ decode UTF-8 khi đã có đủ frame
+ *  - Frame vượt maxFrameBytes bị bỏ tới '\n' kế tiếp và đếm lại (MetricsRegistry),
+ *    bộ nhớ của connection không bao giờ vượt buffer đọc + maxFrameBytes
+ *
+ * Giới hạn mặc định: tankserver.net.maxFrame / TANKSERVER_NET_MAXFRAME (byte, mặc định 65536).
+ * Không thread-safe: chỉ thread đọc của connection dùng.
+ */
+public class FrameReader {
+
+    public static final int DEFAULT_MAX_FRAME_BYTES = Settings.getInt("tankserver.net.maxFrame", 65536);
+
+    private static final int READ_BUFFER_BYTES = 8192;
+    private static final int INITIAL_FRAME_BYTES = 1024;
+
+    private final InputStream in;
+    private final int maxFrameBytes;
+
+    private final byte[] readBuf = new byte[READ_BUFFER_BYTES];
+    private int pos;
+    private int limit;
+
+    /** Phần đầu của frame trải qua nhiều lần đọc */
+    private byte[] frameBuf = new byte[INITIAL_FRAME_BYTES];
+    private int frameLen;
+    /** Đang bỏ phần còn lại của một frame quá lớn */
+    private boolean discarding;
+
+    public FrameReader(InputStream in) {
+        this(in, DEFAULT_MAX_FRAME_BYTES);
+    }
+
+    public FrameReader(InputStream in, int maxFrameBytes) {
+        this.in = in;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Frame kế tiếp (không gồm "\n" / "\r\n"), null khi hết stream.
+     * Frame dở dang lúc đóng stream bị bỏ.
+     */
+    public String readFrame() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return null;
+
+            int nl = indexOfNewline();
+            if (nl < 0) {
+                // Chưa hết frame: giữ lại (hoặc tiếp tục bỏ) rồi đọc tiếp
+                if (!discarding && !append(pos, limit - pos)) reject();
+                pos = limit;
+                continue;
+            }
+
+            int start = pos;
+            pos = nl + 1;
+            if (discarding) {
+                discarding = false;
+                continue;
+            }
+
+            if (frameLen == 0) {
+                if (nl - start > maxFrameBytes) {
+                    MetricsRegistry.recordOversizedFrame();
+                    continue;
+                }
+                return decode(readBuf, start, nl);
+            }
+            if (!append(start, nl - start)) {
+                MetricsRegistry.recordOversizedFrame();
+                frameLen = 0;
+                continue;
+            }
+            String frame = decode(frameBuf, 0, frameLen);
+            frameLen = 0;
+            return frame;
+        }
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(readBuf, 0, readBuf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private int indexOfNewline() {
+        for (int i = pos; i < limit; i++) {
+            if (readBuf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    /** Thêm vào frameBuf; false nếu frame sẽ vượt maxFrameBytes */
+    private boolean append(int from, int length) {
+        int needed = frameLen + length;
+        if (needed > maxFrameBytes) return false;
+        if (needed > frameBuf.length) {
+            byte[] grown = new byte[Math.min(maxFrameBytes, Math.max(needed, frameBuf.length * 2))];
+            System.arraycopy(frameBuf, 0, grown, 0, frameLen);
+            frameBuf = grown;
+        }
+        System.arraycopy(readBuf, from, frameBuf, frameLen, length);
+        frameLen = needed;
+        return true;
+    }
+
+    private void reject() {
+        MetricsRegistry.recordOversizedFrame();
+        frameLen = 0;
+        discarding = true;
+    }
+
+    private static String decode(byte[] buf, int from, int to) {
+        if (to > from && buf[to - 1] == '\r') to--;
+        return new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.tank2d.tankserver.core.net;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IdleMonitor
+ * Heartbeat + idle timeout cho mọi connection trên một TimingWheel:
+ *  - Im lặng quá heartbeat → server gửi PING (client trả PONG, packet nào cũng tính là còn sống)
+ *  - Im lặng quá idle timeout → đóng socket, ClientHandler dọn dẹp như khi client tự ngắt
+ *  - Client đang ở room in-game không bao giờ bị đóng vì idle (trận chạy ngoài TCP, client cũ không trả PONG);
+ *    peer chết giữa trận do TCP keepalive của socket phát hiện (MasterServer)
+ *
+ * Mỗi connection chỉ có một timeout trên wheel. Packet đến chỉ ghi lastActivity,
+ * không hủy / đặt lại timer; lúc timer chạy mới tính lại hạn kế tiếp.
+ *
+ * Cấu hình (system property → biến môi trường):
+ *   tankserver.idle.timeout       TANKSERVER_IDLE_TIMEOUT        giây, mặc định 300 (0 = tắt, kể cả PING)
+ *   tankserver.heartbeat.interval TANKSERVER_HEARTBEAT_INTERVAL  giây, mặc định 30 (0 = không PING)
+ */
+public class IdleMonitor {
+
+    private static final Log log = Log.get(IdleMonitor.class);
+
+    private static final long IDLE_TIMEOUT_MS = Settings.getLong("tankserver.idle.timeout", 300) * 1000;
+    private static final long HEARTBEAT_MS = Settings.getLong("tankserver.heartbeat.interval", 30) * 1000;
+
+    private static final TimingWheel wheel = new TimingWheel("idle-monitor", 250, 512);
+
+    private static final LongAdder pingsSent = new LongAdder();
+    private static final LongAdder idleTimeouts = new LongAdder();
+
+    /** Bắt đầu theo dõi connection; null nếu idle timeout bị tắt */
+    public static TimingWheel.Timeout watch(ClientHandler client) {
+        if (IDLE_TIMEOUT_MS <= 0) return null;
+        return wheel.schedule(() -> check(client), nextCheckIn(0));
+    }
+
+    public static long getIdleTimeoutMs() { return IDLE_TIMEOUT_MS; }
+    public static long getPingsSent() { return pingsSent.sum(); }
+    public static long getIdleTimeouts() { return idleTimeouts.sum(); }
+    public static int getWatchedCount() { return wheel.getPending(); }
+
+    // -------------------------------
+    // 🔹 CHECK (thread của wheel)
+    // -------------------------------
+
+    private static void check(ClientHandler client) {
+        if (client.isClosed()) return;
+
+        long idleMs = (System.nanoTime() - client.getLastActivityNanos()) / 1_000_000;
+        if (idleMs >= IDLE_TIMEOUT_MS && !isInGame(client)) {
+            idleTimeouts.increment();
+            log.debug(() -> "Idle timeout: " + client.getConnectionId() + " (" + idleMs + " ms)");
+            client.close("idle timeout");
+            return;
+        }
+
+        if (HEARTBEAT_MS > 0 && idleMs >= HEARTBEAT_MS && client.markPingDue()) {
+            pingsSent.increment();
+            client.sendPing(); // chỉ đẩy vào hàng gửi của client, không chặn thread của wheel
+        }
+        long next = nextCheckIn(idleMs);
+        // Client in-game đã quá hạn → kiểm tra lại sau một chu kỳ timeout
+        client.setIdleTimeout(wheel.schedule(() -> check(client), next > 0 ? next : IDLE_TIMEOUT_MS));
+    }
+
+    private static boolean isInGame(ClientHandler client) {
+        Room room = client.getCurrentRoom();
+        return room != null && room.isInGame();
+    }
+
+    private static long nextCheckIn(long idleMs) {
+        if (HEARTBEAT_MS > 0 && idleMs < HEARTBEAT_MS && HEARTBEAT_MS < IDLE_TIMEOUT_MS) {
+            return HEARTBEAT_MS - idleMs;
+        }
+        return IDLE_TIMEOUT_MS - idleMs;
+    }
+}
@@ -0,0 +1,140 @@
+package com.tank2d.tankserver.core.net;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.utils.PacketType;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PacketRateLimiter
+ * Giới hạn tần suất theo từng connection và từng PacketType (token bucket lock-free),
+ * để một client spam SHOP_LIST / INVENTORY_REQUEST... không chiếm hết DB pool của server.
+ *
+ * Mỗi ClientHandler có một instance; bucket chỉ được tạo cho type có policy.
+ * Vượt giới hạn:
+ *  - THROTTLE: server trả RATE_LIMITED {type, retryAfterMs}
+ *  - DROP: bỏ im lặng (packet không cần trả lời)
+ *
+ * Cấu hình (system property → biến môi trường):
+ *   tankserver.ratelimit.enabled       TANKSERVER_RATELIMIT_ENABLED       true | false
+ *   tankserver.ratelimit.<PACKET_TYPE> TANKSERVER_RATELIMIT_<PACKET_TYPE> "perSecond:burst[:drop]", "off" = bỏ giới hạn
+ *   vd. -Dtankserver.ratelimit.SHOP_LIST=2:5
+ */
+public class PacketRateLimiter {
+
+    private static final Log log = Log.get(PacketRateLimiter.class);
+
+    public enum Action { THROTTLE, DROP }
+
+    public record Policy(double perSecond, int burst, Action action) { }
+
+    /** PacketType hiện tại đều < 256 → tra bằng mảng như MetricsRegistry */
+    private static final int DIRECT_TYPES = 256;
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(Settings.get("tankserver.ratelimit.enabled", "true"));
+    private static final Policy[] policies = new Policy[DIRECT_TYPES];
+    private static final LongAdder[] limited = new LongAdder[DIRECT_TYPES];
+
+    static {
+        // Đọc DB / build payload lớn
+        limit(PacketType.SHOP_LIST, 5, 10, Action.THROTTLE);
+        limit(PacketType.TANK_SHOP_LIST, 5, 10, Action.THROTTLE);
+        limit(PacketType.INVENTORY_REQUEST, 5, 10, Action.THROTTLE);
+        limit(PacketType.BUY_ITEM, 5, 10, Action.THROTTLE);
+        limit(PacketType.BUY_TANK, 5, 10, Action.THROTTLE);
+        limit(PacketType.EQUIP_TANK, 5, 10, Action.THROTTLE);
+        limit(PacketType.LOGIN, 2, 5, Action.THROTTLE);
+        limit(PacketType.REGISTER, 1, 3, Action.THROTTLE);
+        // Lobby
+        limit(PacketType.ROOM_LIST, 20, 40, Action.THROTTLE);
+        limit(PacketType.ROOM_LIST_SUBSCRIBE, 1, 5, Action.THROTTLE);
+        limit(PacketType.CREATE_ROOM, 2, 5, Action.THROTTLE);
+        limit(PacketType.JOIN_ROOM, 5, 10, Action.THROTTLE);
+        limit(PacketType.QUICK_PLAY, 2, 5, Action.THROTTLE);
+        limit(PacketType.PLAYER_READY, 5, 10, Action.THROTTLE);
+        limit(PacketType.ROOM_CHAT, 2, 5, Action.THROTTLE);
+        // Bạn bè (ghi DB)
+        limit(PacketType.FRIEND_LIST, 2, 5, Action.THROTTLE);
+        limit(PacketType.FRIEND_ADD, 2, 5, Action.THROTTLE);
+        limit(PacketType.FRIEND_REMOVE, 2, 5, Action.THROTTLE);
+        // Không cần trả lời
+        limit(PacketType.PING, 2, 5, Action.DROP);
+
+        for (int type = 0; type < DIRECT_TYPES; type++) {
+            String name = PacketType.nameOf(type);
+            if (name.startsWith("UNKNOWN")) continue;
+            String spec = Settings.get("tankserver.ratelimit." + name, null);
+            if (spec != null) override(type, name, spec);
+        }
+    }
+
+    private final TokenBucket[] buckets = new TokenBucket[DIRECT_TYPES];
+
+    /**
+     * 0 nếu packet được xử lý, ngược lại số nano giây tới lúc được gửi tiếp
+     * (packet bị chặn, đã đếm vào getLimitedCount). Chỉ thread đọc của connection gọi.
+     */
+    public long acquire(int type) {
+        if (!ENABLED || type < 0 || type >= DIRECT_TYPES) return 0;
+        Policy policy = policies[type];
+        if (policy == null) return 0;
+
+        TokenBucket bucket = buckets[type];
+        if (bucket == null) {
+            bucket = new TokenBucket(policy.perSecond(), policy.burst());
+            buckets[type] = bucket;
+        }
+        long wait = bucket.tryAcquire(System.nanoTime());
+        if (wait > 0) limited[type].increment();
+        return wait;
+    }
+
+    public static Action actionFor(int type) {
+        Policy policy = type >= 0 && type < DIRECT_TYPES ? policies[type] : null;
+        return policy != null ? policy.action() : Action.THROTTLE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /** Các type có policy (dùng cho export) */
+    public static List<Integer> getLimitedTypes() {
+        List<Integer> types = new ArrayList<>();
+        for (int type = 0; type < DIRECT_TYPES; type++) {
+            if (policies[type] != null) types.add(type);
+        }
+        return types;
+    }
+
+    public static long getLimitedCount(int type) {
+        LongAdder counter = type >= 0 && type < DIRECT_TYPES ? limited[type] : null;
+        return counter != null ? counter.sum() : 0;
+    }
+
+    // -------------------------------
+    // 🔹 CONFIG
+    // -------------------------------
+
+    private static void limit(int type, double perSecond, int burst, Action action) {
+        policies[type] = new Policy(perSecond, burst, action);
+        if (limited[type] == null) limited[type] = new LongAdder();
+    }
+
+    private static void override(int type, String name, String spec) {
+        if (spec.equalsIgnoreCase("off")) {
+            policies[type] = null;
+            return;
+        }
+        try {
+            String[] parts = spec.split(":");
+            Action action = parts.length > 2 && parts[2].equalsIgnoreCase("drop") ? Action.DROP : Action.THROTTLE;
+            limit(type, Double.parseDouble(parts[0]), Integer.parseInt(parts[1]), action);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring rate limit for " + name + ": bad value '" + spec + "' (expected perSecond:burst[:drop])");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.tank2d.tankserver.core.net;
+
+import com.tank2d.tankserver.core.log.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TimingWheel
+ * Hashed timing wheel: một thread + một mảng slot cho mọi timeout của server,
+ * thay vì một timer (hay một SO_TIMEOUT) cho mỗi socket.
+ *  - schedule() chỉ đẩy vào hàng đợi lock-free; thread của wheel đưa vào slot ở tick kế
+ *  - Mỗi tick chỉ duyệt một slot; timeout xa hơn một vòng nằm lại tới vòng của nó
+ *  - cancel() chỉ đánh dấu, entry bị bỏ khi tới lượt slot
+ *
+ * Task chạy trên thread của wheel nên phải ngắn (không I/O chặn).
+ */
+public class TimingWheel {
+
+    private static final Log log = Log.get(TimingWheel.class);
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final long tickMs;
+    private final int mask;
+    private final List<List<Timeout>> slots;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+
+    /** Số tick đã chạy (chỉ thread worker ghi) */
+    private volatile long tick;
+    private volatile boolean running = true;
+
+    public TimingWheel(String name, long tickMs, int slotCount) {
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.tickMs = tickMs;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Chạy task sau ít nhất delayMs (làm tròn lên theo tick) */
+    public Timeout schedule(Runnable task, long delayMs) {
+        long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+        Timeout timeout = new Timeout(task, tick + ticks);
+        incoming.add(timeout);
+        pending.incrementAndGet();
+        return timeout;
+    }
+
+    /** Số timeout đang chờ (kể cả đã cancel nhưng chưa tới slot) */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    // -------------------------------
+    // 🔹 WORKER
+    // -------------------------------
+
+    private void run() {
+        long start = System.nanoTime();
+        while (running) {
+            long wakeAt = start + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = wakeAt - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            long current = tick + 1;
+            tick = current;
+
+            transferIncoming(current);
+            expire(current);
+        }
+    }
+
+    private void transferIncoming(long current) {
+        Timeout t;
+        while ((t = incoming.poll()) != null) {
+            if (t.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // deadline đã qua (schedule đọc tick cũ) → chạy ngay ở tick này
+            slots.get((int) (Math.max(t.deadlineTick, current) & mask)).add(t);
+        }
+    }
+
+    private void expire(long current) {
+        List<Timeout> slot = slots.get((int) (current & mask));
+        if (slot.isEmpty()) return;
+
+        List<Timeout> due = new ArrayList<>();
+        slot.removeIf(t -> {
+            if (t.cancelled) {
+                pending.decrementAndGet();
+                return true;
+            }
+            if (t.deadlineTick > current) return false; // vòng sau
+            due.add(t);
+            pending.decrementAndGet();
+            return true;
+        });
+
+        for (Timeout t : due) {
+            try {
+                t.task.run();
+            } catch (Exception e) {
+                log.error("Timer task failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tank2d.tankserver.core.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket lock-free dạng GCRA: toàn bộ trạng thái là một long
+ * ("thời điểm lý thuyết" của request kế tiếp), tryAcquire() là một CAS,
+ * không có thread refill hay timer.
+ */
+public final class TokenBucket {
+
+    /** Thời gian sinh một token */
+    private final long intervalNanos;
+    /** Độ sâu bucket: burst request liền nhau được phép */
+    private final long toleranceNanos;
+    private final AtomicLong nextFree = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double perSecond, int burst) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    /** 0 nếu lấy được token, ngược lại số nano giây phải chờ tới token kế tiếp */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = nextFree.get();
+            long base = Math.max(current, nowNanos);
+            long ahead = base - nowNanos;
+            if (ahead > toleranceNanos) return ahead - toleranceNanos;
+            if (nextFree.compareAndSet(current, base + intervalNanos)) return 0;
+        }
+    }
+}
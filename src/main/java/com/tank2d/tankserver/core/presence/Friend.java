@@ -0,0 +1,6 @@
+package com.tank2d.tankserver.core.presence;
+
+/**
+ * Một dòng trong danh sách bạn của user (id + username của người bạn)
+ */
+public record Friend(int userId, String username) { }
@@ -0,0 +1,376 @@
+package com.tank2d.tankserver.core.presence;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.session.SessionRegistry;
+import com.tank2d.tankserver.db.FriendRepository;
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PresenceService
+ * Danh sách bạn bè + trạng thái OFFLINE / ONLINE / IN_ROOM / IN_GAME của bạn bè.
+ *
+ *  - Danh sách bạn (adjacency) chỉ giữ cho user đang online, load lười: user mới login
+ *    được gom lại và load bằng một query cho cả batch (FriendRepository.loadFriends) trên
+ *    thread "presence-loader"; thay đổi của user chưa có adjacency được giữ lại tới lần flush
+ *    sau khi load xong, nên thread "presence" không bao giờ chờ DB
+ *  - ClientHandler chỉ đánh dấu user "đổi trạng thái" (changed); thread "presence" mỗi
+ *    FLUSH_INTERVAL_MS đọc trạng thái hiện tại qua SessionRegistry, bỏ qua user không thật sự
+ *    đổi, và gửi mỗi người nhận đúng một FRIEND_PRESENCE chứa mọi bạn bè vừa đổi
+ *  - Session vừa login nhận FRIEND_LIST_DATA (toàn bộ danh sách) thay cho các delta
+ *  - Gửi chỉ đẩy vào hàng gửi của từng client (ClientHandler.sendEncoded), client đọc chậm
+ *    không chặn flush
+ *
+ * Quan hệ bạn bè là hai chiều nên bạn của X cũng là những người cần biết trạng thái của X:
+ * fan-out chỉ cần adjacency của chính X, không cần tra ngược.
+ *
+ * Cấu hình (system property → biến môi trường):
+ *   tankserver.presence.flushMs  chu kỳ gom / gửi thay đổi (mặc định 250)
+ *   tankserver.friends.max       số bạn tối đa mỗi user (mặc định 200)
+ */
+public class PresenceService {
+
+    private static final Log log = Log.get(PresenceService.class);
+
+    public enum Status { OFFLINE, ONLINE, IN_ROOM, IN_GAME }
+
+    /** Trạng thái đã phát cho bạn bè; roomId = 0 khi không ở trong phòng */
+    private record Presence(Status status, int roomId) {
+        static final Presence OFFLINE = new Presence(Status.OFFLINE, 0);
+    }
+
+    private static final FriendRepository repo = new FriendRepository();
+
+    private static final long FLUSH_INTERVAL_MS = Settings.getLong("tankserver.presence.flushMs", 250);
+    public static final int MAX_FRIENDS = Settings.getInt("tankserver.friends.max", 200);
+
+    /** userId → (friendId → username), chỉ user đang online */
+    private static final Map<Integer, Map<Integer, String>> friends = new ConcurrentHashMap<>();
+    /** userId → trạng thái bạn bè đang thấy */
+    private static final Map<Integer, Presence> published = new ConcurrentHashMap<>();
+    /** userId → username của user đổi trạng thái từ lần flush trước */
+    private static final Map<Integer, String> dirty = new ConcurrentHashMap<>();
+    /** Session vừa login, chờ nhận FRIEND_LIST_DATA */
+    private static final Set<ClientHandler> welcome = ConcurrentHashMap.newKeySet();
+
+    private static final LongAdder changesMarked = new LongAdder();
+    private static final LongAdder changesCoalesced = new LongAdder();
+    private static final LongAdder changesPublished = new LongAdder();
+    private static final LongAdder framesSent = new LongAdder();
+    private static final LongAdder entriesSent = new LongAdder();
+    private static final LongAdder friendListLoads = new LongAdder();
+    private static final LongAdder friendListsLoaded = new LongAdder();
+
+    /** Load lỗi (DB) thì chờ LOAD_RETRY_MS rồi mới thử lại từ thread flush */
+    private static final long LOAD_RETRY_MS = 5000;
+    /** userId → username đang chờ thread loader */
+    private static final Map<Integer, String> loading = new ConcurrentHashMap<>();
+    private static volatile long loadRetryAt;
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "presence");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "presence-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Presence flush failed: " + e.getMessage(), e);
+            }
+        }, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Client vừa login: đánh dấu ONLINE và gửi danh sách bạn ở lần flush tới */
+    public static void loggedIn(ClientHandler client) {
+        welcome.add(client);
+        changed(client);
+    }
+
+    /**
+     * Đánh dấu trạng thái của client có thể đã đổi (login, vào / rời phòng, bắt đầu game, disconnect).
+     * Chỉ ghi vào map; nhiều lần trong cùng một chu kỳ gộp thành một.
+     */
+    public static void changed(ClientHandler client) {
+        int userId = client.getUserId();
+        String username = client.getUsername();
+        if (userId <= 0 || username == null) return;
+        changesMarked.increment();
+        if (dirty.put(userId, username) != null) changesCoalesced.increment();
+    }
+
+    // -------------------------------
+    // 🔹 FRIEND LIST
+    // -------------------------------
+
+    /** Danh sách bạn kèm trạng thái hiện tại (FRIEND_LIST_DATA.friends); null nếu không load được */
+    public static List<Map<String, Object>> getFriendList(int userId) {
+        Map<Integer, String> list = friendsOf(userId);
+        if (list == null) return null;
+        List<Map<String, Object>> result = new ArrayList<>(list.size());
+        for (Map.Entry<Integer, String> f : list.entrySet()) {
+            result.add(toEntry(f.getValue(), current(f.getKey(), f.getValue())));
+        }
+        return result;
+    }
+
+    /**
+     * Kết bạn với username; null nếu thành công, ngược lại lý do lỗi.
+     * Cả hai phía (nếu online) nhận FRIEND_ADDED.
+     */
+    public static String addFriend(ClientHandler client, int friendId, String friendName) {
+        int userId = client.getUserId();
+        if (friendId == userId) return "You cannot add yourself!";
+
+        Map<Integer, String> list = friendsOf(userId);
+        if (list == null) return "Could not load friend list!";
+        if (list.containsKey(friendId)) return friendName + " is already your friend!";
+        if (list.size() >= MAX_FRIENDS) return "Friend list is full!";
+        if (!repo.addFriend(userId, friendId)) return "Could not add " + friendName + "!";
+
+        list.put(friendId, friendName);
+        Map<Integer, String> theirs = friends.get(friendId);
+        if (theirs != null) theirs.put(userId, client.getUsername());
+
+        sendFriendAdded(client, friendId, friendName);
+        ClientHandler other = SessionRegistry.find(friendName);
+        if (other != null && other.getUserId() == friendId) {
+            sendFriendAdded(other, userId, client.getUsername());
+        }
+        log.debug(() -> client.getUsername() + " added friend " + friendName);
+        return null;
+    }
+
+    /** Hủy kết bạn; null nếu thành công, ngược lại lý do lỗi. Cả hai phía (nếu online) nhận FRIEND_REMOVED. */
+    public static String removeFriend(ClientHandler client, String friendName) {
+        int userId = client.getUserId();
+        Map<Integer, String> list = friendsOf(userId);
+        if (list == null) return "Could not load friend list!";
+        Integer friendId = null;
+        for (Map.Entry<Integer, String> f : list.entrySet()) {
+            if (f.getValue().equalsIgnoreCase(friendName)) {
+                friendId = f.getKey();
+                break;
+            }
+        }
+        if (friendId == null) return friendName + " is not your friend!";
+        if (!repo.removeFriend(userId, friendId)) return "Could not remove " + friendName + "!";
+
+        String name = list.remove(friendId);
+        Map<Integer, String> theirs = friends.get(friendId);
+        if (theirs != null) theirs.remove(userId);
+
+        sendFriendRemoved(client, name);
+        ClientHandler other = SessionRegistry.find(name);
+        if (other != null && other.getUserId() == friendId) sendFriendRemoved(other, client.getUsername());
+        return null;
+    }
+
+    /** Adjacency của user, load (một query, trên thread của client) nếu chưa có; null nếu lỗi DB */
+    private static Map<Integer, String> friendsOf(int userId) {
+        Map<Integer, String> list = friends.get(userId);
+        if (list != null) return list;
+        if (!loadFriendLists(Set.of(userId))) return null;
+        return friends.get(userId);
+    }
+
+    /** false nếu lỗi DB (không lưu gì, lần cần tới sau sẽ load lại) */
+    private static boolean loadFriendLists(Set<Integer> userIds) {
+        Map<Integer, List<Friend>> loaded = repo.loadFriends(userIds);
+        if (loaded == null) return false;
+        friendListLoads.increment();
+        friendListsLoaded.add(loaded.size());
+        for (Map.Entry<Integer, List<Friend>> e : loaded.entrySet()) {
+            Map<Integer, String> list = new ConcurrentHashMap<>();
+            for (Friend f : e.getValue()) list.put(f.userId(), f.username());
+            friends.putIfAbsent(e.getKey(), list);
+        }
+        return true;
+    }
+
+    /**
+     * Đưa user chưa có adjacency cho thread loader (mỗi user chỉ một lần chờ). Load xong thì
+     * đánh dấu lại để lần flush sau phát thay đổi / dọn adjacency nếu user đã offline.
+     */
+    private static void requestLoad(Map<Integer, String> users) {
+        if (System.currentTimeMillis() < loadRetryAt) return;
+        Map<Integer, String> batch = new HashMap<>();
+        for (Map.Entry<Integer, String> e : users.entrySet()) {
+            if (loading.putIfAbsent(e.getKey(), e.getValue()) == null) batch.put(e.getKey(), e.getValue());
+        }
+        if (batch.isEmpty()) return;
+        loader.execute(() -> {
+            try {
+                if (!loadFriendLists(batch.keySet())) loadRetryAt = System.currentTimeMillis() + LOAD_RETRY_MS;
+            } finally {
+                loading.keySet().removeAll(batch.keySet());
+                for (Map.Entry<Integer, String> e : batch.entrySet()) dirty.putIfAbsent(e.getKey(), e.getValue());
+            }
+        });
+    }
+
+    // -------------------------------
+    // 🔹 FLUSH (thread "presence")
+    // -------------------------------
+
+    private static void flush() {
+        if (dirty.isEmpty() && welcome.isEmpty()) return;
+
+        Map<Integer, ClientHandler> welcomed = new HashMap<>();
+        for (ClientHandler client : welcome) {
+            welcome.remove(client);
+            if (!client.isClosed() && client.getUserId() > 0) welcomed.put(client.getUserId(), client);
+        }
+        Map<Integer, String> batch = new HashMap<>();
+        for (Map.Entry<Integer, String> e : dirty.entrySet()) {
+            if (dirty.remove(e.getKey(), e.getValue())) batch.put(e.getKey(), e.getValue());
+        }
+
+        // Trạng thái mới, chỉ giữ user thật sự đổi
+        Map<Integer, Presence> states = new HashMap<>();
+        Map<Integer, Presence> changes = new HashMap<>();
+        for (Map.Entry<Integer, String> e : batch.entrySet()) {
+            Presence now = current(e.getKey(), e.getValue());
+            states.put(e.getKey(), now);
+            if (!now.equals(published.getOrDefault(e.getKey(), Presence.OFFLINE))) changes.put(e.getKey(), now);
+        }
+
+        // User vừa login / vừa đổi mà chưa có adjacency: giữ lại, load cả batch trên thread loader
+        Map<Integer, String> missing = new HashMap<>();
+        for (Iterator<Map.Entry<Integer, Presence>> it = changes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Presence> e = it.next();
+            if (e.getValue().status() == Status.OFFLINE || friends.containsKey(e.getKey())) continue;
+            String username = batch.get(e.getKey());
+            missing.put(e.getKey(), username);
+            dirty.putIfAbsent(e.getKey(), username);
+            it.remove();
+        }
+        for (Iterator<ClientHandler> it = welcomed.values().iterator(); it.hasNext(); ) {
+            ClientHandler client = it.next();
+            String username = client.getUsername();
+            if (username == null || friends.containsKey(client.getUserId())) continue;
+            missing.put(client.getUserId(), username);
+            welcome.add(client);
+            it.remove();
+        }
+        if (!missing.isEmpty()) requestLoad(missing);
+
+        for (Map.Entry<Integer, Presence> e : changes.entrySet()) {
+            if (e.getValue().status() == Status.OFFLINE) published.remove(e.getKey());
+            else published.put(e.getKey(), e.getValue());
+        }
+        changesPublished.add(changes.size());
+
+        // Gom delta theo người nhận; session vừa login nhận cả danh sách nên không cần delta
+        Map<ClientHandler, List<Map<String, Object>>> outbox = new HashMap<>();
+        for (Map.Entry<Integer, Presence> e : changes.entrySet()) {
+            int userId = e.getKey();
+            Map<Integer, String> list = friends.get(userId);
+            if (list == null) continue;
+            Map<String, Object> entry = toEntry(batch.get(userId), e.getValue());
+            for (Map.Entry<Integer, String> f : list.entrySet()) {
+                if (welcomed.containsKey(f.getKey())) continue;
+                ClientHandler recipient = SessionRegistry.find(f.getValue());
+                if (recipient == null || recipient.getUserId() != f.getKey()) continue;
+                if (welcome.contains(recipient)) continue; // chờ FRIEND_LIST_DATA sau khi load xong
+                outbox.computeIfAbsent(recipient, k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        for (Map.Entry<Integer, ClientHandler> e : welcomed.entrySet()) {
+            Packet p = new Packet(PacketType.FRIEND_LIST_DATA);
+            p.data.put("friends", getFriendList(e.getKey()));
+            deliver(e.getValue(), p);
+        }
+
+        for (Map.Entry<ClientHandler, List<Map<String, Object>>> e : outbox.entrySet()) {
+            Packet p = new Packet(PacketType.FRIEND_PRESENCE);
+            p.data.put("friends", e.getValue());
+            deliver(e.getKey(), p);
+            entriesSent.add(e.getValue().size());
+        }
+
+        // User đã offline: bỏ adjacency (đã dùng để fan-out ở trên), trừ khi vừa login lại
+        for (Map.Entry<Integer, Presence> e : states.entrySet()) {
+            if (e.getValue().status() == Status.OFFLINE && !dirty.containsKey(e.getKey())) {
+                friends.remove(e.getKey());
+            }
+        }
+    }
+
+    private static void deliver(ClientHandler client, Packet p) {
+        if (client.isClosed()) return;
+        try {
+            client.sendEncoded(p.type, p.toJson());
+            framesSent.increment();
+        } catch (Exception e) {
+            log.debug(() -> "Could not deliver " + PacketType.nameOf(p.type) + " to " + client.getUsername() + ": " + e);
+        }
+    }
+
+    /** Trạng thái hiện tại đọc từ session đang online của user (O(1) qua SessionRegistry) */
+    private static Presence current(int userId, String username) {
+        ClientHandler client = SessionRegistry.find(username);
+        if (client == null || client.getUserId() != userId) return Presence.OFFLINE;
+        Room room = client.getCurrentRoom();
+        if (room == null) return new Presence(Status.ONLINE, 0);
+        return new Presence(room.isInGame() ? Status.IN_GAME : Status.IN_ROOM, room.getId());
+    }
+
+    private static Map<String, Object> toEntry(String username, Presence presence) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("username", username);
+        entry.put("status", presence.status().name());
+        if (presence.roomId() > 0) entry.put("roomId", presence.roomId());
+        return entry;
+    }
+
+    private static void sendFriendAdded(ClientHandler client, int friendId, String friendName) {
+        Packet p = new Packet(PacketType.FRIEND_ADDED);
+        p.data.put("friend", toEntry(friendName, current(friendId, friendName)));
+        deliver(client, p);
+    }
+
+    private static void sendFriendRemoved(ClientHandler client, String friendName) {
+        Packet p = new Packet(PacketType.FRIEND_REMOVED);
+        p.data.put("username", friendName);
+        deliver(client, p);
+    }
+
+    // -------------------------------
+    // 🔹 STATS
+    // -------------------------------
+
+    public static int getLoadedUsers() { return friends.size(); }
+    public static long getChangesMarked() { return changesMarked.sum(); }
+    public static long getChangesCoalesced() { return changesCoalesced.sum(); }
+    public static long getChangesPublished() { return changesPublished.sum(); }
+    public static long getFramesSent() { return framesSent.sum(); }
+    public static long getEntriesSent() { return entriesSent.sum(); }
+    public static long getFriendListLoads() { return friendListLoads.sum(); }
+    public static long getFriendListsLoaded() { return friendListsLoaded.sum(); }
+}
@@ -0,0 +1,223 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MatchmakingService
+ * Quick play: người chơi xếp hàng với map + số người mong muốn thay vì tự chọn phòng
+ * (tránh cả lobby cùng JOIN_ROOM vào một phòng rồi nhận "Room is full!").
+ *
+ * Thread "matchmaker" chạy mỗi MATCH_INTERVAL_MS, xử lý cả lô người đang chờ:
+ *  - Gom theo (map, maxPlayers)
+ *  - Lấp phòng quick play / phòng không mật khẩu đang còn chỗ và chưa vào trận (phòng gần đầy trước)
+ *  - Người còn lại được chia vào phòng mới, người đầu tiên làm host
+ *
+ * Người chơi nhận ROOM_JOINED như khi tự JOIN_ROOM.
+ */
+public class MatchmakingService {
+
+    private static final Log log = Log.get(MatchmakingService.class);
+
+    private static final long MATCH_INTERVAL_MS = 100;
+    public static final String DEFAULT_MAP = "map1";
+    public static final int DEFAULT_MAX_PLAYERS = 4;
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 8;
+
+    private static final class Ticket {
+        final ClientHandler client;
+        final String map;
+        final int maxPlayers;
+        final long enqueuedAt = System.nanoTime();
+        /** Matcher hoặc cancel() CAS trước thì thắng */
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Ticket(ClientHandler client, String map, int maxPlayers) {
+            this.client = client;
+            this.map = map;
+            this.maxPlayers = maxPlayers;
+        }
+    }
+
+    private static final Map<ClientHandler, Ticket> tickets = new ConcurrentHashMap<>();
+    private static final Queue<Ticket> incoming = new ConcurrentLinkedQueue<>();
+    /** Người đang chờ theo thứ tự xếp hàng (chỉ thread matcher truy cập) */
+    private static final List<Ticket> waiting = new ArrayList<>();
+
+    private static final AtomicInteger quickPlayRooms = new AtomicInteger();
+    private static final LongAdder enqueued = new LongAdder();
+    private static final LongAdder cancelled = new LongAdder();
+    private static final LongAdder matched = new LongAdder();
+    private static final LongAdder roomsFilled = new LongAdder();
+    private static final LongAdder roomsCreated = new LongAdder();
+    private static final LatencyHistogram waitTime = new LatencyHistogram();
+
+    private static final ScheduledExecutorService matcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "matchmaker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        matcher.scheduleWithFixedDelay(MatchmakingService::runMatcher,
+                MATCH_INTERVAL_MS, MATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // -------------------------------
+    // 🔹 QUEUE
+    // -------------------------------
+
+    /** false nếu client đã ở trong hàng chờ */
+    public static boolean enqueue(ClientHandler client, String map, int maxPlayers) {
+        Ticket ticket = new Ticket(client,
+                map != null && !map.isEmpty() ? map : DEFAULT_MAP,
+                Math.max(MIN_PLAYERS, Math.min(MAX_PLAYERS, maxPlayers)));
+        if (tickets.putIfAbsent(client, ticket) != null) return false;
+
+        incoming.add(ticket);
+        enqueued.increment();
+        return true;
+    }
+
+    /**
+     * Rời hàng chờ. false nếu matcher đã nhận người này (đang được xếp phòng),
+     * true nếu đã hủy hoặc không có trong hàng.
+     */
+    public static boolean cancel(ClientHandler client) {
+        Ticket ticket = tickets.get(client);
+        if (ticket == null) return true;
+        if (!ticket.claimed.compareAndSet(false, true)) return false;
+
+        tickets.remove(client, ticket);
+        cancelled.increment();
+        return true;
+    }
+
+    public static boolean isQueued(ClientHandler client) {
+        return tickets.containsKey(client);
+    }
+
+    public static int getQueueSize() { return tickets.size(); }
+    public static long getEnqueuedCount() { return enqueued.sum(); }
+    public static long getCancelledCount() { return cancelled.sum(); }
+    public static long getMatchedCount() { return matched.sum(); }
+    public static long getRoomsFilled() { return roomsFilled.sum(); }
+    public static long getRoomsCreated() { return roomsCreated.sum(); }
+    public static LatencyHistogram.Snapshot getWaitTime() { return waitTime.snapshot(); }
+
+    // -------------------------------
+    // 🔹 MATCHER
+    // -------------------------------
+
+    private static void runMatcher() {
+        try {
+            matchBatch();
+        } catch (Exception e) {
+            log.error("Matchmaking batch failed", e);
+        }
+    }
+
+    private static void matchBatch() {
+        Ticket t;
+        while ((t = incoming.poll()) != null) {
+            waiting.add(t);
+        }
+        if (waiting.isEmpty()) return;
+
+        // Nhận cả lô; ticket đã bị cancel thì bỏ
+        Map<String, List<Ticket>> groups = new LinkedHashMap<>();
+        for (Iterator<Ticket> it = waiting.iterator(); it.hasNext(); ) {
+            Ticket ticket = it.next();
+            it.remove();
+            if (!ticket.claimed.compareAndSet(false, true)) continue;
+            groups.computeIfAbsent(ticket.map + "/" + ticket.maxPlayers, k -> new ArrayList<>()).add(ticket);
+        }
+
+        for (List<Ticket> group : groups.values()) {
+            int next = fillExistingRooms(group);
+            next = createRooms(group, next);
+            // Không xếp được (phòng mới bị từ chối...) → chờ lô sau, giữ thứ tự
+            for (int i = next; i < group.size(); i++) {
+                Ticket ticket = group.get(i);
+                ticket.claimed.set(false);
+                waiting.add(ticket);
+            }
+        }
+    }
+
+    /** Lấp phòng đang còn chỗ cùng map / số người, phòng gần đầy trước; trả về index ticket kế tiếp */
+    private static int fillExistingRooms(List<Ticket> group) {
+        Ticket first = group.get(0);
+        RoomQuery query = new RoomQuery(null, true, true, 1, first.map, null, RoomQuery.MAX_LIMIT);
+
+        List<RoomSnapshot> candidates = new ArrayList<>();
+        for (RoomSnapshot room : RoomManager.queryRooms(query).rooms()) {
+            if (room.maxPlayers() == first.maxPlayers) candidates.add(room);
+        }
+        candidates.sort(Comparator.comparingInt(r -> r.maxPlayers() - r.playerCount()));
+
+        int next = 0;
+        for (RoomSnapshot snapshot : candidates) {
+            if (next == group.size()) break;
+            Room room = RoomManager.getRoomById(snapshot.id());
+            // Snapshot có thể đã cũ: phòng đã vào trận thì bỏ; phòng vừa đóng / vừa vào trận thì addPlayer trả false
+            if (room == null || room.isInGame()) continue;
+
+            boolean joined = false;
+            while (next < group.size() && room.addPlayer(group.get(next).client)) {
+                deliver(group.get(next), room);
+                next++;
+                joined = true;
+            }
+            if (joined) roomsFilled.increment();
+        }
+        return next;
+    }
+
+    private static int createRooms(List<Ticket> group, int next) {
+        while (next < group.size()) {
+            Ticket host = group.get(next);
+            Room room = RoomManager.createRoom("Quick Play #" + quickPlayRooms.incrementAndGet(),
+                    host.client, host.maxPlayers, null);
+            room.setSelectedMap(host.map);
+            roomsCreated.increment();
+            deliver(host, room);
+            next++;
+
+            while (next < group.size() && room.addPlayer(group.get(next).client)) {
+                deliver(group.get(next), room);
+                next++;
+            }
+        }
+        return next;
+    }
+
+    private static void deliver(Ticket ticket, Room room) {
+        tickets.remove(ticket.client, ticket);
+        matched.increment();
+        waitTime.recordNanos(System.nanoTime() - ticket.enqueuedAt);
+        try {
+            ticket.client.onQuickPlayMatched(room);
+        } catch (Exception e) {
+            log.warn("Could not deliver quick play match to " + ticket.client.getUsername() + ": " + e);
+        }
+    }
+}
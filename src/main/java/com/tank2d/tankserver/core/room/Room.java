@@ -3,16 +3,28 @@ package com.tank2d.tankserver.core.room;
 import com.tank2d.tankserver.core.ClientHandler;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Room
+ * players là CopyOnWriteArrayList: broadcast / snapshot duyệt được từ thread khác
+ * trong khi người chơi vào / ra. Mọi thay đổi được báo cho RoomEventBus.
+ *
+ * Vào / ra / đóng phòng cùng synchronized(room): người cuối rời đi thì phòng bị đóng trong
+ * cùng lock, nên addPlayer (JOIN_ROOM, matcher) không thể thêm người vào phòng sắp bị xóa.
+ */
 public class Room {
     private int id;
     private String name;
-    private ClientHandler host;
-    private List<ClientHandler> players = new ArrayList<>();
+    private volatile ClientHandler host; // host rời phòng → người vào sớm nhất còn lại
+    private final List<ClientHandler> players = new CopyOnWriteArrayList<>();
     private int maxPlayers;
     private String password;
-    private String selectedMap = "map1"; // Default map
-    private int botCount = 0; // Number of AI bots
+    private volatile String selectedMap = "map1"; // Default map
+    private volatile int botCount = 0; // Number of AI bots
+    private volatile boolean inGame; // Host đã START_GAME, chưa quay lại sảnh chờ (presence IN_GAME)
+    private boolean closed; // guarded by this: đã gỡ khỏi RoomManager, không nhận thêm người
+    private final RoomChat chat = new RoomChat(this, RoomChatService.HISTORY_SIZE);
 
     public Room(int id, String name, ClientHandler host, int maxPlayers, String password) {
         this.id = id;
@@ -33,27 +45,92 @@ public class Room {
     public boolean isFull() { return players.size() >= maxPlayers; }
     
     public String getSelectedMap() { return selectedMap; }
-    public void setSelectedMap(String selectedMap) { this.selectedMap = selectedMap; }
+    public void setSelectedMap(String selectedMap) {
+        this.selectedMap = selectedMap;
+        RoomManager.roomUpdated(this);
+        RoomEventBus.roomChanged(this);
+    }
     
     public int getBotCount() { return botCount; }
-    public void setBotCount(int botCount) { this.botCount = botCount; }
+    public void setBotCount(int botCount) {
+        this.botCount = botCount;
+        RoomEventBus.roomChanged(this);
+    }
     
+    RoomChat getChat() { return chat; }
+
+    public boolean isInGame() { return inGame; }
+
+    /** Host START_GAME; từ đây addPlayer từ chối cho tới endMatch */
+    public synchronized void startMatch() {
+        inGame = true;
+        RoomManager.roomUpdated(this);
+        RoomEventBus.roomChanged(this);
+    }
+
+    /**
+     * Trận chạy P2P nên server chỉ biết trận kết thúc khi host gửi MATCH_END;
+     * client không gửi thì phòng ở in-game tới khi mọi người rời đi (phòng đóng).
+     * @return true nếu phòng vừa thôi in-game
+     */
+    public synchronized boolean endMatch() {
+        if (!inGame) return false;
+        inGame = false;
+        RoomManager.roomUpdated(this);
+        RoomEventBus.roomChanged(this);
+        return true;
+    }
+
     public boolean checkPassword(String inputPassword) {
         if (!hasPassword()) return true;
         return password.equals(inputPassword);
     }
     
-    public boolean addPlayer(ClientHandler player) {
-        if (isFull()) return false;
+    /** false nếu phòng đã đóng, đầy, đang trong trận hoặc người chơi đã ở trong phòng */
+    public synchronized boolean addPlayer(ClientHandler player) {
+        if (closed || inGame || isFull()) return false;
         if (!players.contains(player)) {
             players.add(player);
+            RoomManager.roomUpdated(this);
+            RoomEventBus.roomChanged(this);
             return true;
         }
         return false;
     }
     
-    public boolean removePlayer(ClientHandler player) {
-        return players.remove(player);
+    public synchronized boolean removePlayer(ClientHandler player) {
+        boolean removed = players.remove(player);
+        if (removed) {
+            if (player == host && !players.isEmpty()) host = players.get(0);
+            RoomManager.roomUpdated(this);
+            RoomEventBus.roomChanged(this);
+        }
+        return removed;
+    }
+
+    /**
+     * Rời phòng; phòng trống thì đóng luôn trong cùng lock.
+     * @return true nếu phòng vừa bị đóng, caller gỡ phòng khỏi RoomManager
+     */
+    public synchronized boolean removePlayerAndCloseIfEmpty(ClientHandler player) {
+        removePlayer(player);
+        return closeIfEmpty();
+    }
+
+    /** Đóng phòng nếu không còn ai; true nếu vừa đóng */
+    synchronized boolean closeIfEmpty() {
+        if (closed || !players.isEmpty()) return false;
+        closed = true;
+        return true;
+    }
+
+    /** Đóng phòng (RoomManager.removeRoom); addPlayer sau đó luôn trả false */
+    synchronized void close() {
+        closed = true;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
     }
     
     public List<String> getPlayerNames() {
@@ -0,0 +1,100 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chat của một phòng: ring buffer HISTORY_SIZE dòng gần nhất, dòng được đánh số seq tăng dần.
+ *
+ * Dòng mới chỉ được ghi vào ring; RoomChatService flush định kỳ gửi mọi dòng chưa gửi
+ * trong một frame ROOM_CHAT (encode một lần cho cả phòng). Trong lock chỉ encode và chụp
+ * danh sách người nhận; gửi (đẩy vào hàng gửi của từng client) nằm ngoài lock.
+ * History cắt theo dòng đã flush nên người vào sau không thiếu dòng nào; dòng vừa flush lúc
+ * đang vào có thể đến cả trong history lẫn batch, client bỏ dòng trùng theo seq.
+ */
+class RoomChat {
+
+    private final Room room;
+    private final List<Map<String, Object>> ring;
+    /** seq của dòng mới nhất / dòng cuối đã gửi cho thành viên */
+    private long lastSeq;
+    private long deliveredSeq;
+
+    RoomChat(Room room, int historySize) {
+        this.room = room;
+        this.ring = new ArrayList<>(Collections.nCopies(Math.max(1, historySize), null));
+    }
+
+    /** Thêm một dòng; true nếu phòng chưa có dòng chờ gửi (cần đưa vào hàng flush) */
+    synchronized boolean append(String from, String text) {
+        boolean wasIdle = lastSeq == deliveredSeq;
+        long seq = ++lastSeq;
+        ring.set((int) (seq % ring.size()), Map.of(
+                "seq", seq,
+                "from", from,
+                "text", text,
+                "ts", System.currentTimeMillis()));
+        return wasIdle;
+    }
+
+    /**
+     * Gửi các dòng chưa gửi cho mọi thành viên trong một frame.
+     * @return {số dòng gửi, số dòng bị ghi đè trước khi kịp gửi}
+     */
+    int[] flush() {
+        String json;
+        List<ClientHandler> recipients;
+        int sent;
+        int dropped;
+        synchronized (this) {
+            if (lastSeq == deliveredSeq) return new int[]{0, 0};
+            long from = Math.max(deliveredSeq + 1, lastSeq - ring.size() + 1);
+            dropped = (int) (from - deliveredSeq - 1);
+            List<Map<String, Object>> lines = lines(from, lastSeq);
+            deliveredSeq = lastSeq;
+
+            Packet p = new Packet(PacketType.ROOM_CHAT);
+            p.data.put("roomId", room.getId());
+            p.data.put("lines", lines);
+            json = p.toJson();
+            sent = lines.size();
+            recipients = List.copyOf(room.getPlayers());
+        }
+        for (ClientHandler c : recipients) {
+            c.sendEncoded(PacketType.ROOM_CHAT, json);
+        }
+        return new int[]{sent, dropped};
+    }
+
+    /**
+     * Gửi history (các dòng đã gửi còn trong ring) cho người vừa vào phòng; false nếu không có dòng nào.
+     * Dòng chờ gửi đã ghi đè các slot cũ nhất nên history bắt đầu sau chúng.
+     */
+    boolean sendHistory(ClientHandler client) {
+        String json;
+        synchronized (this) {
+            long from = Math.max(1, lastSeq - ring.size() + 1);
+            if (from > deliveredSeq) return false;
+            Packet p = new Packet(PacketType.ROOM_CHAT_HISTORY);
+            p.data.put("roomId", room.getId());
+            p.data.put("lines", lines(from, deliveredSeq));
+            json = p.toJson();
+        }
+        client.sendEncoded(PacketType.ROOM_CHAT_HISTORY, json);
+        return true;
+    }
+
+    private List<Map<String, Object>> lines(long from, long to) {
+        List<Map<String, Object>> lines = new ArrayList<>((int) (to - from + 1));
+        for (long seq = from; seq <= to; seq++) {
+            lines.add(ring.get((int) (seq % ring.size())));
+        }
+        return lines;
+    }
+}
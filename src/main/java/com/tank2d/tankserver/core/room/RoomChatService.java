@@ -0,0 +1,105 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RoomChatService
+ * ROOM_CHAT {text} → dòng vào ring buffer của phòng (RoomChat); thread "room-chat" mỗi
+ * BATCH_INTERVAL_MS gửi cho mỗi phòng có dòng mới đúng một frame ROOM_CHAT {roomId, lines}.
+ * Thread đọc của người gửi không broadcast gì, nên một phòng nhiều chat không làm chậm
+ * các connection khác; tần suất gửi của từng connection do PacketRateLimiter giới hạn.
+ *
+ * Cấu hình (system property → biến môi trường):
+ *   tankserver.chat.batchMs      chu kỳ gửi (mặc định 100)
+ *   tankserver.chat.historySize  số dòng giữ lại mỗi phòng (mặc định 50)
+ *   tankserver.chat.maxLength    độ dài tối đa một dòng (mặc định 200)
+ */
+public class RoomChatService {
+
+    private static final Log log = Log.get(RoomChatService.class);
+
+    private static final long BATCH_INTERVAL_MS = Settings.getLong("tankserver.chat.batchMs", 100);
+    static final int HISTORY_SIZE = Settings.getInt("tankserver.chat.historySize", 50);
+    public static final int MAX_LENGTH = Settings.getInt("tankserver.chat.maxLength", 200);
+
+    /** Phòng có dòng chưa gửi */
+    private static final Set<Room> pending = ConcurrentHashMap.newKeySet();
+
+    private static final LongAdder linesPosted = new LongAdder();
+    private static final LongAdder linesDelivered = new LongAdder();
+    private static final LongAdder linesDropped = new LongAdder();
+    private static final LongAdder batchesSent = new LongAdder();
+    private static final LongAdder historiesSent = new LongAdder();
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "room-chat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        flusher.scheduleWithFixedDelay(RoomChatService::flush,
+                BATCH_INTERVAL_MS, BATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** null nếu đã nhận dòng chat, ngược lại lý do bị từ chối */
+    public static String post(ClientHandler sender, Room room, String text) {
+        String from = sender.getUsername();
+        if (from == null) return "You must be logged in!";
+        String line = clean(text);
+        if (line.isEmpty()) return "Message is empty!";
+        if (room.getChat().append(from, line)) pending.add(room);
+        linesPosted.increment();
+        return null;
+    }
+
+    /** Gửi history của phòng cho người vừa vào (sau ROOM_JOINED) */
+    public static void sendHistory(Room room, ClientHandler client) {
+        if (room.getChat().sendHistory(client)) historiesSent.increment();
+    }
+
+    private static void flush() {
+        for (Room room : pending) {
+            pending.remove(room);
+            try {
+                int[] sent = room.getChat().flush();
+                if (sent[0] == 0) continue;
+                linesDelivered.add(sent[0]);
+                linesDropped.add(sent[1]);
+                batchesSent.increment();
+            } catch (Exception e) {
+                log.warn("Chat flush failed for room " + room.getId() + ": " + e);
+            }
+        }
+    }
+
+    /** Bỏ ký tự điều khiển, cắt còn MAX_LENGTH */
+    private static String clean(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(Math.min(text.length(), MAX_LENGTH));
+        for (int i = 0; i < text.length() && sb.length() < MAX_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (!Character.isISOControl(c)) sb.append(c);
+        }
+        return sb.toString().strip();
+    }
+
+    // -------------------------------
+    // 🔹 STATS
+    // -------------------------------
+
+    public static long getLinesPosted() { return linesPosted.sum(); }
+    public static long getLinesDelivered() { return linesDelivered.sum(); }
+    public static long getLinesDropped() { return linesDropped.sum(); }
+    public static long getBatchesSent() { return batchesSent.sum(); }
+    public static long getHistoriesSent() { return historiesSent.sum(); }
+}
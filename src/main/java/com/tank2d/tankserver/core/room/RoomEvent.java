@@ -0,0 +1,14 @@
+package com.tank2d.tankserver.core.room;
+
+/**
+ * Thay đổi của một phòng do RoomEventBus gửi cho subscriber.
+ * room là trạng thái sau thay đổi; với REMOVED là trạng thái cuối cùng đã biết.
+ */
+public record RoomEvent(Type type, RoomSnapshot room) {
+
+    public enum Type { CREATED, CHANGED, REMOVED }
+
+    public int roomId() {
+        return room.id();
+    }
+}
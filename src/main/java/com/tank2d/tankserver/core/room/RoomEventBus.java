@@ -0,0 +1,182 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.log.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * RoomEventBus
+ * Event bus in-process cho thay đổi phòng (tạo / xóa / đổi thành viên, map, bot):
+ *  - Publisher (RoomManager, Room) chỉ đánh dấu phòng "dirty" trong một map, không build gì
+ *  - Các thay đổi của cùng một phòng trong cửa sổ COALESCE_MS gộp thành một event
+ *  - Thread "room-events" chụp RoomSnapshot và gửi List<RoomEvent> cho từng subscriber
+ *
+ * Subscriber chạy trên thread của bus, nên phải nhanh (đưa sang hàng đợi riêng nếu
+ * cần làm việc nặng). Thao tác phòng không bao giờ chờ subscriber.
+ */
+public class RoomEventBus {
+
+    private static final Log log = Log.get(RoomEventBus.class);
+
+    /** Cửa sổ gom thay đổi trước khi gửi */
+    private static final long COALESCE_MS = 20;
+
+    private record Pending(RoomEvent.Type type, Room room) { }
+
+    private static final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+    private static final List<Consumer<List<RoomEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Trạng thái phòng theo các event đã gửi (chỉ thread dispatcher ghi) */
+    private static final Map<Integer, RoomSnapshot> current = new ConcurrentHashMap<>();
+    private static final AtomicLong version = new AtomicLong();
+
+    private static final LongAdder published = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+    private static final LongAdder delivered = new LongAdder();
+    private static final LongAdder roomsCreated = new LongAdder();
+    private static final LongAdder roomsRemoved = new LongAdder();
+
+    private static final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "room-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // -------------------------------
+    // 🔹 PUBLISH
+    // -------------------------------
+
+    public static void roomCreated(Room room) {
+        publish(RoomEvent.Type.CREATED, room);
+    }
+
+    public static void roomChanged(Room room) {
+        publish(RoomEvent.Type.CHANGED, room);
+    }
+
+    public static void roomRemoved(Room room) {
+        publish(RoomEvent.Type.REMOVED, room);
+    }
+
+    private static void publish(RoomEvent.Type type, Room room) {
+        published.increment();
+        pending.merge(room.getId(), new Pending(type, room), RoomEventBus::merge);
+        if (scheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(RoomEventBus::dispatch, COALESCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Gộp 2 thay đổi chưa gửi của cùng một phòng; null = bỏ hẳn (tạo rồi xóa trước khi gửi) */
+    private static Pending merge(Pending earlier, Pending later) {
+        coalesced.increment();
+        if (later.type == RoomEvent.Type.REMOVED) {
+            return earlier.type == RoomEvent.Type.CREATED ? null : later;
+        }
+        return earlier; // CREATED / CHANGED / REMOVED giữ nguyên, snapshot chụp lúc gửi
+    }
+
+    // -------------------------------
+    // 🔹 SUBSCRIBE
+    // -------------------------------
+
+    /**
+     * Đăng ký nhận event. Subscriber mới nhận trước một batch CREATED cho mọi phòng
+     * đang có, rồi các thay đổi sau đó (không trùng, không sót).
+     *
+     * @return gọi run() để hủy đăng ký
+     */
+    public static Runnable subscribe(Consumer<List<RoomEvent>> subscriber) {
+        dispatcher.execute(() -> {
+            if (!current.isEmpty()) {
+                List<RoomEvent> initial = new ArrayList<>(current.size());
+                for (RoomSnapshot room : current.values()) {
+                    initial.add(new RoomEvent(RoomEvent.Type.CREATED, room));
+                }
+                deliver(subscriber, Collections.unmodifiableList(initial));
+            }
+            subscribers.add(subscriber);
+        });
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /** Trạng thái mọi phòng theo các event đã gửi (đọc từ bất kỳ thread nào) */
+    public static List<RoomSnapshot> snapshot() {
+        return new ArrayList<>(current.values());
+    }
+
+    /** Tăng mỗi lần một batch thay đổi được gửi */
+    public static long getVersion() {
+        return version.get();
+    }
+
+    public static long getPublishedCount() { return published.sum(); }
+    public static long getCoalescedCount() { return coalesced.sum(); }
+    public static long getDeliveredCount() { return delivered.sum(); }
+    public static long getRoomsCreated() { return roomsCreated.sum(); }
+    public static long getRoomsRemoved() { return roomsRemoved.sum(); }
+
+    // -------------------------------
+    // 🔹 DISPATCH
+    // -------------------------------
+
+    private static void dispatch() {
+        scheduled.set(false);
+
+        List<RoomEvent> batch = new ArrayList<>();
+        for (Integer id : pending.keySet()) {
+            Pending p = pending.remove(id);
+            if (p == null) continue;
+
+            switch (p.type) {
+                case CREATED -> {
+                    RoomSnapshot room = RoomSnapshot.of(p.room);
+                    current.put(id, room);
+                    roomsCreated.increment();
+                    batch.add(new RoomEvent(RoomEvent.Type.CREATED, room));
+                }
+                case CHANGED -> {
+                    // Phòng đã bị xóa (hoặc chưa từng gửi) thì bỏ qua
+                    if (!current.containsKey(id)) continue;
+                    RoomSnapshot room = RoomSnapshot.of(p.room);
+                    if (room.equals(current.put(id, room))) continue;
+                    batch.add(new RoomEvent(RoomEvent.Type.CHANGED, room));
+                }
+                case REMOVED -> {
+                    RoomSnapshot last = current.remove(id);
+                    if (last == null) continue;
+                    roomsRemoved.increment();
+                    batch.add(new RoomEvent(RoomEvent.Type.REMOVED, last));
+                }
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        version.incrementAndGet();
+        List<RoomEvent> events = Collections.unmodifiableList(batch);
+        for (Consumer<List<RoomEvent>> subscriber : subscribers) {
+            deliver(subscriber, events);
+        }
+    }
+
+    private static void deliver(Consumer<List<RoomEvent>> subscriber, List<RoomEvent> events) {
+        try {
+            subscriber.accept(events);
+            delivered.add(events.size());
+        } catch (Exception e) {
+            log.error("Room event subscriber failed", e);
+        }
+    }
+}
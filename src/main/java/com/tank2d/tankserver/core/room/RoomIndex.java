@@ -0,0 +1,79 @@
+package com.tank2d.tankserver.core.room;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * RoomIndex
+ * Index có thứ tự cho room browser (ROOM_LIST có filter), thay cho duyệt mọi Room:
+ *  - byName: (tên lowercase, id) → lọc theo prefix tên, tìm theo tên
+ *  - withSpace / noPassword / byMap: id phòng tăng dần → phân trang theo cursor id
+ *
+ * Ghi dưới lock của index (RoomManager / Room gọi sau mỗi thay đổi), đọc không lock.
+ * RoomManager luôn kiểm tra lại filter trên Room thật, nên index trễ một nhịp
+ * chỉ làm duyệt thừa một phòng chứ không trả sai.
+ */
+class RoomIndex {
+
+    record NameKey(String name, int id) { }
+
+    static final Comparator<NameKey> NAME_ORDER =
+            Comparator.comparing(NameKey::name).thenComparingInt(NameKey::id);
+
+    final NavigableSet<NameKey> byName = new ConcurrentSkipListSet<>(NAME_ORDER);
+    final NavigableSet<Integer> withSpace = new ConcurrentSkipListSet<>();
+    final NavigableSet<Integer> noPassword = new ConcurrentSkipListSet<>();
+    final Map<String, NavigableSet<Integer>> byMap = new ConcurrentHashMap<>();
+
+    /** Map đang được index của từng phòng; không có key = phòng không còn trong index */
+    private final Map<Integer, String> indexedMap = new HashMap<>();
+
+    static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase();
+    }
+
+    synchronized void add(Room room) {
+        int id = room.getId();
+        byName.add(new NameKey(normalize(room.getName()), id));
+        if (!room.hasPassword()) noPassword.add(id);
+        indexedMap.put(id, null);
+        update(room);
+    }
+
+    /** Cập nhật phần thay đổi được của phòng (số chỗ trống, map); bỏ qua nếu phòng đã bị xóa */
+    synchronized void update(Room room) {
+        int id = room.getId();
+        if (!indexedMap.containsKey(id)) return;
+
+        if (room.isFull()) withSpace.remove(id);
+        else withSpace.add(id);
+
+        String map = room.getSelectedMap();
+        String old = indexedMap.put(id, map);
+        if (map != null && map.equals(old)) return;
+        if (old != null) removeFromMap(old, id);
+        if (map != null) byMap.computeIfAbsent(map, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    synchronized void remove(Room room) {
+        int id = room.getId();
+        if (!indexedMap.containsKey(id)) return;
+        String map = indexedMap.remove(id);
+
+        byName.remove(new NameKey(normalize(room.getName()), id));
+        withSpace.remove(id);
+        noPassword.remove(id);
+        if (map != null) removeFromMap(map, id);
+    }
+
+    private void removeFromMap(String map, int id) {
+        NavigableSet<Integer> ids = byMap.get(map);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) byMap.remove(map);
+    }
+}
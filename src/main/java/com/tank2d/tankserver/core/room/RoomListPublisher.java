@@ -0,0 +1,176 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RoomListPublisher
+ * Đẩy danh sách phòng cho client ở lobby thay vì để client poll ROOM_LIST:
+ *  - ROOM_LIST_SUBSCRIBE: gửi ngay ROOM_LIST_DATA (snapshot đã encode sẵn, dùng chung)
+ *  - Sau đó chỉ gửi thay đổi: ROOM_ADDED {rooms}, ROOM_CHANGED {rooms}, ROOM_REMOVED {roomIds}
+ *  - Thay đổi từ RoomEventBus được gom mỗi FLUSH_INTERVAL_MS, mỗi packet encode một lần
+ *    rồi gửi cùng một chuỗi cho mọi subscriber
+ *
+ * Snapshot và delta cùng tính từ trạng thái "đã flush" nên subscriber mới không bị
+ * thiếu hay lặp thay đổi. Gửi chỉ là xếp vào hàng đợi của từng client, nên một client
+ * đọc chậm không làm trễ push cho các client khác.
+ */
+public class RoomListPublisher {
+
+    private static final Log log = Log.get(RoomListPublisher.class);
+
+    private static final long FLUSH_INTERVAL_MS = 100;
+
+    private static final Set<ClientHandler> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** Thay đổi chưa flush, theo room id (chỉ truy cập khi giữ lock) */
+    private static final Map<Integer, RoomEvent> pending = new LinkedHashMap<>();
+    /** Trạng thái đã gửi cho subscriber (chỉ truy cập khi giữ lock) */
+    private static final Map<Integer, RoomSnapshot> published = new LinkedHashMap<>();
+    private static String snapshotJson;
+    private static boolean flushScheduled;
+
+    private static final LongAdder deltaPackets = new LongAdder();
+    private static final LongAdder snapshotsSent = new LongAdder();
+
+    private static final Object lock = new Object();
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "room-list-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        RoomEventBus.subscribe(RoomListPublisher::onRoomEvents);
+    }
+
+    // -------------------------------
+    // 🔹 SUBSCRIBE
+    // -------------------------------
+
+    public static void subscribe(ClientHandler client) {
+        synchronized (lock) {
+            // Xếp snapshot vào hàng đợi gửi trong lock: delta flush sau đó chắc chắn đến sau snapshot.
+            // sendEncoded không chặn (client chậm bị đóng khi hàng đợi đầy) nên lock không bị giữ lâu
+            client.sendEncoded(PacketType.ROOM_LIST_DATA, snapshotJson());
+            snapshotsSent.increment();
+            subscribers.add(client);
+        }
+        log.debug(() -> client.getUsername() + " subscribed to room list");
+    }
+
+    public static void unsubscribe(ClientHandler client) {
+        subscribers.remove(client);
+    }
+
+    public static int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public static long getDeltaPacketCount() {
+        return deltaPackets.sum();
+    }
+
+    public static long getSnapshotsSent() {
+        return snapshotsSent.sum();
+    }
+
+    private static String snapshotJson() {
+        if (snapshotJson == null) {
+            List<Map<String, Object>> rooms = new ArrayList<>(published.size());
+            for (RoomSnapshot room : published.values()) {
+                rooms.add(room.toMap());
+            }
+            Packet p = new Packet(PacketType.ROOM_LIST_DATA);
+            p.data.put("rooms", rooms);
+            snapshotJson = p.toJson();
+        }
+        return snapshotJson;
+    }
+
+    // -------------------------------
+    // 🔹 EVENTS → DELTAS
+    // -------------------------------
+
+    /** Chạy trên thread của RoomEventBus: chỉ gộp vào pending */
+    private static void onRoomEvents(List<RoomEvent> events) {
+        synchronized (lock) {
+            for (RoomEvent e : events) {
+                pending.merge(e.roomId(), e, RoomListPublisher::merge);
+            }
+            if (!flushScheduled && !pending.isEmpty()) {
+                flushScheduled = true;
+                flusher.schedule(RoomListPublisher::flush, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Gộp 2 event chưa flush của cùng một phòng; null = bỏ hẳn */
+    private static RoomEvent merge(RoomEvent earlier, RoomEvent later) {
+        return switch (later.type()) {
+            case REMOVED -> earlier.type() == RoomEvent.Type.CREATED ? null : later;
+            case CHANGED -> new RoomEvent(earlier.type(), later.room());
+            case CREATED -> later;
+        };
+    }
+
+    private static void flush() {
+        List<Map<String, Object>> added = new ArrayList<>();
+        List<Map<String, Object>> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        List<ClientHandler> targets;
+
+        synchronized (lock) {
+            flushScheduled = false;
+            for (RoomEvent e : pending.values()) {
+                switch (e.type()) {
+                    case CREATED -> {
+                        published.put(e.roomId(), e.room());
+                        added.add(e.room().toMap());
+                    }
+                    case CHANGED -> {
+                        published.put(e.roomId(), e.room());
+                        changed.add(e.room().toMap());
+                    }
+                    case REMOVED -> {
+                        published.remove(e.roomId());
+                        removed.add(e.roomId());
+                    }
+                }
+            }
+            pending.clear();
+            snapshotJson = null;
+            targets = new ArrayList<>(subscribers);
+        }
+
+        if (targets.isEmpty()) return;
+        send(targets, PacketType.ROOM_ADDED, "rooms", added);
+        send(targets, PacketType.ROOM_CHANGED, "rooms", changed);
+        send(targets, PacketType.ROOM_REMOVED, "roomIds", removed);
+    }
+
+    private static void send(List<ClientHandler> targets, int type, String key, List<?> values) {
+        if (values.isEmpty()) return;
+        Packet p = new Packet(type);
+        p.data.put(key, values);
+        String json = p.toJson();
+        for (ClientHandler client : targets) {
+            client.sendEncoded(type, json);
+        }
+        deltaPackets.add(targets.size());
+    }
+}
@@ -1,23 +1,44 @@
 package com.tank2d.tankserver.core.room;
 
 import com.tank2d.tankserver.core.ClientHandler;
-import com.tank2d.tankserver.ui.MasterServerDashboard;
+import com.tank2d.tankserver.core.session.SessionRegistry;
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * RoomManager
  * Quản lý toàn bộ phòng (Room) trên server:
  *  - Tạo, xóa, lấy danh sách
- *  - Broadcast cập nhật danh sách phòng cho client và Dashboard
+ *  - Báo phòng tạo / xóa qua RoomEventBus (Dashboard, metrics... subscribe ở đó)
+ *  - Giữ ROOM_LIST_DATA đã encode sẵn theo version, build lại tối đa một lần mỗi thay đổi
+ *  - Room browser: ROOM_LIST có filter / cursor trả lời qua RoomIndex, không duyệt mọi phòng
  */
 public class RoomManager {
 
-    private static final Map<Integer, Room> rooms = new HashMap<>();
+    // Map concurrent theo thứ tự id: thao tác ghép vẫn synchronized, liveRooms() / queryRooms() đọc không cần lock
+    private static final ConcurrentNavigableMap<Integer, Room> rooms = new ConcurrentSkipListMap<>();
     private static int nextId = 1;
 
-    /** Liên kết UI dashboard để cập nhật danh sách phòng */
-    public static MasterServerDashboard dashboard;
+    private static final RoomIndex index = new RoomIndex();
+    private static final LongAdder roomQueries = new LongAdder();
+    private static final LongAdder roomQueryScanned = new LongAdder();
+
+    /** Một trang kết quả của room browser; nextCursor null = hết */
+    public record RoomPage(List<RoomSnapshot> rooms, String nextCursor) { }
+
+    /** Tăng mỗi khi danh sách phòng gửi cho client thay đổi (tạo, xóa, vào, ra) */
+    private static final AtomicLong roomListVersion = new AtomicLong();
+    private record EncodedRoomList(long version, String json) { }
+    private static volatile EncodedRoomList roomListCache;
+    private static final Object roomListLock = new Object();
+    private static final LongAdder roomListHits = new LongAdder();
+    private static final LongAdder roomListRebuilds = new LongAdder();
 
     // -------------------------------
     // 🔹 CREATE / REMOVE / GET
@@ -25,25 +46,31 @@ public class RoomManager {
     public static synchronized Room createRoom(String name, ClientHandler host, int maxPlayers, String password) {
         Room room = new Room(nextId++, name, host, maxPlayers, password);
         rooms.put(room.getId(), room);
+        index.add(room);
+        roomListChanged();
 
-        broadcastRoomList(); // cập nhật UI và client
+        RoomEventBus.roomCreated(room);
         return room;
     }
 
     public static synchronized void removeRoom(int id) {
-        rooms.remove(id);
-        broadcastRoomList();
+        Room removed = rooms.remove(id);
+        if (removed != null) {
+            removed.close();
+            index.remove(removed);
+            roomListChanged();
+            RoomEventBus.roomRemoved(removed);
+        }
     }
 
     public static synchronized Room getRoomById(int id) {
         return rooms.get(id);
     }
 
-    public static synchronized Room getRoomByName(String name) {
-        for (Room r : rooms.values()) {
-            if (r.getName().equalsIgnoreCase(name)) return r;
-        }
-        return null;
+    public static Room getRoomByName(String name) {
+        String key = RoomIndex.normalize(name);
+        RoomIndex.NameKey first = index.byName.ceiling(new RoomIndex.NameKey(key, Integer.MIN_VALUE));
+        return first != null && first.name().equals(key) ? rooms.get(first.id()) : null;
     }
 
     public static synchronized Collection<Room> getRooms() {
@@ -51,90 +78,196 @@ public class RoomManager {
     }
 
     public static synchronized void removeEmptyRooms() {
-        rooms.entrySet().removeIf(e -> e.getValue().getPlayers().isEmpty());
-        broadcastRoomList();
+        rooms.values().removeIf(r -> {
+            if (!r.closeIfEmpty()) return false;
+            index.remove(r);
+            roomListChanged();
+            RoomEventBus.roomRemoved(r);
+            return true;
+        });
     }
 
     public static int getRoomCount() {
         return rooms.size();
     }
 
+    /**
+     * View chỉ đọc, không lấy lock RoomManager (weakly consistent).
+     * Dùng cho metrics / monitoring, không dùng cho logic game.
+     */
+    public static Collection<Room> liveRooms() {
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
     // -------------------------------
-    // 🔹 DASHBOARD + CLIENT UPDATES
+    // 🔹 ROOM LIST CACHE
     // -------------------------------
 
-    /**
-     * Tạo danh sách phòng gửi về client hoặc dashboard
-     */
-    private static List<Map<String, Object>> generateRoomList() {
-        List<Map<String, Object>> list = new ArrayList<>();
-
-        for (Room r : rooms.values()) {
-            Map<String, Object> info = new HashMap<>();
-            info.put("id", r.getId());
-            info.put("name", r.getName());
-            info.put("host", (r.getHost() != null && r.getHost() != null)
-                    ? r.getHost()
-                    : "Unknown");
-            info.put("players", r.getPlayers().size());
-            info.put("maxPlayers", r.getMaxPlayers());
-            info.put("hasPassword", r.hasPassword());
-            info.put("status", r.isFull() ? "Full" : "Open");
-            list.add(info);
-        }
+    /** Room gọi sau khi người chơi vào / ra hoặc đổi map */
+    static void roomUpdated(Room room) {
+        index.update(room);
+        roomListChanged();
+    }
 
-        return list;
+    private static void roomListChanged() {
+        roomListVersion.incrementAndGet();
     }
 
     /**
-     * Gửi danh sách phòng cho Dashboard + Client
+     * ROOM_LIST_DATA đã encode, dùng chung cho mọi client hỏi ROOM_LIST.
+     * Version đọc trước khi build: phòng đổi trong lúc build thì lần gọi sau build lại.
      */
-    public static synchronized void broadcastRoomList() {
-        List<Map<String, Object>> roomData = generateRoomList();
-
-        // 🔹 Cập nhật UI Dashboard
-        if (dashboard != null) {
-            dashboard.onServerEvent(
-                    new MasterServerDashboard.ServerEvent(
-                            MasterServerDashboard.ServerEvent.Type.ROOM_UPDATED,
-                            "SERVER",
-                            "Room list updated",
-                            roomData
-                    )
-            );
+    public static String getEncodedRoomList() {
+        EncodedRoomList cached = roomListCache;
+        if (cached != null && cached.version == roomListVersion.get()) {
+            roomListHits.increment();
+            return cached.json;
+        }
+        synchronized (roomListLock) {
+            long version = roomListVersion.get();
+            cached = roomListCache;
+            if (cached != null && cached.version == version) {
+                roomListHits.increment();
+                return cached.json;
+            }
+
+            List<Map<String, Object>> list = new ArrayList<>(rooms.size());
+            for (Room r : rooms.values()) {
+                list.add(RoomSnapshot.of(r).toMap());
+            }
+            Packet p = new Packet(PacketType.ROOM_LIST_DATA);
+            p.data.put("rooms", list);
+            cached = new EncodedRoomList(version, p.toJson());
+            roomListCache = cached;
+            roomListRebuilds.increment();
+            return cached.json;
         }
+    }
+
+    public static long getRoomListVersion() {
+        return roomListVersion.get();
+    }
 
-        // 🔹 Có thể thêm phần gửi danh sách phòng cho tất cả client sau này (ROOM_LIST_DATA)
-        // Ví dụ:
-        // ConnectedClients.broadcast(packet);
+    public static long getRoomListCacheHits() {
+        return roomListHits.sum();
+    }
+
+    public static long getRoomListRebuilds() {
+        return roomListRebuilds.sum();
     }
 
     // -------------------------------
-    // 🔹 DEBUG / LOGGING
+    // 🔹 ROOM BROWSER
     // -------------------------------
 
-    public static void printRooms() {
-        System.out.println("===== ROOM LIST =====");
-        if (rooms.isEmpty()) {
-            System.out.println("No active rooms.");
+    /**
+     * Một trang phòng khớp filter. Có namePrefix thì đi theo thứ tự tên, không thì theo id
+     * trên index hẹp nhất đang dùng (map → không mật khẩu → còn chỗ → tất cả).
+     * Cursor là chuỗi opaque; cursor không hợp lệ thì đọc lại từ đầu.
+     */
+    public static RoomPage queryRooms(RoomQuery q) {
+        roomQueries.increment();
+        return q.namePrefix() != null ? queryByName(q) : queryById(q);
+    }
+
+    private static RoomPage queryByName(RoomQuery q) {
+        List<RoomSnapshot> page = new ArrayList<>(q.limit());
+        RoomIndex.NameKey start = new RoomIndex.NameKey(q.namePrefix(), Integer.MIN_VALUE);
+        RoomIndex.NameKey after = parseNameCursor(q.cursor());
+        boolean inclusive = true;
+        if (after != null && RoomIndex.NAME_ORDER.compare(after, start) > 0) {
+            start = after;
+            inclusive = false;
+        }
+
+        RoomIndex.NameKey last = null;
+        int scanned = 0;
+        String next = null;
+        for (RoomIndex.NameKey key : index.byName.tailSet(start, inclusive)) {
+            if (!key.name().startsWith(q.namePrefix())) break;
+            scanned++;
+            Room r = rooms.get(key.id());
+            if (r == null || !q.matches(r)) continue;
+            if (page.size() == q.limit()) {
+                next = "n" + last.id() + ":" + last.name();
+                break;
+            }
+            page.add(RoomSnapshot.of(r));
+            last = key;
+        }
+        roomQueryScanned.add(scanned);
+        return new RoomPage(page, next);
+    }
+
+    private static RoomPage queryById(RoomQuery q) {
+        NavigableSet<Integer> candidates;
+        if (q.selectedMap() != null) {
+            candidates = index.byMap.getOrDefault(q.selectedMap(), Collections.emptyNavigableSet());
+        } else if (q.noPassword()) {
+            candidates = index.noPassword;
+        } else if (q.openOnly() || q.minFreeSlots() > 0) {
+            candidates = index.withSpace;
         } else {
-            for (Room r : rooms.values()) {
-                System.out.printf("ID: %d | Name: %s | Players: %d/%d | Locked: %s\n",
-                        r.getId(), r.getName(), r.getPlayers().size(),
-                        r.getMaxPlayers(), r.hasPassword());
+            candidates = rooms.navigableKeySet();
+        }
+
+        List<RoomSnapshot> page = new ArrayList<>(q.limit());
+        int lastId = 0;
+        int scanned = 0;
+        String next = null;
+        for (Integer id : candidates.tailSet(parseIdCursor(q.cursor()), false)) {
+            scanned++;
+            Room r = rooms.get(id);
+            if (r == null || !q.matches(r)) continue;
+            if (page.size() == q.limit()) {
+                next = "i" + lastId;
+                break;
             }
+            page.add(RoomSnapshot.of(r));
+            lastId = id;
+        }
+        roomQueryScanned.add(scanned);
+        return new RoomPage(page, next);
+    }
+
+    private static int parseIdCursor(String cursor) {
+        if (cursor == null || !cursor.startsWith("i")) return Integer.MIN_VALUE;
+        try {
+            return Integer.parseInt(cursor.substring(1));
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE;
         }
     }
-    
+
+    private static RoomIndex.NameKey parseNameCursor(String cursor) {
+        if (cursor == null || !cursor.startsWith("n")) return null;
+        int sep = cursor.indexOf(':');
+        if (sep < 0) return null;
+        try {
+            return new RoomIndex.NameKey(cursor.substring(sep + 1), Integer.parseInt(cursor.substring(1, sep)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static long getRoomQueryCount() {
+        return roomQueries.sum();
+    }
+
+    /** Tổng số entry index đã duyệt cho các query (so với số phòng để thấy hiệu quả index) */
+    public static long getRoomQueryScanned() {
+        return roomQueryScanned.sum();
+    }
+
+    // -------------------------------
+    // 🔹 LOOKUP
+    // -------------------------------
+
     /**
-     * Find which room a player is in (by username)
+     * Find which room a player is in (by username), O(1) qua SessionRegistry
      */
-    public static synchronized Room findRoomByPlayer(String username) {
-        for (Room room : rooms.values()) {
-            if (room.getPlayerNames().contains(username)) {
-                return room;
-            }
-        }
-        return null;
+    public static Room findRoomByPlayer(String username) {
+        ClientHandler client = SessionRegistry.find(username);
+        return client != null ? client.getCurrentRoom() : null;
     }
 }
@@ -0,0 +1,46 @@
+package com.tank2d.tankserver.core.room;
+
+import java.util.Map;
+
+/**
+ * Filter + phân trang của ROOM_LIST, đọc từ data của packet:
+ *   namePrefix (String), openOnly (bool: chưa đầy và chưa vào trận), noPassword (bool),
+ *   hasSpace (bool hoặc số chỗ trống tối thiểu), selectedMap (String),
+ *   cursor (String, lấy từ nextCursor của trang trước), limit (int, tối đa MAX_LIMIT)
+ */
+public record RoomQuery(String namePrefix, boolean openOnly, boolean noPassword, int minFreeSlots,
+                        String selectedMap, String cursor, int limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 100;
+
+    public static RoomQuery from(Map<String, Object> data) {
+        String prefix = string(data.get("namePrefix"));
+        Object space = data.get("hasSpace");
+        int minFree = space instanceof Number n ? Math.max(0, n.intValue())
+                : Boolean.TRUE.equals(space) ? 1 : 0;
+        int limit = data.get("limit") instanceof Number n ? n.intValue() : DEFAULT_LIMIT;
+
+        return new RoomQuery(
+                prefix != null ? RoomIndex.normalize(prefix) : null,
+                Boolean.TRUE.equals(data.get("openOnly")),
+                Boolean.TRUE.equals(data.get("noPassword")),
+                minFree,
+                string(data.get("selectedMap")),
+                string(data.get("cursor")),
+                Math.max(1, Math.min(MAX_LIMIT, limit)));
+    }
+
+    /** Kiểm tra trên Room thật (index chỉ dùng để chọn ứng viên) */
+    public boolean matches(Room room) {
+        if (namePrefix != null && !RoomIndex.normalize(room.getName()).startsWith(namePrefix)) return false;
+        if (noPassword && room.hasPassword()) return false;
+        if (openOnly && (room.isFull() || room.isInGame())) return false;
+        if (minFreeSlots > 0 && room.getMaxPlayers() - room.getPlayerCount() < minFreeSlots) return false;
+        return selectedMap == null || selectedMap.equals(room.getSelectedMap());
+    }
+
+    private static String string(Object value) {
+        return value instanceof String s && !s.isEmpty() ? s : null;
+    }
+}
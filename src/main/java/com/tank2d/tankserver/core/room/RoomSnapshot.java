@@ -0,0 +1,43 @@
+package com.tank2d.tankserver.core.room;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bản chụp bất biến của một Room, đọc được từ bất kỳ thread nào
+ * (subscriber của RoomEventBus, Dashboard, metrics...).
+ */
+public record RoomSnapshot(int id, String name, String host, List<String> players, int maxPlayers,
+                           boolean hasPassword, String selectedMap, int botCount) {
+
+    public static RoomSnapshot of(Room room) {
+        String host = room.getHost() != null ? room.getHost().getUsername() : "Unknown";
+        return new RoomSnapshot(room.getId(), room.getName(), host,
+                Collections.unmodifiableList(room.getPlayerNames()),
+                room.getMaxPlayers(), room.hasPassword(), room.getSelectedMap(), room.getBotCount());
+    }
+
+    public int playerCount() {
+        return players.size();
+    }
+
+    public boolean isFull() {
+        return players.size() >= maxPlayers;
+    }
+
+    /** Cùng format với danh sách phòng gửi cho client (ROOM_LIST_DATA) */
+    public Map<String, Object> toMap() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("id", id);
+        info.put("name", name);
+        info.put("host", host);
+        info.put("players", players.size());
+        info.put("maxPlayers", maxPlayers);
+        info.put("hasPassword", hasPassword);
+        info.put("selectedMap", selectedMap);
+        info.put("status", isFull() ? "Full" : "Open");
+        return info;
+    }
+}
@@ -0,0 +1,127 @@
+package com.tank2d.tankserver.core.session;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.utils.Settings;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SessionRegistry
+ * Danh bạ các connection đang mở, tra O(1) theo connection id và theo username (đã login),
+ * dùng cho gửi trực tiếp, kick từ Dashboard, presence... thay cho quét room / client list.
+ *
+ * Mỗi account chỉ một session. Login trùng account:
+ *  - kick (mặc định): session cũ nhận SESSION_KICKED rồi bị đóng, session mới thay chỗ
+ *  - reject: login mới bị từ chối khi session cũ còn mở
+ *
+ * Gỡ khỏi registry luôn là remove có điều kiện (key → đúng handler đó) nên cleanup chậm
+ * của session cũ không xóa nhầm session mới của cùng account.
+ *
+ * Cấu hình (system property → biến môi trường):
+ *   tankserver.session.duplicate  TANKSERVER_SESSION_DUPLICATE  kick | reject
+ */
+public class SessionRegistry {
+
+    private static final Log log = Log.get(SessionRegistry.class);
+
+    private static final boolean REJECT_DUPLICATE =
+            "reject".equalsIgnoreCase(Settings.get("tankserver.session.duplicate", "kick"));
+
+    private static final Map<Long, ClientHandler> byConnection = new ConcurrentHashMap<>();
+    private static final Map<String, ClientHandler> byUsername = new ConcurrentHashMap<>();
+
+    private static final LongAdder sessionsKicked = new LongAdder();
+    private static final LongAdder duplicatesRejected = new LongAdder();
+
+    // -------------------------------
+    // 🔹 CONNECTION
+    // -------------------------------
+
+    public static void connected(ClientHandler client) {
+        byConnection.put(client.getConnectionId(), client);
+    }
+
+    /** Gọi từ ClientHandler.cleanup(): gỡ connection và session (nếu còn là session của account) */
+    public static void disconnected(ClientHandler client) {
+        byConnection.remove(client.getConnectionId(), client);
+        String username = client.getUsername();
+        if (username != null) byUsername.remove(normalize(username), client);
+    }
+
+    // -------------------------------
+    // 🔹 SESSION
+    // -------------------------------
+
+    /**
+     * Gắn username (đã xác thực) với client. false nếu account đang online ở connection khác
+     * và policy là reject; với kick thì session cũ bị đóng và luôn trả true.
+     */
+    public static boolean login(ClientHandler client, String username) {
+        String key = normalize(username);
+        if (REJECT_DUPLICATE) {
+            ClientHandler owner = byUsername.compute(key, (k, current) ->
+                    current == null || current == client || current.isClosed() ? client : current);
+            if (owner == client) return true;
+            duplicatesRejected.increment();
+            log.debug(() -> "Duplicate login rejected: " + username);
+            return false;
+        }
+
+        ClientHandler previous = byUsername.put(key, client);
+        if (previous != null && previous != client) {
+            sessionsKicked.increment();
+            log.debug(() -> "Duplicate login, closing older session of " + username);
+            previous.kick("Logged in from another location");
+        }
+        return true;
+    }
+
+    /** Bỏ username khỏi registry (logout / login lại bằng account khác trên cùng connection) */
+    public static void logout(ClientHandler client, String username) {
+        if (username != null) byUsername.remove(normalize(username), client);
+    }
+
+    /** Session đang online của account, null nếu offline */
+    public static ClientHandler find(String username) {
+        return username == null ? null : byUsername.get(normalize(username));
+    }
+
+    public static ClientHandler get(long connectionId) {
+        return byConnection.get(connectionId);
+    }
+
+    public static boolean isOnline(String username) {
+        return find(username) != null;
+    }
+
+    /** Kick session của account; false nếu account không online */
+    public static boolean kick(String username, String reason) {
+        ClientHandler client = find(username);
+        if (client == null) return false;
+        client.kick(reason);
+        return true;
+    }
+
+    public static Collection<ClientHandler> connections() {
+        return Collections.unmodifiableCollection(byConnection.values());
+    }
+
+    // -------------------------------
+    // 🔹 STATS
+    // -------------------------------
+
+    public static int getConnectionCount() { return byConnection.size(); }
+    public static int getOnlineCount() { return byUsername.size(); }
+    public static long getSessionsKicked() { return sessionsKicked.sum(); }
+    public static long getDuplicatesRejected() { return duplicatesRejected.sum(); }
+
+    // Username so sánh không phân biệt hoa thường (giống bảng user)
+    private static String normalize(String username) {
+        return username.toLowerCase();
+    }
+}
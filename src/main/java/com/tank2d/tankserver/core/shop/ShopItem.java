@@ -1,6 +1,7 @@
 package com.tank2d.tankserver.core.shop;
 
-import java.util.HashMap;
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+
 import java.util.Map;
 
 public class ShopItem {
@@ -12,7 +13,8 @@ public class ShopItem {
     public int stock;
     
     // ✅ Dynamic attributes: {"hp": 50, "mp": 30, "spd": 5, "dmg": 10}
-    public Map<String, Double> attributes = new HashMap<>();
+    // Lưu compact theo AttributeRegistry id, serialize ra JSON giống Map<String, Double>
+    public AttributeSet attributes = new AttributeSet();
 
     public ShopItem(int id, String name, String description, int price,
                     double discount, int stock) {
@@ -28,7 +30,7 @@ public class ShopItem {
     public ShopItem(int id, String name, String description, int price,
                     double discount, int stock, Map<String, Double> attributes) {
         this(id, name, description, price, discount, stock);
-        this.attributes = attributes != null ? attributes : new HashMap<>();
+        this.attributes = attributes != null ? AttributeSet.of(attributes) : new AttributeSet();
     }
 
     public int getFinalPrice() {
@@ -37,11 +39,11 @@ public class ShopItem {
     
     // Helper methods
     public double getAttribute(String name) {
-        return attributes.getOrDefault(name, 0.0);
+        return attributes.getDouble(name, 0.0);
     }
     
     public void setAttribute(String name, double value) {
-        attributes.put(name, value);
+        attributes.set(name, value);
     }
 
 }
@@ -1,5 +1,7 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.log.Log;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -8,8 +10,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class AccountRepository {
+    private static final Log log = Log.get(AccountRepository.class);
 
     public boolean register(String username, String password) {
         String sql = "INSERT INTO user (username, password) VALUES (?, ?)";
@@ -18,13 +22,14 @@ public class AccountRepository {
             stmt.setString(1, username);
             stmt.setString(2, password);
             stmt.executeUpdate();
-            System.out.println("Registered new user: " + username);
+            log.debug(() -> "Registered new user: " + username);
             return true;
         } catch (SQLException e) {
-            if (e.getMessage().contains("Duplicate")) {
-                System.out.println("Username already exists: " + username);
+            // SQLState 23xxx = vi phạm ràng buộc (MySQL 23000 "Duplicate entry", H2 23505)
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                log.debug(() -> "Username already exists: " + username);
             } else {
-                System.out.println("Register error: " + e.getMessage());
+                log.error("Register error: " + e.getMessage());
             }
             return false;
         }
@@ -41,61 +46,87 @@ public class AccountRepository {
             
             // Update last login
             if (ok) {
-                updateLastLogin(username);
+                updateLastLogin(conn, username);
             }
             
-            System.out.println(ok ? "Login OK for " + username : "Login failed for " + username);
+            log.debug(() -> (ok ? "Login OK for " : "Login failed for ") + username);
             return ok;
         } catch (SQLException e) {
-            System.out.println("Login error: " + e.getMessage());
+            log.error("Login error: " + e.getMessage());
             return false;
         }
     }
     
-    private void updateLastLogin(String username) {
+    // Dùng lại connection của login: mượn connection thứ hai khi đang giữ một cái có thể kẹt khi pool cạn
+    private void updateLastLogin(Connection conn, String username) {
         String sql = "UPDATE user SET last_login = CURRENT_TIMESTAMP WHERE username = ?";
-        try (Connection conn = Connector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username);
             stmt.executeUpdate();
         } catch (SQLException e) {
-            System.out.println("Update last login error: " + e.getMessage());
+            log.error("Update last login error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Duyệt mọi username (seed filter lúc start), không giữ cả danh sách trong bộ nhớ.
+     * @return false nếu đọc lỗi
+     */
+    public boolean forEachUsername(Consumer<String> consumer) {
+        String sql = "SELECT username FROM user";
+        try (Connection conn = Connector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString(1));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            log.error("forEachUsername error: " + e.getMessage());
+            return false;
         }
     }
 
     public int getUserIdByUsername(String username) {
         String sql = "SELECT id FROM user WHERE username = ?";
-        System.out.println("[getUserIdByUsername] Searching for username: '" + username + "'");
-        
         try (Connection localConn = Connector.getConnection();
              PreparedStatement stmt = localConn.prepareStatement(sql)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                int userId = rs.getInt("id");
-                System.out.println("[getUserIdByUsername] FOUND userId: " + userId);
-                return userId;
+                return rs.getInt("id");
             } else {
-                System.out.println("[getUserIdByUsername] NOT FOUND in database!");
+                log.debug(() -> "getUserIdByUsername: not found: " + username);
             }
         } catch (SQLException e) {
-            System.out.println("[getUserIdByUsername] SQL Error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("getUserIdByUsername SQL error: " + e.getMessage(), e);
         }
         return -1;
     }
 
     public int getUserGold(int userId) {
+        try (Connection conn = Connector.getConnection()) {
+            return getUserGold(conn, userId);
+        } catch (SQLException e) {
+            log.error("Get gold error: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Đọc gold trên connection có sẵn (dùng trong transaction mua hàng)
+     * @param conn Connection đang trong transaction
+     */
+    public int getUserGold(Connection conn, int userId) throws SQLException {
         String sql = "SELECT gold FROM user WHERE id = ?";
-        try (Connection conn = Connector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 return rs.getInt("gold");
             }
-        } catch (SQLException e) {
-            System.out.println("Get gold error: " + e.getMessage());
         }
         return 0;
     }
@@ -141,10 +172,9 @@ public class AccountRepository {
                 users.add(user);
             }
             
-            System.out.println("Loaded " + users.size() + " users from database");
+            log.info("Loaded " + users.size() + " users from database");
         } catch (SQLException e) {
-            System.out.println("Get all users error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Get all users error: " + e.getMessage(), e);
         }
         
         return users;
@@ -178,7 +208,7 @@ public class AccountRepository {
             }
             
         } catch (SQLException e) {
-            System.out.println("Search users error: " + e.getMessage());
+            log.error("Search users error: " + e.getMessage());
         }
         
         return users;
@@ -194,11 +224,11 @@ public class AccountRepository {
             stmt.setInt(1, userId);
             int rows = stmt.executeUpdate();
             if (rows > 0) {
-                System.out.println("User " + userId + " has been banned");
+                log.info("User " + userId + " has been banned");
                 return true;
             }
         } catch (SQLException e) {
-            System.out.println("Ban user error: " + e.getMessage());
+            log.error("Ban user error: " + e.getMessage());
         }
         return false;
     }
@@ -213,11 +243,11 @@ public class AccountRepository {
             stmt.setInt(1, userId);
             int rows = stmt.executeUpdate();
             if (rows > 0) {
-                System.out.println("User " + userId + " has been unbanned");
+                log.info("User " + userId + " has been unbanned");
                 return true;
             }
         } catch (SQLException e) {
-            System.out.println("Unban user error: " + e.getMessage());
+            log.error("Unban user error: " + e.getMessage());
         }
         return false;
     }
@@ -232,11 +262,11 @@ public class AccountRepository {
             stmt.setInt(1, userId);
             int rows = stmt.executeUpdate();
             if (rows > 0) {
-                System.out.println("User " + userId + " has been deleted");
+                log.info("User " + userId + " has been deleted");
                 return true;
             }
         } catch (SQLException e) {
-            System.out.println("Delete user error: " + e.getMessage());
+            log.error("Delete user error: " + e.getMessage());
         }
         return false;
     }
@@ -252,11 +282,11 @@ public class AccountRepository {
             stmt.setInt(2, userId);
             int rows = stmt.executeUpdate();
             if (rows > 0) {
-                System.out.println("Updated gold for user " + userId + " to " + newGold);
+                log.info("Updated gold for user " + userId + " to " + newGold);
                 return true;
             }
         } catch (SQLException e) {
-            System.out.println("Update user gold error: " + e.getMessage());
+            log.error("Update user gold error: " + e.getMessage());
         }
         return false;
     }
@@ -273,7 +303,7 @@ public class AccountRepository {
                 return rs.getInt("total");
             }
         } catch (SQLException e) {
-            System.out.println("Get total users error: " + e.getMessage());
+            log.error("Get total users error: " + e.getMessage());
         }
         return 0;
     }
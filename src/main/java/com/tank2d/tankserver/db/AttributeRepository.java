@@ -0,0 +1,65 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.log.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AttributeRepository {
+    private static final Log log = Log.get(AttributeRepository.class);
+
+    /**
+     * Lấy toàn bộ bảng attribute: name → id (theo thứ tự id), null nếu đọc lỗi
+     */
+    public static Map<String, Integer> getAllAttributes() {
+        Map<String, Integer> attributes = new LinkedHashMap<>();
+        String sql = "SELECT id, name FROM attribute ORDER BY id ASC";
+
+        try (Connection conn = Connector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                attributes.put(rs.getString("name"), rs.getInt("id"));
+            }
+
+            log.info("Loaded " + attributes.size() + " attributes");
+
+        } catch (Exception e) {
+            log.error("Error loading attributes: " + e.getMessage());
+            return null;
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Insert attributes của một tank/item bằng JDBC batch (dùng trong transaction).
+     * sql dạng: INSERT INTO xxx_attribute (owner_id, attribute_id, attribute_value) VALUES (?, ?, ?)
+     * Database id lấy từ cache của AttributeRegistry (không truy vấn thêm trong transaction);
+     * caller gọi AttributeRegistry.resolveDatabaseIds(...) trước khi mở transaction.
+     * Attribute không có trong bảng attribute sẽ bị bỏ qua.
+     */
+    public static void insertAttributes(Connection conn, String sql, int ownerId,
+                                        Map<String, Double> attributes) throws SQLException {
+        if (attributes == null || attributes.isEmpty()) return;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<String, Double> entry : attributes.entrySet()) {
+                int attrId = AttributeRegistry.getDatabaseId(entry.getKey());
+                if (attrId > 0) {
+                    ps.setInt(1, ownerId);
+                    ps.setInt(2, attrId);
+                    ps.setDouble(3, entry.getValue());
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.catalog.CatalogEntry;
+import com.tank2d.tankserver.core.catalog.CatalogResult;
+import com.tank2d.tankserver.core.log.Log;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class CatalogRepository {
+    private static final Log log = Log.get(CatalogRepository.class);
+
+    /** Số entity mỗi lần executeBatch */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Ghi toàn bộ items + tanks trong một transaction bằng batched statements.
+     * Rollback hết nếu có lỗi.
+     */
+    public static void importCatalog(List<CatalogEntry> items, List<CatalogEntry> tanks, CatalogResult result) {
+        String itemSql = "INSERT INTO item (name, description, base_price, item_type, rarity) VALUES (?, ?, ?, ?, ?)";
+        String itemAttrSql = "INSERT INTO item_attribute (item_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
+        String tankSql = "INSERT INTO tank (name, description, base_price) VALUES (?, ?, ?)";
+        String tankAttrSql = "INSERT INTO tank_attribute (tank_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
+
+        try (Connection conn = Connector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement itemPs = conn.prepareStatement(itemSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement itemAttrPs = conn.prepareStatement(itemAttrSql);
+                 PreparedStatement tankPs = conn.prepareStatement(tankSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement tankAttrPs = conn.prepareStatement(tankAttrSql)) {
+
+                for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+                    List<CatalogEntry> chunk = items.subList(from, Math.min(items.size(), from + BATCH_SIZE));
+                    for (CatalogEntry e : chunk) {
+                        itemPs.setString(1, e.name);
+                        itemPs.setString(2, e.description);
+                        itemPs.setInt(3, e.price);
+                        itemPs.setString(4, e.type);
+                        itemPs.setString(5, e.rarity);
+                        itemPs.addBatch();
+                    }
+                    result.attributeRows += insertChunk(itemPs, itemAttrPs, chunk);
+                    result.items += chunk.size();
+                }
+
+                for (int from = 0; from < tanks.size(); from += BATCH_SIZE) {
+                    List<CatalogEntry> chunk = tanks.subList(from, Math.min(tanks.size(), from + BATCH_SIZE));
+                    for (CatalogEntry e : chunk) {
+                        tankPs.setString(1, e.name);
+                        tankPs.setString(2, e.description);
+                        tankPs.setInt(3, e.price);
+                        tankPs.addBatch();
+                    }
+                    result.attributeRows += insertChunk(tankPs, tankAttrPs, chunk);
+                    result.tanks += chunk.size();
+                }
+
+                conn.commit();
+                log.info("Imported " + result.items + " items, " + result.tanks + " tanks");
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            log.error("Error importing catalog: " + e.getMessage(), e);
+            result.items = 0;
+            result.tanks = 0;
+            result.attributeRows = 0;
+            result.errors.add("Database error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Chạy batch insert entity, lấy generated ids rồi batch insert attributes.
+     * Trả về số dòng attribute đã ghi.
+     */
+    private static int insertChunk(PreparedStatement entityPs, PreparedStatement attrPs,
+                                   List<CatalogEntry> chunk) throws SQLException {
+        entityPs.executeBatch();
+
+        int attrRows = 0;
+        try (ResultSet keys = entityPs.getGeneratedKeys()) {
+            for (CatalogEntry e : chunk) {
+                if (!keys.next()) {
+                    throw new SQLException("Missing generated key for " + e.name);
+                }
+                int ownerId = keys.getInt(1);
+                for (int i = 0; i < e.attributes.size(); i++) {
+                    String attrName = AttributeRegistry.nameOf(e.attributes.idAt(i));
+                    int attrId = AttributeRegistry.getDatabaseId(attrName);
+                    if (attrId <= 0) {
+                        // CatalogManager đã validate tên attribute; không bỏ qua im lặng
+                        throw new SQLException("Unknown attribute '" + attrName + "' in " + e.name);
+                    }
+                    attrPs.setInt(1, ownerId);
+                    attrPs.setInt(2, attrId);
+                    attrPs.setDouble(3, e.attributes.valueAt(i));
+                    attrPs.addBatch();
+                    attrRows++;
+                }
+            }
+        }
+        attrPs.executeBatch();
+        return attrRows;
+    }
+
+    /**
+     * Export toàn bộ items + tanks ra JSON (cùng format với file import), ghi từng dòng
+     * ngay khi đọc từ ResultSet thay vì load cả catalog vào memory.
+     * assetExporter(dir, name) copy asset của entity ra cạnh file export và trả về đường dẫn
+     * tương đối để ghi vào "asset", null nếu entity không có asset.
+     */
+    public static void exportCatalog(Writer out, CatalogResult result,
+                                     BiFunction<String, String, String> assetExporter) {
+        String itemSql = """
+            SELECT i.id, i.name, i.description, i.base_price, i.item_type, i.rarity,
+                   a.name AS attr_name, ia.attribute_value
+            FROM item i
+            LEFT JOIN item_attribute ia ON ia.item_id = i.id
+            LEFT JOIN attribute a ON a.id = ia.attribute_id
+            ORDER BY i.id
+        """;
+        String tankSql = """
+            SELECT t.id, t.name, t.description, t.base_price,
+                   a.name AS attr_name, ta.attribute_value
+            FROM tank t
+            LEFT JOIN tank_attribute ta ON ta.tank_id = t.id
+            LEFT JOIN attribute a ON a.id = ta.attribute_id
+            ORDER BY t.id
+        """;
+
+        try (Connection conn = Connector.getConnection()) {
+            out.write("{\"items\":[\n");
+            result.items = streamEntities(conn, itemSql, true, "items", assetExporter, out);
+            out.write("\n],\"tanks\":[\n");
+            result.tanks = streamEntities(conn, tankSql, false, "tanks", assetExporter, out);
+            out.write("\n]}\n");
+            out.flush();
+            log.info("Exported " + result.items + " items, " + result.tanks + " tanks");
+        } catch (Exception e) {
+            log.error("Error exporting catalog: " + e.getMessage(), e);
+            result.errors.add("Export error: " + e.getMessage());
+        }
+    }
+
+    private static int streamEntities(Connection conn, String sql, boolean isItem, String assetDir,
+                                      BiFunction<String, String, String> assetExporter,
+                                      Writer out) throws SQLException, IOException {
+        int count = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // MySQL Connector/J chỉ stream từng dòng với fetch size Integer.MIN_VALUE
+            // (fetch size dương bị bỏ qua nếu không có useCursorFetch=true)
+            ps.setFetchSize(Connector.getConfig().profile == DatabaseConfig.Profile.MYSQL ? Integer.MIN_VALUE : BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                int currentId = -1;
+                JSONObject current = null;
+                AttributeSet attrs = null;
+
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    if (id != currentId) {
+                        if (current != null) {
+                            writeEntity(out, current, attrs, count++);
+                        }
+                        currentId = id;
+                        attrs = new AttributeSet();
+                        current = new JSONObject();
+                        String name = rs.getString("name");
+                        current.put("name", name);
+                        current.put("description", rs.getString("description"));
+                        current.put("price", rs.getInt("base_price"));
+                        if (isItem) {
+                            current.put("type", rs.getString("item_type"));
+                            current.put("rarity", rs.getString("rarity"));
+                        }
+                        String asset = assetExporter.apply(assetDir, name);
+                        if (asset != null) current.put("asset", asset);
+                    }
+                    String attrName = rs.getString("attr_name");
+                    if (attrName != null) {
+                        attrs.set(attrName, rs.getDouble("attribute_value"));
+                    }
+                }
+                if (current != null) {
+                    writeEntity(out, current, attrs, count++);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void writeEntity(Writer out, JSONObject entity, AttributeSet attrs, int index) throws IOException {
+        entity.put("attributes", attrs);
+        if (index > 0) out.write(",\n");
+        out.write(entity.toString());
+    }
+}
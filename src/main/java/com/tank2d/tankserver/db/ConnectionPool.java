@@ -0,0 +1,187 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.core.log.Log;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool connection đơn giản cho Connector.
+ * Connection trả về là proxy: close() đưa connection thật về pool (rollback nếu còn
+ * transaction dở, bật lại autoCommit) nên code repository vẫn dùng try-with-resources như cũ.
+ */
+public class ConnectionPool {
+    private static final Log log = Log.get(ConnectionPool.class);
+
+    /** Connection rảnh lâu hơn mức này sẽ được kiểm tra isValid trước khi dùng lại */
+    private static final long VALIDATE_AFTER_MS = 30_000;
+
+    private record Idle(Connection connection, long since) { }
+
+    private final DatabaseConfig config;
+    private final BlockingDeque<Idle> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.poolSize, true);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (!permits.tryAcquire()) {
+            waits.increment();
+            try {
+                if (!permits.tryAcquire(config.poolTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    timeouts.increment();
+                    throw new SQLException("Connection pool exhausted (" + config.poolSize + " in use)");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection");
+            }
+        }
+
+        try {
+            Connection raw = takeIdle();
+            if (raw == null) raw = create();
+            active.incrementAndGet();
+            borrowed.increment();
+            return wrap(raw);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection takeIdle() {
+        Idle entry;
+        while ((entry = idle.pollFirst()) != null) {
+            Connection raw = entry.connection();
+            if (System.currentTimeMillis() - entry.since() < VALIDATE_AFTER_MS || isValid(raw)) {
+                return raw;
+            }
+            discard(raw);
+        }
+        return null;
+    }
+
+    private Connection create() throws SQLException {
+        Connection raw = DriverManager.getConnection(config.url, config.user, config.password);
+        open.incrementAndGet();
+        created.increment();
+        log.info("New database connection created (" + open.get() + "/" + config.poolSize + ")");
+        return raw;
+    }
+
+    private void release(Connection raw) {
+        try {
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            idle.offerFirst(new Idle(raw, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            discard(raw);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void discard(Connection raw) {
+        open.decrementAndGet();
+        try {
+            raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static boolean isValid(Connection raw) {
+        try {
+            return raw.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** Đóng các connection đang rảnh (connection đang mượn sẽ đóng khi trả về) */
+    public void closeIdle() {
+        Idle entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.connection());
+        }
+    }
+
+    private Connection wrap(Connection raw) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!closed) {
+                            closed = true;
+                            release(raw);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed || raw.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled[" + raw + "]";
+                    }
+                }
+                if (closed) throw new SQLException("Connection is closed");
+                try {
+                    return method.invoke(raw, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    // -------------------------------
+    // 🔹 STATS
+    // -------------------------------
+
+    public int getMaxSize() { return config.poolSize; }
+    /** Connection vật lý đang mở (active + idle) */
+    public int getOpenCount() { return open.get(); }
+    public int getActiveCount() { return active.get(); }
+    public int getIdleCount() { return idle.size(); }
+    /** Số thread đang chờ connection */
+    public int getPendingCount() { return permits.getQueueLength(); }
+    public long getBorrowCount() { return borrowed.sum(); }
+    public long getCreatedCount() { return created.sum(); }
+    public long getWaitCount() { return waits.sum(); }
+    public long getTimeoutCount() { return timeouts.sum(); }
+}
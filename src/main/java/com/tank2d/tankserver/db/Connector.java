@@ -1,26 +1,71 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.log.Log;
+
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Điểm lấy connection duy nhất của các repository.
+ * Profile / URL / pool size cấu hình qua DatabaseConfig (mặc định MySQL local);
+ * connection được lấy từ ConnectionPool, close() trả connection về pool.
+ */
 public class Connector {
-    private static final String URL = "jdbc:mysql://localhost:3306/pixeltank_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "123456";
+    private static final Log log = Log.get(Connector.class);
+
+    private static volatile DatabaseConfig config;
+    private static volatile ConnectionPool pool;
 
-    public static Connection getConnection() {
+    /**
+     * Mượn một connection từ pool.
+     * @throws SQLException khi không kết nối được hoặc pool cạn quá poolTimeoutMs (không bao giờ trả null)
+     */
+    public static Connection getConnection() throws SQLException {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("✓ New database connection created!");
-            return connection;
+            return pool().borrow();
         } catch (SQLException e) {
-            System.out.println("Database connection error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Database connection error: " + e.getMessage(), e);
+            throw e;
         } catch (ClassNotFoundException e) {
-            System.out.println("MySQL Driver not found!");
+            log.error("JDBC driver not found: " + e.getMessage());
+            throw new SQLException("JDBC driver not found: " + e.getMessage(), e);
+        }
+    }
+
+    public static DatabaseConfig getConfig() {
+        DatabaseConfig c = config;
+        return c != null ? c : DatabaseConfig.load();
+    }
+
+    /** Pool hiện tại, null nếu chưa có connection nào được lấy */
+    public static ConnectionPool getPool() {
+        return pool;
+    }
+
+    private static ConnectionPool pool() throws SQLException, ClassNotFoundException {
+        ConnectionPool p = pool;
+        if (p != null) return p;
+
+        synchronized (Connector.class) {
+            if (pool == null) {
+                DatabaseConfig c = DatabaseConfig.load();
+                Class.forName(c.driverClass);
+                ConnectionPool created = new ConnectionPool(c);
+
+                if (c.isEmbedded()) {
+                    try (Connection conn = created.borrow()) {
+                        SchemaInitializer.initialize(conn, c.seed);
+                    } catch (IOException e) {
+                        throw new SQLException("Cannot initialize embedded database: " + e.getMessage(), e);
+                    }
+                }
+
+                log.info("Using " + c);
+                config = c;
+                pool = created;
+            }
+            return pool;
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.utils.Settings;
+
+/**
+ * Cấu hình data source, đọc từ system property (ưu tiên) hoặc biến môi trường:
+ *
+ *   tankserver.db.profile   TANKSERVER_DB_PROFILE   mysql (mặc định) | h2
+ *   tankserver.db.url       TANKSERVER_DB_URL       override JDBC URL của profile
+ *   tankserver.db.user      TANKSERVER_DB_USER
+ *   tankserver.db.password  TANKSERVER_DB_PASSWORD
+ *   tankserver.db.pool.size       số connection tối đa (mặc định 10)
+ *   tankserver.db.pool.timeoutMs  thời gian chờ connection rảnh (mặc định 5000)
+ *   tankserver.db.seed      chỉ cho h2: nạp seed.sql sau schema.sql (mặc định true)
+ *
+ * Profile h2 là H2 in-memory ở MySQL compatibility mode: schema + seed data được tạo
+ * lúc lấy connection đầu tiên nên repository chạy được mà không cần MySQL.
+ */
+public class DatabaseConfig {
+
+    public enum Profile { MYSQL, H2 }
+
+    public static final String MYSQL_URL = "jdbc:mysql://localhost:3306/pixeltank_db";
+    public static final String H2_URL = "jdbc:h2:mem:pixeltank_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    public final Profile profile;
+    public final String url;
+    public final String user;
+    public final String password;
+    public final String driverClass;
+    public final int poolSize;
+    public final long poolTimeoutMs;
+    public final boolean seed;
+
+    private DatabaseConfig(Profile profile, String url, String user, String password,
+                           int poolSize, long poolTimeoutMs, boolean seed) {
+        this.profile = profile;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.driverClass = profile == Profile.H2 ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver";
+        this.poolSize = poolSize;
+        this.poolTimeoutMs = poolTimeoutMs;
+        this.seed = seed;
+    }
+
+    public static DatabaseConfig load() {
+        Profile profile = "h2".equalsIgnoreCase(Settings.get("tankserver.db.profile", "mysql")) ? Profile.H2 : Profile.MYSQL;
+        boolean embedded = profile == Profile.H2;
+
+        return new DatabaseConfig(
+                profile,
+                Settings.get("tankserver.db.url", embedded ? H2_URL : MYSQL_URL),
+                Settings.get("tankserver.db.user", embedded ? "sa" : "root"),
+                Settings.get("tankserver.db.password", embedded ? "" : "123456"),
+                Settings.getInt("tankserver.db.pool.size", 10),
+                Settings.getLong("tankserver.db.pool.timeoutMs", 5000),
+                Settings.getBoolean("tankserver.db.seed", true)
+        );
+    }
+
+    public boolean isEmbedded() {
+        return profile == Profile.H2;
+    }
+
+    @Override
+    public String toString() {
+        return profile + " " + url + " (pool " + poolSize + ")";
+    }
+}
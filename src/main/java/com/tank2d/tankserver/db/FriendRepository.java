@@ -0,0 +1,115 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.presence.Friend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bảng user_friend: mỗi quan hệ bạn bè là 2 dòng (a→b, b→a), thêm / xóa cả hai trong một transaction.
+ */
+public class FriendRepository {
+    private static final Log log = Log.get(FriendRepository.class);
+
+    /** Số user id tối đa trong một câu IN (...) */
+    private static final int LOAD_CHUNK = 500;
+
+    /**
+     * Load danh sách bạn của nhiều user, mỗi LOAD_CHUNK user một query.
+     * Mọi id đầu vào đều có mặt trong kết quả (danh sách rỗng nếu chưa có bạn);
+     * null nếu đọc lỗi.
+     */
+    public Map<Integer, List<Friend>> loadFriends(Collection<Integer> userIds) {
+        Map<Integer, List<Friend>> result = new HashMap<>();
+        for (int id : userIds) result.put(id, new ArrayList<>());
+        if (userIds.isEmpty()) return result;
+
+        List<Integer> ids = new ArrayList<>(userIds);
+        try (Connection conn = Connector.getConnection()) {
+            for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK));
+                String sql = """
+                    SELECT f.user_id, u.id, u.username
+                    FROM user_friend f
+                    JOIN user u ON u.id = f.friend_id
+                    WHERE f.user_id IN (%s)
+                """.formatted(String.join(",", Collections.nCopies(chunk.size(), "?")));
+
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            result.get(rs.getInt(1)).add(new Friend(rs.getInt(2), rs.getString(3)));
+                        }
+                    }
+                }
+            }
+            log.debug(() -> "Loaded friend lists for " + ids.size() + " users");
+            return result;
+        } catch (SQLException e) {
+            log.error("Error loading friends: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Thêm quan hệ bạn bè hai chiều. false nếu đã là bạn hoặc lỗi DB.
+     */
+    public boolean addFriend(int userId, int friendId) {
+        String sql = "INSERT INTO user_friend (user_id, friend_id) VALUES (?, ?)";
+        try (Connection conn = Connector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, userId);
+                ps.setInt(2, friendId);
+                ps.addBatch();
+                ps.setInt(1, friendId);
+                ps.setInt(2, userId);
+                ps.addBatch();
+                ps.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // SQLState 23xxx = đã là bạn (trùng PK) hoặc user không còn tồn tại
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                log.debug(() -> "addFriend rejected " + userId + " -> " + friendId + ": " + e.getMessage());
+            } else {
+                log.error("Error adding friend: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Xóa quan hệ bạn bè (cả hai chiều). false nếu không phải bạn hoặc lỗi DB.
+     */
+    public boolean removeFriend(int userId, int friendId) {
+        String sql = "DELETE FROM user_friend WHERE (user_id = ? AND friend_id = ?) OR (user_id = ? AND friend_id = ?)";
+        try (Connection conn = Connector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, friendId);
+            ps.setInt(3, friendId);
+            ps.setInt(4, userId);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            log.error("Error removing friend: " + e.getMessage());
+            return false;
+        }
+    }
+}
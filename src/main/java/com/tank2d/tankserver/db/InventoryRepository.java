@@ -1,14 +1,21 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.inventory.InventoryData;
+import com.tank2d.tankserver.core.log.Log;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class InventoryRepository {
+    private static final Log log = Log.get(InventoryRepository.class);
+
     
     /**
      * Lấy toàn bộ inventory của user (items đã mua)
@@ -50,21 +57,61 @@ public class InventoryRepository {
                 inventory.add(item);
             }
             
-            System.out.println("[InventoryRepository] Loaded " + inventory.size() + " items for user " + userId);
+            log.debug(() -> "Loaded " + inventory.size() + " items for user " + userId);
             
         } catch (Exception e) {
-            System.out.println("[InventoryRepository] Error loading inventory: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading inventory: " + e.getMessage(), e);
         }
         
         return inventory;
     }
     
+    /**
+     * Lấy một item trong inventory của user (cùng format với getUserInventory)
+     */
+    public static Map<String, Object> getUserInventoryItem(int userId, int itemId) {
+        String sql = """
+            SELECT 
+                i.id as item_id,
+                i.name,
+                i.description,
+                ui.quantity,
+                i.base_price as price
+            FROM user_item ui
+            JOIN item i ON ui.item_id = i.id
+            WHERE ui.user_id = ? AND ui.item_id = ?
+        """;
+        
+        try (Connection conn = Connector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            
+            ps.setInt(1, userId);
+            ps.setInt(2, itemId);
+            ResultSet rs = ps.executeQuery();
+            
+            if (rs.next()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("itemId", rs.getInt("item_id"));
+                item.put("name", rs.getString("name"));
+                item.put("description", rs.getString("description"));
+                item.put("quantity", rs.getInt("quantity"));
+                item.put("price", rs.getInt("price"));
+                item.put("attributes", getItemAttributes(conn, itemId));
+                return item;
+            }
+            
+        } catch (Exception e) {
+            log.error("Error loading inventory item: " + e.getMessage());
+        }
+        
+        return null;
+    }
+    
     /**
      * Lấy attributes của một item
      */
     private static Map<String, Double> getItemAttributes(Connection conn, int itemId) {
-        Map<String, Double> attributes = new HashMap<>();
+        Map<String, Double> attributes = new AttributeSet();
         
         String sql = """
             SELECT a.name, ia.attribute_value
@@ -81,12 +128,160 @@ public class InventoryRepository {
                 attributes.put(rs.getString("name"), rs.getDouble("attribute_value"));
             }
         } catch (Exception e) {
-            System.out.println("[InventoryRepository] Error loading attributes: " + e.getMessage());
+            log.error("Error loading attributes: " + e.getMessage());
         }
         
         return attributes;
     }
     
+    /**
+     * Load toàn bộ inventory (gold, tanks, items + attributes) trên một connection
+     * với số query cố định, thay vì 1 query attributes cho mỗi tank/item.
+     * Tank đang equip được suy ra từ danh sách tanks.
+     * @return null nếu đọc lỗi (không trả inventory rỗng để tránh bị cache như dữ liệu thật)
+     */
+    public static InventoryData loadInventory(int userId) {
+        InventoryData data = new InventoryData(userId);
+
+        String goldSql = "SELECT gold FROM user WHERE id = ?";
+
+        String tankSql = """
+            SELECT 
+                t.id as tank_id,
+                t.name,
+                t.description,
+                t.base_price as price,
+                ut.is_equipped
+            FROM user_tank ut
+            JOIN tank t ON ut.tank_id = t.id
+            WHERE ut.user_id = ?
+            ORDER BY ut.is_equipped DESC, t.name ASC
+        """;
+
+        String tankAttrSql = """
+            SELECT ta.tank_id, a.name, ta.attribute_value
+            FROM user_tank ut
+            JOIN tank_attribute ta ON ta.tank_id = ut.tank_id
+            JOIN attribute a ON ta.attribute_id = a.id
+            WHERE ut.user_id = ?
+        """;
+
+        String itemSql = """
+            SELECT 
+                i.id as item_id,
+                i.name,
+                i.description,
+                ui.quantity,
+                i.base_price as price
+            FROM user_item ui
+            JOIN item i ON ui.item_id = i.id
+            WHERE ui.user_id = ?
+            ORDER BY i.name ASC
+        """;
+
+        String itemAttrSql = """
+            SELECT ia.item_id, a.name, ia.attribute_value
+            FROM user_item ui
+            JOIN item_attribute ia ON ia.item_id = ui.item_id
+            JOIN attribute a ON ia.attribute_id = a.id
+            WHERE ui.user_id = ?
+        """;
+
+        try (Connection conn = Connector.getConnection()) {
+
+            // Gold
+            try (PreparedStatement ps = conn.prepareStatement(goldSql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        data.gold = rs.getInt("gold");
+                    }
+                }
+            }
+
+            // Tanks + attributes
+            Map<Integer, Map<String, Double>> tankAttributes = loadAttributesByOwner(conn, tankAttrSql, "tank_id", userId);
+            try (PreparedStatement ps = conn.prepareStatement(tankSql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int tankId = rs.getInt("tank_id");
+                        Map<String, Object> tank = new HashMap<>();
+                        tank.put("tankId", tankId);
+                        tank.put("name", rs.getString("name"));
+                        tank.put("description", rs.getString("description"));
+                        tank.put("price", rs.getInt("price"));
+                        tank.put("isEquipped", rs.getInt("is_equipped"));
+                        tank.put("attributes", tankAttributes.getOrDefault(tankId, new AttributeSet()));
+                        data.tanks.add(tank);
+                    }
+                }
+            }
+
+            // Items + attributes
+            Map<Integer, Map<String, Double>> itemAttributes = loadAttributesByOwner(conn, itemAttrSql, "item_id", userId);
+            try (PreparedStatement ps = conn.prepareStatement(itemSql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int itemId = rs.getInt("item_id");
+                        Map<String, Object> item = new HashMap<>();
+                        item.put("itemId", itemId);
+                        item.put("name", rs.getString("name"));
+                        item.put("description", rs.getString("description"));
+                        item.put("quantity", rs.getInt("quantity"));
+                        item.put("price", rs.getInt("price"));
+                        item.put("attributes", itemAttributes.getOrDefault(itemId, new AttributeSet()));
+                        data.items.add(item);
+                    }
+                }
+            }
+
+            data.equippedTank = findEquippedTank(data.tanks);
+
+        } catch (Exception e) {
+            log.error("Error loading inventory aggregate: " + e.getMessage(), e);
+            return null;
+        }
+
+        return data;
+    }
+
+    /**
+     * Load attributes của tất cả tank/item thuộc user, group theo id
+     */
+    private static Map<Integer, Map<String, Double>> loadAttributesByOwner(Connection conn, String sql,
+                                                                          String idColumn, int userId) throws SQLException {
+        Map<Integer, Map<String, Double>> result = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.computeIfAbsent(rs.getInt(idColumn), k -> new AttributeSet())
+                          .put(rs.getString("name"), rs.getDouble("attribute_value"));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Suy ra tank đang equip từ danh sách tanks (cùng format với TankShopRepository.getEquippedTank)
+     */
+    public static Map<String, Object> findEquippedTank(List<Map<String, Object>> tanks) {
+        for (Map<String, Object> tank : tanks) {
+            if (((Number) tank.get("isEquipped")).intValue() == 1) {
+                Map<String, Object> equipped = new HashMap<>();
+                equipped.put("tankId", tank.get("tankId"));
+                equipped.put("name", tank.get("name"));
+                equipped.put("description", tank.get("description"));
+                equipped.put("attributes", tank.get("attributes"));
+                return equipped;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Kiểm tra user có item trong inventory không
      */
@@ -103,7 +298,7 @@ public class InventoryRepository {
             return rs.next();
             
         } catch (Exception e) {
-            System.out.println("[InventoryRepository] Error checking item: " + e.getMessage());
+            log.error("Error checking item: " + e.getMessage());
             return false;
         }
     }
@@ -126,7 +321,7 @@ public class InventoryRepository {
             }
             
         } catch (Exception e) {
-            System.out.println("[InventoryRepository] Error getting quantity: " + e.getMessage());
+            log.error("Error getting quantity: " + e.getMessage());
         }
         
         return 0;
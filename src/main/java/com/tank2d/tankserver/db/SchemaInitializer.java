@@ -0,0 +1,54 @@
+package com.tank2d.tankserver.db;
+
+import com.tank2d.tankserver.core.log.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Tạo schema (và seed data) cho embedded database từ các script trong
+ * resources/com/tank2d/tankserver/db/.
+ */
+public class SchemaInitializer {
+    private static final Log log = Log.get(SchemaInitializer.class);
+
+    public static final String SCHEMA = "schema.sql";
+    public static final String SEED = "seed.sql";
+
+    public static void initialize(Connection conn, boolean seed) throws SQLException, IOException {
+        runScript(conn, SCHEMA);
+        if (seed) {
+            runScript(conn, SEED);
+        }
+        log.info("Embedded database ready" + (seed ? " (with seed data)" : ""));
+    }
+
+    /**
+     * Chạy từng câu lệnh (phân tách bởi ';' cuối dòng), bỏ qua dòng comment "--"
+     */
+    public static void runScript(Connection conn, String resource) throws SQLException, IOException {
+        String script;
+        try (InputStream in = SchemaInitializer.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("Missing resource: " + resource);
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        try (Statement st = conn.createStatement()) {
+            for (String line : script.split("\n")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+                sql.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    st.execute(sql.substring(0, sql.lastIndexOf(";")));
+                    sql.setLength(0);
+                }
+            }
+            if (!sql.toString().isBlank()) st.execute(sql.toString());
+        }
+    }
+}
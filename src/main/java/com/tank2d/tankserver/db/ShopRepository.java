@@ -1,5 +1,7 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.log.Log;
 import com.tank2d.tankserver.core.shop.ShopItem;
 
 import java.sql.Connection;
@@ -7,12 +9,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 
 public class ShopRepository {
+    private static final Log log = Log.get(ShopRepository.class);
 
     /**
      * Lấy tất cả items có sẵn trong shop với dynamic attributes
@@ -46,7 +48,7 @@ public class ShopRepository {
                 int itemId = rs.getInt("id");
                 
                 // Lấy attributes của item này
-                Map<String, Double> attributes = new HashMap<>();
+                Map<String, Double> attributes = new AttributeSet();
                 attrPs.setInt(1, itemId);
                 ResultSet attrRs = attrPs.executeQuery();
                 while (attrRs.next()) {
@@ -68,11 +70,10 @@ public class ShopRepository {
                 ));
             }
             
-            System.out.println("[ShopRepository] Loaded " + items.size() + " items with dynamic attributes");
+            log.debug(() -> "Loaded " + items.size() + " items with dynamic attributes");
 
         } catch (Exception e) {
-            System.out.println("[ShopRepository] Error loading items: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading items: " + e.getMessage(), e);
         }
 
         return items;
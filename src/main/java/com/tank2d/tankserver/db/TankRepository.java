@@ -1,5 +1,9 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.log.Log;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -9,6 +13,8 @@ import java.util.List;
 import java.util.Map;
 
 public class TankRepository {
+    private static final Log log = Log.get(TankRepository.class);
+
     
     /**
      * Lấy tất cả tanks của user từ bảng user_tank
@@ -50,21 +56,61 @@ public class TankRepository {
                 tanks.add(tank);
             }
             
-            System.out.println("[TankRepository] Loaded " + tanks.size() + " tanks for user " + userId);
+            log.debug(() -> "Loaded " + tanks.size() + " tanks for user " + userId);
             
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error loading tanks: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading tanks: " + e.getMessage(), e);
         }
         
         return tanks;
     }
     
+    /**
+     * Lấy một tank của user (cùng format với getUserTanks)
+     */
+    public static Map<String, Object> getUserTank(int userId, int tankId) {
+        String sql = """
+            SELECT 
+                t.id as tank_id,
+                t.name,
+                t.description,
+                t.base_price as price,
+                ut.is_equipped
+            FROM user_tank ut
+            JOIN tank t ON ut.tank_id = t.id
+            WHERE ut.user_id = ? AND ut.tank_id = ?
+        """;
+        
+        try (Connection conn = Connector.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            
+            ps.setInt(1, userId);
+            ps.setInt(2, tankId);
+            ResultSet rs = ps.executeQuery();
+            
+            if (rs.next()) {
+                Map<String, Object> tank = new HashMap<>();
+                tank.put("tankId", rs.getInt("tank_id"));
+                tank.put("name", rs.getString("name"));
+                tank.put("description", rs.getString("description"));
+                tank.put("price", rs.getInt("price"));
+                tank.put("isEquipped", rs.getInt("is_equipped"));
+                tank.put("attributes", getTankAttributes(conn, tankId));
+                return tank;
+            }
+            
+        } catch (Exception e) {
+            log.error("Error loading user tank: " + e.getMessage());
+        }
+        
+        return null;
+    }
+    
     /**
      * Lấy attributes của một tank
      */
     private static Map<String, Double> getTankAttributes(Connection conn, int tankId) {
-        Map<String, Double> attributes = new HashMap<>();
+        Map<String, Double> attributes = new AttributeSet();
         
         String sql = """
             SELECT a.name, ta.attribute_value
@@ -81,7 +127,7 @@ public class TankRepository {
                 attributes.put(rs.getString("name"), rs.getDouble("attribute_value"));
             }
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error loading tank attributes: " + e.getMessage());
+            log.error("Error loading tank attributes: " + e.getMessage());
         }
         
         return attributes;
@@ -103,7 +149,7 @@ public class TankRepository {
             return rs.next();
             
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error checking tank: " + e.getMessage());
+            log.error("Error checking tank: " + e.getMessage());
             return false;
         }
     }
@@ -115,6 +161,9 @@ public class TankRepository {
         String tankSql = "INSERT INTO tank (name, description, base_price) VALUES (?, ?, ?)";
         String attrSql = "INSERT INTO tank_attribute (tank_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
         
+        // Resolve attribute id trước transaction (có thể phải reload bảng attribute)
+        if (attributes != null) AttributeRegistry.resolveDatabaseIds(attributes.keySet());
+
         try (Connection conn = Connector.getConnection()) {
             conn.setAutoCommit(false);
             
@@ -136,25 +185,14 @@ public class TankRepository {
             }
             
             // Insert attributes
-            try (PreparedStatement ps = conn.prepareStatement(attrSql)) {
-                for (Map.Entry<String, Double> entry : attributes.entrySet()) {
-                    int attrId = getAttributeId(conn, entry.getKey());
-                    if (attrId > 0) {
-                        ps.setInt(1, tankId);
-                        ps.setInt(2, attrId);
-                        ps.setDouble(3, entry.getValue());
-                        ps.executeUpdate();
-                    }
-                }
-            }
+            AttributeRepository.insertAttributes(conn, attrSql, tankId, attributes);
             
             conn.commit();
-            System.out.println("[TankRepository] Created tank: " + name);
+            log.info("Created tank: " + name);
             return true;
             
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error creating tank: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating tank: " + e.getMessage(), e);
             return false;
         }
     }
@@ -167,6 +205,9 @@ public class TankRepository {
         String deleteAttrSql = "DELETE FROM tank_attribute WHERE tank_id = ?";
         String insertAttrSql = "INSERT INTO tank_attribute (tank_id, attribute_id, attribute_value) VALUES (?, ?, ?)";
         
+        // Resolve attribute id trước transaction (có thể phải reload bảng attribute)
+        if (attributes != null) AttributeRegistry.resolveDatabaseIds(attributes.keySet());
+
         try (Connection conn = Connector.getConnection()) {
             conn.setAutoCommit(false);
             
@@ -186,25 +227,14 @@ public class TankRepository {
             }
             
             // Insert new attributes
-            try (PreparedStatement ps = conn.prepareStatement(insertAttrSql)) {
-                for (Map.Entry<String, Double> entry : attributes.entrySet()) {
-                    int attrId = getAttributeId(conn, entry.getKey());
-                    if (attrId > 0) {
-                        ps.setInt(1, tankId);
-                        ps.setInt(2, attrId);
-                        ps.setDouble(3, entry.getValue());
-                        ps.executeUpdate();
-                    }
-                }
-            }
+            AttributeRepository.insertAttributes(conn, insertAttrSql, tankId, attributes);
             
             conn.commit();
-            System.out.println("[TankRepository] Updated tank: " + tankId);
+            log.info("Updated tank: " + tankId);
             return true;
             
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error updating tank: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error updating tank: " + e.getMessage(), e);
             return false;
         }
     }
@@ -224,7 +254,7 @@ public class TankRepository {
                 ps.setInt(1, tankId);
                 ResultSet rs = ps.executeQuery();
                 if (rs.next() && rs.getInt(1) > 0) {
-                    System.out.println("[TankRepository] Cannot delete tank " + tankId + ": in use by users");
+                    log.warn("Cannot delete tank " + tankId + ": in use by users");
                     return false;
                 }
             }
@@ -244,30 +274,12 @@ public class TankRepository {
             }
             
             conn.commit();
-            System.out.println("[TankRepository] Deleted tank: " + tankId);
+            log.info("Deleted tank: " + tankId);
             return true;
             
         } catch (Exception e) {
-            System.out.println("[TankRepository] Error deleting tank: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error deleting tank: " + e.getMessage(), e);
             return false;
         }
     }
-    
-    /**
-     * Lấy attribute ID từ tên
-     */
-    private static int getAttributeId(Connection conn, String attributeName) {
-        String sql = "SELECT id FROM attribute WHERE name = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, attributeName);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("id");
-            }
-        } catch (Exception e) {
-            System.out.println("[TankRepository] Error getting attribute ID: " + e.getMessage());
-        }
-        return 0;
-    }
 }
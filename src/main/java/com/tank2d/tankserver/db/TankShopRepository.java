@@ -1,5 +1,7 @@
 package com.tank2d.tankserver.db;
 
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.log.Log;
 import com.tank2d.tankserver.core.shop.ShopItem;
 
 import java.sql.Connection;
@@ -12,6 +14,8 @@ import java.util.List;
 import java.util.Map;
 
 public class TankShopRepository {
+    private static final Log log = Log.get(TankShopRepository.class);
+
     
     /**
      * Lấy tất cả tanks có sẵn trong shop
@@ -46,7 +50,7 @@ public class TankShopRepository {
                 int tankId = rs.getInt("id");
                 
                 // Load attributes
-                Map<String, Double> attributes = new HashMap<>();
+                Map<String, Double> attributes = new AttributeSet();
                 attrPs.setInt(1, tankId);
                 ResultSet attrRs = attrPs.executeQuery();
                 while (attrRs.next()) {
@@ -67,11 +71,10 @@ public class TankShopRepository {
                 ));
             }
             
-            System.out.println("[TankShopRepository] Loaded " + tanks.size() + " tanks for shop");
+            log.debug(() -> "Loaded " + tanks.size() + " tanks for shop");
             
         } catch (Exception e) {
-            System.out.println("[TankShopRepository] Error loading tanks: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading tanks: " + e.getMessage(), e);
         }
         
         return tanks;
@@ -153,12 +156,11 @@ public class TankShopRepository {
             }
             
             conn.commit();
-            System.out.println("[TankShopRepository] User " + userId + " equipped tank " + tankId);
+            log.debug(() -> "User " + userId + " equipped tank " + tankId);
             return true;
             
         } catch (Exception e) {
-            System.out.println("[TankShopRepository] Error equipping tank: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error equipping tank: " + e.getMessage(), e);
             return false;
         }
     }
@@ -199,7 +201,7 @@ public class TankShopRepository {
                 tank.put("description", rs.getString("description"));
                 
                 // Load attributes
-                Map<String, Double> attributes = new HashMap<>();
+                Map<String, Double> attributes = new AttributeSet();
                 attrPs.setInt(1, tankId);
                 try (ResultSet attrRs = attrPs.executeQuery()) {
                     while (attrRs.next()) {
@@ -212,8 +214,7 @@ public class TankShopRepository {
             }
             
         } catch (Exception e) {
-            System.out.println("[TankShopRepository] Error getting equipped tank: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error getting equipped tank: " + e.getMessage(), e);
         }
         
         return null;
@@ -0,0 +1,74 @@
+package com.tank2d.tankserver.tools;
+
+import com.tank2d.tankserver.core.attribute.AttributeSet;
+import com.tank2d.tankserver.core.shop.ShopItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đo heap dùng cho 10k catalog entries: attributes dạng HashMap<String, Double>
+ * (như trước) so với AttributeSet. Không cần database.
+ *
+ * Chạy: java ... com.tank2d.tankserver.tools.AttributeFootprintBenchmark [entries]
+ */
+public class AttributeFootprintBenchmark {
+
+    private static final String[] NAMES = {"hp", "dmg", "spd", "mp", "def", "crit"};
+
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        long baseline = usedHeap();
+        List<Map<String, Double>> maps = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            Map<String, Double> attrs = new HashMap<>();
+            for (int a = 0; a < 4; a++) {
+                // new String(...) giống như mỗi ResultSet.getString trả về một String mới
+                attrs.put(new String(NAMES[(i + a) % NAMES.length]), (double) (i % 100 + a));
+            }
+            maps.add(attrs);
+        }
+        long hashMapBytes = usedHeap() - baseline;
+        report("HashMap<String, Double>", hashMapBytes, entries);
+        maps = null;
+
+        baseline = usedHeap();
+        List<AttributeSet> sets = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            AttributeSet attrs = new AttributeSet();
+            for (int a = 0; a < 4; a++) {
+                attrs.set(new String(NAMES[(i + a) % NAMES.length]), (double) (i % 100 + a));
+            }
+            sets.add(attrs);
+        }
+        long setBytes = usedHeap() - baseline;
+        report("AttributeSet           ", setBytes, entries);
+
+        baseline = usedHeap();
+        List<ShopItem> items = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            items.add(new ShopItem(i, "Item " + i, "desc", 100, 0.0, -1, sets.get(i)));
+        }
+        report("ShopItem (no attrs)    ", usedHeap() - baseline, entries);
+
+        // Giữ reference tới cuối để GC không thu hồi trước khi đo
+        System.out.println("[AttributeFootprintBenchmark] kept " + sets.size() + " sets, " + items.size() + " items");
+    }
+
+    private static void report(String label, long bytes, int entries) {
+        System.out.printf("[AttributeFootprintBenchmark] %s %,d bytes total, %.1f bytes/entry%n",
+                label, bytes, (double) bytes / entries);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException ignored) {}
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,64 @@
+package com.tank2d.tankserver.tools;
+
+import com.tank2d.tankserver.core.CatalogManager;
+import com.tank2d.tankserver.core.attribute.AttributeRegistry;
+import com.tank2d.tankserver.core.catalog.CatalogResult;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Sinh một catalog N entries (mặc định 10k, nửa items nửa tanks), import rồi export lại,
+ * in ra rows/s của mỗi bước.
+ *
+ * Chạy: java ... com.tank2d.tankserver.tools.CatalogImportBenchmark [entries]
+ * ⚠ Ghi dữ liệu thật vào database đang cấu hình trong Connector.
+ */
+public class CatalogImportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        AttributeRegistry.load();
+
+        File dir = Files.createTempDirectory("catalog-bench").toFile();
+        File input = new File(dir, "catalog.json");
+        String prefix = "bench" + System.currentTimeMillis() + "_";
+
+        try (Writer out = Files.newBufferedWriter(input.toPath(), StandardCharsets.UTF_8)) {
+            out.write("{\"items\":[\n");
+            for (int i = 0; i < entries / 2; i++) {
+                JSONObject item = new JSONObject();
+                item.put("name", prefix + "item_" + i);
+                item.put("description", "Benchmark item " + i);
+                item.put("price", 100 + i % 500);
+                item.put("type", "consumable");
+                item.put("rarity", "common");
+                item.put("attributes", new JSONObject().put("hp", i % 100).put("mp", i % 50));
+                if (i > 0) out.write(",\n");
+                out.write(item.toString());
+            }
+            out.write("\n],\"tanks\":[\n");
+            for (int i = 0; i < entries - entries / 2; i++) {
+                JSONObject tank = new JSONObject();
+                tank.put("name", prefix + "tank_" + i);
+                tank.put("description", "Benchmark tank " + i);
+                tank.put("price", 1000 + i % 5000);
+                tank.put("attributes", new JSONObject().put("hp", 100 + i % 900).put("dmg", 10 + i % 90).put("spd", 1 + i % 9));
+                if (i > 0) out.write(",\n");
+                out.write(tank.toString());
+            }
+            out.write("\n]}\n");
+        }
+
+        CatalogResult imported = CatalogManager.importCatalog(input, null);
+        System.out.println("[CatalogImportBenchmark] import: " + imported);
+
+        CatalogResult exported = CatalogManager.exportCatalog(new File(dir, "export.json"), null);
+        System.out.println("[CatalogImportBenchmark] export: " + exported);
+        System.out.println("[CatalogImportBenchmark] files in " + dir.getAbsolutePath());
+    }
+}
@@ -0,0 +1,70 @@
+package com.tank2d.tankserver.tools;
+
+import com.tank2d.tankserver.core.AccountManager;
+import com.tank2d.tankserver.core.InventoryManager;
+import com.tank2d.tankserver.core.TankShopManager;
+
+import java.util.Arrays;
+
+/**
+ * So sánh latency giữa đường load inventory cũ (4 lần gọi Manager, N+1 query attributes)
+ * và InventoryRepository.loadInventory (một connection, số query cố định).
+ *
+ * Chạy: java ... com.tank2d.tankserver.tools.InventoryLoadBenchmark [userId] [iterations]
+ * Cần database đang chạy (xem Connector).
+ */
+public class InventoryLoadBenchmark {
+
+    public static void main(String[] args) {
+        int userId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int warmup = Math.max(10, iterations / 10);
+
+        System.out.println("[InventoryLoadBenchmark] userId=" + userId + ", iterations=" + iterations);
+
+        for (int i = 0; i < warmup; i++) {
+            loadLegacy(userId);
+            InventoryManager.loadInventory(userId);
+        }
+
+        long[] legacy = new long[iterations];
+        long[] aggregate = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long t0 = System.nanoTime();
+            loadLegacy(userId);
+            legacy[i] = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            InventoryManager.loadInventory(userId);
+            aggregate[i] = System.nanoTime() - t0;
+        }
+
+        report("legacy   ", legacy);
+        report("aggregate", aggregate);
+    }
+
+    private static void loadLegacy(int userId) {
+        TankShopManager.getUserTanks(userId);
+        TankShopManager.getEquippedTank(userId);
+        InventoryManager.getUserInventory(userId);
+        AccountManager.getUserGold(userId);
+    }
+
+    private static void report(String label, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double avg = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("[InventoryLoadBenchmark] %s avg=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms%n",
+                label,
+                avg / 1e6,
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.95) / 1e6,
+                percentile(sorted, 0.99) / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[idx];
+    }
+}
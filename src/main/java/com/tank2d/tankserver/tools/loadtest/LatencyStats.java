@@ -0,0 +1,109 @@
+package com.tank2d.tankserver.tools.loadtest;
+
+import com.tank2d.tankserver.utils.PacketType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency + lỗi theo PacketType của request (đo từ lúc gửi đến khi nhận response tương ứng).
+ * Giữ toàn bộ mẫu (micro giây) để tính percentile chính xác; vài trăm nghìn mẫu vẫn nhỏ.
+ */
+public class LatencyStats {
+
+    public static class TypeStats {
+        private long[] samples = new long[1024];
+        private int count;
+        public final LongAdder errors = new LongAdder();
+        public final LongAdder timeouts = new LongAdder();
+
+        synchronized void record(long micros) {
+            if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+            samples[count++] = micros;
+        }
+
+        synchronized long[] sortedSamples() {
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        public synchronized int count() {
+            return count;
+        }
+    }
+
+    private final Map<Integer, TypeStats> byType = new ConcurrentHashMap<>();
+
+    /** Request/response trong khoảng báo cáo hiện tại (cho dòng progress) */
+    private final LongAdder intervalRequests = new LongAdder();
+    private final LongAdder intervalErrors = new LongAdder();
+
+    public void recordSuccess(int type, long nanos) {
+        stats(type).record(nanos / 1000);
+        intervalRequests.increment();
+    }
+
+    /** Response báo lỗi (LOGIN_FAIL, BUY_FAIL, ...) — vẫn tính latency */
+    public void recordError(int type, long nanos) {
+        TypeStats s = stats(type);
+        s.record(nanos / 1000);
+        s.errors.increment();
+        intervalRequests.increment();
+        intervalErrors.increment();
+    }
+
+    /** Không có response (timeout, mất kết nối) */
+    public void recordTimeout(int type) {
+        TypeStats s = stats(type);
+        s.errors.increment();
+        s.timeouts.increment();
+        intervalErrors.increment();
+    }
+
+    private TypeStats stats(int type) {
+        return byType.computeIfAbsent(type, t -> new TypeStats());
+    }
+
+    /** Lấy và reset bộ đếm của khoảng hiện tại: {requests, errors} */
+    public long[] drainInterval() {
+        return new long[]{intervalRequests.sumThenReset(), intervalErrors.sumThenReset()};
+    }
+
+    // -------------------------------
+    // 🔹 REPORT
+    // -------------------------------
+
+    public String report(double elapsedSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %9s %8s %7s %9s %9s %9s %9s %9s%n",
+                "PacketType", "count", "req/s", "err%", "p50(ms)", "p90(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+
+        for (Map.Entry<Integer, TypeStats> e : new TreeMap<>(byType).entrySet()) {
+            TypeStats s = e.getValue();
+            long[] sorted = s.sortedSamples();
+            long errors = s.errors.sum();
+            long attempts = sorted.length + s.timeouts.sum();
+            sb.append(String.format("%-16s %9d %8.1f %6.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    PacketType.nameOf(e.getKey()),
+                    attempts,
+                    attempts / Math.max(elapsedSeconds, 0.001),
+                    attempts == 0 ? 0.0 : 100.0 * errors / attempts,
+                    percentile(sorted, 0.50) / 1000.0,
+                    percentile(sorted, 0.90) / 1000.0,
+                    percentile(sorted, 0.99) / 1000.0,
+                    percentile(sorted, 0.999) / 1000.0,
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[idx];
+    }
+}
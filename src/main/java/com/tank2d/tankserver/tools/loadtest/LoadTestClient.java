@@ -0,0 +1,161 @@
+package com.tank2d.tankserver.tools.loadtest;
+
+import com.tank2d.tankserver.utils.Constant;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator headless cho lobby: mở N TCP connection tới MasterServer (mỗi connection
+ * một virtual thread), mỗi connection là một VirtualPlayer chạy theo Scenario.
+ *
+ * Connection được mở dần trong --ramp giây nên dòng progress (conns / req/s / err) cho thấy
+ * số connection mà throughput của ClientHandler ngừng tăng. Kết thúc in bảng latency
+ * percentile + error rate theo PacketType.
+ *
+ * Chạy (server đã start với -Dtankserver.auth.trustLoopback=true, không thì giới hạn login /
+ * register theo IP chặn phần lớn client từ localhost):
+ *   java -cp ... com.tank2d.tankserver.tools.loadtest.LoadTestClient \
+ *        --clients 2000 --ramp 60 --duration 120 --think 500 \
+ *        --mix roomList=30,join=20,create=5,leave=5,ready=15,selectMap=5,shop=10,buy=5,inventory=5
+ *
+ * Options: --host, --port, --clients, --ramp (s), --duration (s, tính sau ramp), --think (ms, trung bình),
+ *          --timeout (ms), --mix, --prefix (username = prefix + index), --password, --max-players,
+ *          --interval (s giữa các dòng progress), --no-register,
+ *          --subscribe (nhận room list qua push thay vì poll ROOM_LIST)
+ */
+public class LoadTestClient {
+
+    public static class Config {
+        public String host = "localhost";
+        public int port = Constant.SERVER_PORT;
+        public int clients = 100;
+        public int rampSeconds = 10;
+        public int durationSeconds = 60;
+        public int thinkMs = 500;
+        public int timeoutMs = 5000;
+        public int maxPlayers = 4;
+        public int intervalSeconds = 5;
+        public String prefix = "load";
+        public String password = "load123";
+        public boolean register = true;
+        public boolean subscribe = false;
+        public Scenario scenario = Scenario.parse(Scenario.DEFAULT_MIX);
+    }
+
+    /** Trạng thái dùng chung giữa các VirtualPlayer */
+    public static class Context {
+        public final LatencyStats stats = new LatencyStats();
+        public final AtomicInteger activeConnections = new AtomicInteger();
+        public final LongAdder connectFailures = new LongAdder();
+        public final LongAdder disconnects = new LongAdder();
+        public final LongAdder packetsSent = new LongAdder();
+        public final LongAdder packetsReceived = new LongAdder();
+        public volatile long deadline;
+        /** Item id lấy từ SHOP_LIST_DATA đầu tiên, dùng cho BUY_ITEM */
+        public volatile int[] shopItemIds;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Config config = parseArgs(args);
+        Context context = new Context();
+
+        long start = System.currentTimeMillis();
+        context.deadline = start + (config.rampSeconds + config.durationSeconds) * 1000L;
+
+        System.out.printf("[LoadTestClient] %d clients -> %s:%d, ramp %ds, duration %ds, think %dms%n",
+                config.clients, config.host, config.port, config.rampSeconds, config.durationSeconds, config.thinkMs);
+
+        Thread progress = Thread.ofPlatform().daemon().name("loadtest-progress")
+                .start(() -> printProgress(config, context, start));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long rampNanos = TimeUnit.SECONDS.toNanos(config.rampSeconds);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < config.clients; i++) {
+                long due = t0 + rampNanos * i / Math.max(1, config.clients);
+                long wait = due - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                executor.submit(new VirtualPlayer(config, context, i + 1));
+            }
+        } // close() chờ mọi VirtualPlayer kết thúc (tới deadline)
+
+        progress.interrupt();
+        double elapsed = (System.currentTimeMillis() - start) / 1000.0;
+
+        System.out.println();
+        System.out.println("[LoadTestClient] ===== RESULT (" + String.format("%.1f", elapsed) + "s) =====");
+        System.out.print(context.stats.report(elapsed));
+        System.out.printf("[LoadTestClient] connect failures=%d, disconnects=%d, sent=%d, received=%d%n",
+                context.connectFailures.sum(), context.disconnects.sum(),
+                context.packetsSent.sum(), context.packetsReceived.sum());
+        System.out.println("[LoadTestClient] " + peak);
+    }
+
+    // -------------------------------
+    // 🔹 PROGRESS
+    // -------------------------------
+
+    private static volatile String peak = "no requests completed";
+
+    private static void printProgress(Config config, Context context, long start) {
+        double peakRate = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(config.intervalSeconds * 1000L);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long[] interval = context.stats.drainInterval();
+            double rate = interval[0] / (double) config.intervalSeconds;
+            int conns = context.activeConnections.get();
+            System.out.printf("[LoadTestClient] t=%3ds conns=%5d req/s=%8.1f errors=%d%n",
+                    (System.currentTimeMillis() - start) / 1000, conns, rate, interval[1]);
+
+            if (rate > peakRate) {
+                peakRate = rate;
+                peak = String.format("peak throughput %.1f req/s at %d connections", rate, conns);
+            }
+        }
+    }
+
+    // -------------------------------
+    // 🔹 ARGS
+    // -------------------------------
+
+    static Config parseArgs(String[] args) {
+        Config c = new Config();
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i];
+            if (key.equals("--no-register")) {
+                c.register = false;
+                continue;
+            }
+            if (key.equals("--subscribe")) {
+                c.subscribe = true;
+                continue;
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + key);
+            String value = args[++i];
+            switch (key) {
+                case "--host" -> c.host = value;
+                case "--port" -> c.port = Integer.parseInt(value);
+                case "--clients" -> c.clients = Integer.parseInt(value);
+                case "--ramp" -> c.rampSeconds = Integer.parseInt(value);
+                case "--duration" -> c.durationSeconds = Integer.parseInt(value);
+                case "--think" -> c.thinkMs = Integer.parseInt(value);
+                case "--timeout" -> c.timeoutMs = Integer.parseInt(value);
+                case "--max-players" -> c.maxPlayers = Integer.parseInt(value);
+                case "--interval" -> c.intervalSeconds = Math.max(1, Integer.parseInt(value));
+                case "--mix" -> c.scenario = Scenario.parse(value);
+                case "--prefix" -> c.prefix = value;
+                case "--password" -> c.password = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        return c;
+    }
+}
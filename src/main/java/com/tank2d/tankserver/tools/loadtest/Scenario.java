@@ -0,0 +1,71 @@
+package com.tank2d.tankserver.tools.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tỉ lệ các hành động lobby mà mỗi virtual player chọn ngẫu nhiên sau khi login.
+ * Cú pháp: "roomList=30,join=20,create=5,ready=15,selectMap=5,shop=15,buy=10,quickPlay=10,chat=10".
+ * Các hành động không hợp lệ ở trạng thái hiện tại (vd ready khi chưa vào phòng)
+ * được VirtualPlayer đổi sang hành động gần nhất.
+ */
+public class Scenario {
+
+    public enum Action {
+        ROOM_LIST, CREATE, JOIN, LEAVE, READY, SELECT_MAP, SHOP, BUY, INVENTORY, QUICK_PLAY, CHAT
+    }
+
+    public static final String DEFAULT_MIX = "roomList=30,join=20,create=5,leave=5,ready=15,selectMap=5,shop=10,buy=5,inventory=5";
+
+    private final Action[] actions;
+    private final int[] cumulative;
+    private final int total;
+
+    private Scenario(Map<Action, Integer> weights) {
+        actions = weights.keySet().toArray(new Action[0]);
+        cumulative = new int[actions.length];
+        int sum = 0;
+        for (int i = 0; i < actions.length; i++) {
+            sum += weights.get(actions[i]);
+            cumulative[i] = sum;
+        }
+        if (sum <= 0) throw new IllegalArgumentException("Scenario mix has no positive weight");
+        total = sum;
+    }
+
+    public static Scenario parse(String mix) {
+        Map<Action, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad mix entry: " + part);
+            weights.put(actionOf(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        return new Scenario(weights);
+    }
+
+    private static Action actionOf(String key) {
+        return switch (key) {
+            case "roomList" -> Action.ROOM_LIST;
+            case "create" -> Action.CREATE;
+            case "join" -> Action.JOIN;
+            case "leave" -> Action.LEAVE;
+            case "ready" -> Action.READY;
+            case "selectMap" -> Action.SELECT_MAP;
+            case "shop" -> Action.SHOP;
+            case "buy" -> Action.BUY;
+            case "inventory" -> Action.INVENTORY;
+            case "quickPlay" -> Action.QUICK_PLAY;
+            case "chat" -> Action.CHAT;
+            default -> throw new IllegalArgumentException("Unknown action: " + key);
+        };
+    }
+
+    public Action next() {
+        int r = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) return actions[i];
+        }
+        return actions[actions.length - 1];
+    }
+}
@@ -0,0 +1,330 @@
+package com.tank2d.tankserver.tools.loadtest;
+
+import com.tank2d.tankserver.utils.Packet;
+import com.tank2d.tankserver.utils.PacketType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Một người chơi giả: một TCP connection tới MasterServer, register/login rồi
+ * lặp các hành động lobby theo Scenario cho đến hết thời gian.
+ *
+ * Mỗi request chờ đúng packet trả lời (packet server push khác như ROOM_UPDATE của
+ * người khác, GOLD_CHANGED... được bỏ qua). Server báo lỗi bằng LOGIN_FAIL nên packet
+ * đó luôn được tính là lỗi của request đang chờ. LEAVE_ROOM không có trả lời nên không
+ * có latency.
+ *
+ * Với --subscribe, player gửi ROOM_LIST_SUBSCRIBE sau login và giữ danh sách phòng cục bộ
+ * từ ROOM_ADDED / ROOM_CHANGED / ROOM_REMOVED thay vì poll ROOM_LIST.
+ */
+public class VirtualPlayer implements Runnable {
+
+    private final LoadTestClient.Config config;
+    private final LoadTestClient.Context context;
+    private final String username;
+
+    private Socket socket;
+    private BufferedReader in;
+    private PrintWriter out;
+
+    private boolean inRoom;
+    private boolean isHost;
+    private boolean ready;
+
+    /** Danh sách phòng nhận qua push (chỉ dùng khi config.subscribe) */
+    private final Map<Integer, JSONObject> knownRooms = new LinkedHashMap<>();
+
+    public VirtualPlayer(LoadTestClient.Config config, LoadTestClient.Context context, int index) {
+        this.config = config;
+        this.context = context;
+        this.username = config.prefix + index;
+    }
+
+    @Override
+    public void run() {
+        try {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(config.host, config.port), config.timeoutMs);
+            socket.setSoTimeout(config.timeoutMs);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        } catch (IOException e) {
+            context.connectFailures.increment();
+            return;
+        }
+
+        context.activeConnections.incrementAndGet();
+        try {
+            if (config.register) {
+                // REGISTER_FAIL = tài khoản đã có từ lần chạy trước → không phải lỗi
+                request(packet(PacketType.REGISTER, "username", username, "password", config.password),
+                        p -> p.type == PacketType.REGISTER_OK || p.type == PacketType.REGISTER_FAIL);
+            }
+            if (!request(packet(PacketType.LOGIN, "username", username, "password", config.password),
+                    p -> p.type == PacketType.LOGIN_OK)) {
+                return;
+            }
+            if (config.subscribe) {
+                request(new Packet(PacketType.ROOM_LIST_SUBSCRIBE), p -> {
+                    if (p.type != PacketType.ROOM_LIST_DATA) return false;
+                    applyRooms(p.data.get("rooms"));
+                    return true;
+                });
+            }
+
+            while (System.currentTimeMillis() < context.deadline && !socket.isClosed()) {
+                perform(config.scenario.next());
+                think();
+            }
+        } catch (IOException e) {
+            context.disconnects.increment();
+        } finally {
+            context.activeConnections.decrementAndGet();
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // -------------------------------
+    // 🔹 ACTIONS
+    // -------------------------------
+
+    private void perform(Scenario.Action action) throws IOException {
+        switch (action) {
+            case ROOM_LIST -> listRooms();
+            case CREATE -> createRoom();
+            case JOIN -> joinRoom();
+            case LEAVE -> leaveRoom();
+            case READY -> {
+                if (inRoom) toggleReady(); else joinRoom();
+            }
+            case SELECT_MAP -> {
+                if (inRoom && isHost) selectMap(); else if (inRoom) toggleReady(); else createRoom();
+            }
+            case SHOP -> openShop();
+            case BUY -> buy();
+            case INVENTORY -> request(new Packet(PacketType.INVENTORY_REQUEST), p -> p.type == PacketType.INVENTORY_DATA);
+            case QUICK_PLAY -> quickPlay();
+            case CHAT -> {
+                if (inRoom) chat(); else joinRoom();
+            }
+        }
+    }
+
+    private JSONArray listRooms() throws IOException {
+        if (config.subscribe) {
+            return new JSONArray(knownRooms.values());
+        }
+        Packet[] reply = new Packet[1];
+        request(new Packet(PacketType.ROOM_LIST), p -> {
+            if (p.type != PacketType.ROOM_LIST_DATA) return false;
+            reply[0] = p;
+            return true;
+        });
+        if (reply[0] == null) return new JSONArray();
+        Object rooms = reply[0].data.get("rooms");
+        return rooms instanceof JSONArray array ? array : new JSONArray();
+    }
+
+    private void createRoom() throws IOException {
+        leaveRoom();
+        Packet p = packet(PacketType.CREATE_ROOM,
+                "roomName", username + "'s room", "maxPlayers", config.maxPlayers, "password", "");
+        if (request(p, r -> r.type == PacketType.ROOM_CREATED)) {
+            inRoom = true;
+            isHost = true;
+            ready = false;
+        }
+    }
+
+    private void joinRoom() throws IOException {
+        leaveRoom();
+        JSONArray rooms = listRooms();
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < rooms.length(); i++) {
+            JSONObject room = rooms.getJSONObject(i);
+            if (!room.optBoolean("hasPassword") && room.optInt("players") < room.optInt("maxPlayers")) {
+                candidates.add(room.getInt("id"));
+            }
+        }
+        if (candidates.isEmpty()) {
+            createRoom();
+            return;
+        }
+
+        int roomId = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        if (request(packet(PacketType.JOIN_ROOM, "roomId", roomId), r -> r.type == PacketType.ROOM_JOINED)) {
+            inRoom = true;
+            isHost = false;
+            ready = false;
+        }
+    }
+
+    /** Latency của QUICK_PLAY = thời gian chờ trong hàng + round trip (tới ROOM_JOINED) */
+    private void quickPlay() throws IOException {
+        leaveRoom();
+        String map = "map" + (ThreadLocalRandom.current().nextInt(3) + 1);
+        String[] host = new String[1];
+        if (request(packet(PacketType.QUICK_PLAY, "map", map, "maxPlayers", config.maxPlayers), r -> {
+            if (r.type != PacketType.ROOM_JOINED) return false;
+            host[0] = String.valueOf(r.data.get("host"));
+            return true;
+        })) {
+            inRoom = true;
+            isHost = username.equals(host[0]);
+            ready = false;
+        }
+    }
+
+    private void leaveRoom() {
+        if (!inRoom) return;
+        send(new Packet(PacketType.LEAVE_ROOM));
+        inRoom = false;
+        isHost = false;
+    }
+
+    private void toggleReady() throws IOException {
+        ready = !ready;
+        String prefix = username + (ready ? " is ready" : " is not ready");
+        request(packet(PacketType.PLAYER_READY, "ready", ready),
+                r -> r.type == PacketType.ROOM_UPDATE && String.valueOf(r.data.get("msg")).startsWith(prefix));
+    }
+
+    /** Latency của ROOM_CHAT = round trip + chờ batch gửi dòng của chính mình */
+    private void chat() throws IOException {
+        String text = "hello #" + ThreadLocalRandom.current().nextInt(1_000_000);
+        request(packet(PacketType.ROOM_CHAT, "text", text), r -> {
+            if (r.type != PacketType.ROOM_CHAT || !(r.data.get("lines") instanceof JSONArray lines)) return false;
+            for (int i = 0; i < lines.length(); i++) {
+                JSONObject line = lines.getJSONObject(i);
+                if (username.equals(line.optString("from")) && text.equals(line.optString("text"))) return true;
+            }
+            return false;
+        });
+    }
+
+    private void selectMap() throws IOException {
+        String map = "map" + (ThreadLocalRandom.current().nextInt(3) + 1);
+        request(packet(PacketType.SELECT_MAP, "map", map),
+                r -> r.type == PacketType.MAP_SELECTED && map.equals(r.data.get("map")));
+    }
+
+    private void openShop() throws IOException {
+        request(new Packet(PacketType.SHOP_LIST), r -> {
+            if (r.type != PacketType.SHOP_LIST_DATA) return false;
+            if (r.data.get("items") instanceof JSONArray items && context.shopItemIds == null) {
+                int[] ids = new int[items.length()];
+                for (int i = 0; i < ids.length; i++) ids[i] = items.getJSONObject(i).getInt("id");
+                context.shopItemIds = ids;
+            }
+            return true;
+        });
+    }
+
+    private void buy() throws IOException {
+        int[] ids = context.shopItemIds;
+        if (ids == null || ids.length == 0) {
+            openShop();
+            return;
+        }
+        int itemId = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        request(packet(PacketType.BUY_ITEM, "itemId", itemId, "quantity", 1), r -> r.type == PacketType.BUY_SUCCESS);
+    }
+
+    // -------------------------------
+    // 🔹 IO
+    // -------------------------------
+
+    /**
+     * Gửi request và đọc cho đến khi gặp packet trả lời.
+     * Trả lời thành công khi isReply khớp; LOGIN_FAIL / *_FAIL được ghi là lỗi.
+     */
+    private boolean request(Packet p, Predicate<Packet> isReply) throws IOException {
+        long start = System.nanoTime();
+        send(p);
+        try {
+            while (true) {
+                String line = in.readLine();
+                if (line == null) throw new IOException("Server closed connection");
+                context.packetsReceived.increment();
+
+                Packet reply = Packet.fromJson(line);
+                if (isReply.test(reply)) {
+                    context.stats.recordSuccess(p.type, System.nanoTime() - start);
+                    return true;
+                }
+                if (PacketType.isFailure(reply.type)) {
+                    context.stats.recordError(p.type, System.nanoTime() - start);
+                    return false;
+                }
+                // push packet không liên quan đến request này → chỉ cập nhật danh sách phòng
+                onPush(reply);
+            }
+        } catch (SocketTimeoutException e) {
+            context.stats.recordTimeout(p.type);
+            return false;
+        }
+    }
+
+    private void onPush(Packet p) {
+        switch (p.type) {
+            case PacketType.ROOM_ADDED, PacketType.ROOM_CHANGED -> applyRooms(p.data.get("rooms"));
+            case PacketType.ROOM_REMOVED -> {
+                if (p.data.get("roomIds") instanceof JSONArray ids) {
+                    for (int i = 0; i < ids.length(); i++) knownRooms.remove(ids.getInt(i));
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private void applyRooms(Object rooms) {
+        if (!(rooms instanceof JSONArray array)) return;
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject room = array.getJSONObject(i);
+            knownRooms.put(room.getInt("id"), room);
+        }
+    }
+
+    private void send(Packet p) {
+        out.println(p.toJson());
+        context.packetsSent.increment();
+    }
+
+    private void think() {
+        if (config.thinkMs <= 0) return;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(config.thinkMs * 2L + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Packet packet(int type, Object... kv) {
+        Packet p = new Packet(type);
+        for (int i = 0; i < kv.length; i += 2) {
+            p.data.put((String) kv[i], kv[i + 1]);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tank2d.tankserver.ui;
+
+import javafx.scene.control.TextArea;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * BoundedLog
+ * Giữ TextArea log ở tối đa maxLines dòng: mỗi batch append một lần,
+ * dòng cũ nhất bị cắt khỏi đầu. Độ dài từng dòng được giữ trong ring buffer
+ * (ArrayDeque) nên cắt không cần quét lại text.
+ *
+ * Chỉ gọi từ FX thread.
+ */
+public class BoundedLog {
+
+    private final TextArea area;
+    private final int maxLines;
+    private final ArrayDeque<Integer> lineLengths = new ArrayDeque<>();
+
+    public BoundedLog(TextArea area, int maxLines) {
+        this.area = area;
+        this.maxLines = maxLines;
+    }
+
+    public void append(List<String> lines) {
+        if (lines.isEmpty()) return;
+
+        // Batch lớn hơn maxLines: chỉ giữ phần cuối
+        int from = Math.max(0, lines.size() - maxLines);
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < lines.size(); i++) {
+            String line = lines.get(i);
+            sb.append(line).append('\n');
+            lineLengths.addLast(line.length() + 1);
+        }
+
+        int cut = 0;
+        while (lineLengths.size() > maxLines) {
+            cut += lineLengths.removeFirst();
+        }
+        if (cut > 0) {
+            area.deleteText(0, Math.min(cut, area.getLength()));
+        }
+        area.appendText(sb.toString());
+    }
+
+    public void clear() {
+        lineLengths.clear();
+        area.clear();
+    }
+}
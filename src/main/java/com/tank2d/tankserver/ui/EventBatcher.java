@@ -0,0 +1,87 @@
+package com.tank2d.tankserver.ui;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * EventBatcher
+ * Hàng đợi lock-free giữa server thread và JavaFX thread:
+ *  - offer() gọi từ bất kỳ thread nào, không Platform.runLater
+ *  - Một AnimationTimer trên FX thread lấy tối đa maxBatch phần tử, nhiều nhất một lần mỗi interval
+ *
+ * Hàng đợi giới hạn ở capacity phần tử; vượt quá thì bỏ và đếm (getDropped()).
+ */
+public class EventBatcher<T> {
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+
+    private final int capacity;
+    private final int maxBatch;
+    private final long intervalNanos;
+    private final Consumer<List<T>> sink;
+    private final AnimationTimer timer;
+
+    private long lastFlush;
+
+    public EventBatcher(int capacity, int maxBatch, long intervalMs, Consumer<List<T>> sink) {
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.sink = sink;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFlush >= intervalNanos) flush(now);
+            }
+        };
+    }
+
+    /** Bắt đầu drain trên FX thread (gọi từ FX thread) */
+    public void start() {
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    public boolean offer(T event) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(event);
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getPending() {
+        return size.get();
+    }
+
+    private void flush(long now) {
+        if (queue.isEmpty()) return;
+        lastFlush = now;
+
+        List<T> batch = new ArrayList<>(Math.min(maxBatch, size.get()));
+        T event;
+        while (batch.size() < maxBatch && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        size.addAndGet(-batch.size());
+        sink.accept(batch);
+    }
+}
@@ -1,10 +1,21 @@
 package com.tank2d.tankserver.ui;
 
 import com.tank2d.tankserver.core.AssetHttpServer;
+import com.tank2d.tankserver.core.CatalogManager;
+import com.tank2d.tankserver.core.ClientHandler;
 import com.tank2d.tankserver.core.ItemShopManager;
 import com.tank2d.tankserver.core.MasterServer;
+import com.tank2d.tankserver.core.catalog.CatalogResult;
+import com.tank2d.tankserver.core.inventory.InventoryCache;
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.log.LogLevel;
+import com.tank2d.tankserver.core.metrics.MetricsRegistry;
 import com.tank2d.tankserver.core.room.Room;
+import com.tank2d.tankserver.core.room.RoomEvent;
+import com.tank2d.tankserver.core.room.RoomEventBus;
+import com.tank2d.tankserver.core.room.RoomSnapshot;
 import com.tank2d.tankserver.core.room.RoomManager;
+import com.tank2d.tankserver.core.session.SessionRegistry;
 import com.tank2d.tankserver.db.AccountRepository;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -30,6 +41,7 @@ import java.util.*;
  * (Manages server lifecycle, clients, rooms, and logs)
  */
 public class MasterServerDashboard implements Initializable {
+    private static final Log log = Log.get("Dashboard");
 
     // ================== FXML COMPONENTS ==================
     @FXML private Button btnStartStop;
@@ -100,6 +112,7 @@ public class MasterServerDashboard implements Initializable {
     @FXML private Button btnUploadItemIcon;
     
     @FXML private TextArea txtLog;
+    @FXML private ComboBox<LogLevel> cmbLogLevel;
 
     // ================== PANELS ==================
     @FXML private  HBox paneDashboard;
@@ -115,6 +128,7 @@ public class MasterServerDashboard implements Initializable {
     private boolean serverRunning = false;
     private LocalDateTime startTime;
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private final DateTimeFormatter logTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final AccountRepository accountRepo = new AccountRepository();
 
     private final ObservableList<ClientInfo> clientList = FXCollections.observableArrayList();
@@ -126,6 +140,24 @@ public class MasterServerDashboard implements Initializable {
     private File selectedTankIcon; // For tank upload
     private File selectedItemIcon; // For item upload
 
+    // Server event / log → FX thread theo batch (tối đa 10 lần/giây)
+    private static final long UI_BATCH_INTERVAL_MS = 100;
+    private static final int MAX_LOG_LINES = 5000;
+
+    private final EventBatcher<ServerEvent> serverEvents =
+            new EventBatcher<>(100_000, 2_000, UI_BATCH_INTERVAL_MS, this::applyServerEvents);
+    private final EventBatcher<RoomEvent> roomEvents =
+            new EventBatcher<>(100_000, 5_000, UI_BATCH_INTERVAL_MS, this::applyRoomEvents);
+    private final EventBatcher<String> logLines =
+            new EventBatcher<>(20_000, MAX_LOG_LINES, UI_BATCH_INTERVAL_MS, this::appendLogLines);
+    /** connection id → dòng trong tblClients (chỉ truy cập trên FX thread) */
+    private final Map<Long, ClientInfo> clientsById = new HashMap<>();
+    /** room id → dòng trong tblRooms (chỉ truy cập trên FX thread) */
+    private final Map<Integer, RoomInfo> roomsById = new HashMap<>();
+    private Runnable roomSubscription;
+    private BoundedLog logView;
+    private long droppedEventsReported;
+
     // =====================================================
 
     @Override
@@ -136,6 +168,10 @@ public class MasterServerDashboard implements Initializable {
         setupUserTable();
         setupTankTable();
         setupItemTable();
+        logView = new BoundedLog(txtLog, MAX_LOG_LINES);
+        serverEvents.start();
+        roomEvents.start();
+        logLines.start();
         addLog("Dashboard initialized");
         updateTotalUsersCount();
     }
@@ -152,6 +188,8 @@ public class MasterServerDashboard implements Initializable {
         lblTotalRooms.setText("0");
         lblUptime.setText("Uptime: 00:00:00");
         btnStartStop.setText("Start Server");
+        cmbLogLevel.getItems().setAll(LogLevel.values());
+        cmbLogLevel.setValue(Log.getLevel());
     }
 
     private void setupClientTable() {
@@ -275,7 +313,7 @@ public class MasterServerDashboard implements Initializable {
         try {
             int port = Integer.parseInt(txtPort.getText());
             server = new MasterServer(this::onServerEvent);
-            RoomManager.dashboard = this; // connect UI <-> server logic
+            roomSubscription = RoomEventBus.subscribe(events -> events.forEach(roomEvents::offer));
 
             // Start asset HTTP server on port 8080
             assetServer = new AssetHttpServer(8080);
@@ -321,6 +359,10 @@ public class MasterServerDashboard implements Initializable {
         if (assetServer != null) {
             assetServer.stop();
         }
+        if (roomSubscription != null) {
+            roomSubscription.run();
+            roomSubscription = null;
+        }
         serverRunning = false;
         onServerStopped();
         addLog("Server stopped");
@@ -334,7 +376,9 @@ public class MasterServerDashboard implements Initializable {
             lblPort.setText("N/A");
             txtPort.setDisable(false);
             clientList.clear();
+            clientsById.clear();
             roomList.clear();
+            roomsById.clear();
             lblTotalClients.setText("0");
             lblTotalRooms.setText("0");
         });
@@ -342,53 +386,109 @@ public class MasterServerDashboard implements Initializable {
 
     // -------------------- EVENT HANDLING --------------------
 
+    /** Gọi từ server thread: chỉ đưa vào hàng đợi, FX thread xử lý theo batch */
     public void onServerEvent(ServerEvent event) {
-        Platform.runLater(() -> {
+        serverEvents.offer(event);
+    }
+
+    /**
+     * Áp một batch event lên UI (FX thread): mỗi bảng / label cập nhật một lần,
+     * connect + disconnect trong cùng batch triệt tiêu nhau.
+     */
+    private void applyServerEvents(List<ServerEvent> batch) {
+        Set<ClientInfo> added = new LinkedHashSet<>();
+        Set<ClientInfo> removed = new HashSet<>();
+        boolean usernamesChanged = false;
+        List<String> lines = new ArrayList<>();
+        String now = LocalDateTime.now().format(timeFormatter);
+
+        for (ServerEvent event : batch) {
             switch (event.getType()) {
                 case CLIENT_CONNECTED -> {
-                    clientList.add(new ClientInfo(
-                            event.getClientIP(),
-                            "Unknown",
-                            LocalDateTime.now().format(timeFormatter)
-                    ));
-                    lblTotalClients.setText(String.valueOf(clientList.size()));
-                    addLog("Client connected: " + event.getClientIP());
+                    ClientInfo info = new ClientInfo(event.getConnectionId(), event.getClientIP(), "Unknown", now);
+                    clientsById.put(info.getConnectionId(), info);
+                    added.add(info);
+                    lines.add("Client connected: " + event.getClientIP());
                 }
                 case CLIENT_DISCONNECTED -> {
-                    clientList.removeIf(c -> c.getIpAddress().equals(event.getClientIP()));
-                    lblTotalClients.setText(String.valueOf(clientList.size()));
-                    addLog("Client disconnected: " + event.getClientIP());
+                    ClientInfo info = clientsById.remove(event.getConnectionId());
+                    if (info != null && !added.remove(info)) removed.add(info);
+                    lines.add("Client disconnected: " + event.getClientIP());
                 }
                 case CLIENT_LOGIN -> {
-                    for (ClientInfo c : clientList) {
-                        if (c.getIpAddress().equals(event.getClientIP())) {
-                            c.setUsername(event.getMessage());
-                            tblClients.refresh();
-                            break;
-                        }
+                    ClientInfo info = clientsById.get(event.getConnectionId());
+                    if (info != null) {
+                        info.setUsername(event.getMessage());
+                        usernamesChanged = true;
                     }
-                    addLog("Login: " + event.getMessage() + " from " + event.getClientIP());
+                    lines.add("Login: " + event.getMessage() + " from " + event.getClientIP());
                 }
-                case CLIENT_REGISTER -> addLog("Register: " + event.getMessage());
-                case ROOM_UPDATED -> updateRoomTable(event.getRooms());
-                case SERVER_ERROR -> addLog("ERROR: " + event.getMessage());
+                case CLIENT_REGISTER -> lines.add("Register: " + event.getMessage());
+                case SERVER_ERROR -> lines.add("ERROR: " + event.getMessage());
             }
-        });
+        }
+
+        if (!removed.isEmpty()) clientList.removeAll(removed);
+        if (!added.isEmpty()) clientList.addAll(added);
+        if (usernamesChanged) tblClients.refresh();
+        lblTotalClients.setText(String.valueOf(clientList.size()));
+
+        long dropped = serverEvents.getDropped();
+        if (dropped > droppedEventsReported) {
+            lines.add("⚠ " + (dropped - droppedEventsReported) + " server events dropped (UI queue full)");
+            droppedEventsReported = dropped;
+        }
+        for (String line : lines) addLog(line);
     }
 
-    /** Called from RoomManager.broadcastRoomList() */
-    public void updateRoomTable(List<Map<String, Object>> rooms) {
-        Platform.runLater(() -> {
-            roomList.clear();
-            for (Map<String, Object> data : rooms) {
-                roomList.add(new RoomInfo(
-                        (String) data.get("name"),
-                        data.get("players") + "/" + data.get("maxPlayers"),
-                        (boolean) data.getOrDefault("hasPassword", false) ? "Locked" : "Open"
-                ));
+    /** Áp diff phòng từ RoomEventBus lên tblRooms (FX thread) */
+    private void applyRoomEvents(List<RoomEvent> batch) {
+        Set<RoomInfo> added = new LinkedHashSet<>();
+        Set<RoomInfo> removed = new HashSet<>();
+        boolean changed = false;
+
+        for (RoomEvent event : batch) {
+            switch (event.type()) {
+                case CREATED -> {
+                    RoomInfo info = new RoomInfo(event.room());
+                    roomsById.put(info.getId(), info);
+                    added.add(info);
+                }
+                case CHANGED -> {
+                    RoomInfo info = roomsById.get(event.roomId());
+                    if (info != null) {
+                        info.update(event.room());
+                        changed = true;
+                    }
+                }
+                case REMOVED -> {
+                    RoomInfo info = roomsById.remove(event.roomId());
+                    if (info != null && !added.remove(info)) removed.add(info);
+                }
             }
-            lblTotalRooms.setText(String.valueOf(roomList.size()));
-        });
+        }
+
+        if (!removed.isEmpty()) roomList.removeAll(removed);
+        if (!added.isEmpty()) roomList.addAll(added);
+        if (changed) tblRooms.refresh();
+        lblTotalRooms.setText(String.valueOf(roomList.size()));
+    }
+
+    @FXML
+    private void onKickClient() {
+        ClientInfo selected = tblClients.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            addLog("⚠ Please select a client to kick!");
+            return;
+        }
+
+        ClientHandler client = SessionRegistry.get(selected.getConnectionId());
+        if (client != null) {
+            client.kick("Kicked by server admin");
+            addLog("👢 Kicked client: " + selected.getIpAddress() + " (" + selected.getUsername() + ")");
+        } else {
+            addLog("⚠ Client already disconnected: " + selected.getIpAddress());
+        }
     }
 
     @FXML
@@ -403,7 +503,6 @@ public class MasterServerDashboard implements Initializable {
         if (room != null) {
             RoomManager.removeRoom(room.getId());
             addLog("❌ Room closed manually: " + selected.getName());
-            RoomManager.broadcastRoomList();
         } else {
             addLog("⚠ Room not found: " + selected.getName());
         }
@@ -466,30 +565,26 @@ public class MasterServerDashboard implements Initializable {
         if (sldSpeed != null) sldSpeed.setValue(tank.getSpeed());
         
         // Load tank icon if server is running
-        System.out.println("[Dashboard] Loading icon for tank: " + tank.getName());
-        System.out.println("[Dashboard] assetServer: " + assetServer);
-        System.out.println("[Dashboard] imgTankPreview: " + imgTankPreview);
-        System.out.println("[Dashboard] lblTankIconPath: " + lblTankIconPath);
+        log.debug(() -> "Loading icon for tank: " + tank.getName());
         
         if (assetServer != null && imgTankPreview != null && lblTankIconPath != null) {
             try {
                 String imageUrl = assetServer.getTankAssetUrl(tank.getName());
-                System.out.println("[Dashboard] Loading image from: " + imageUrl);
+                log.debug(() -> "Loading image from: " + imageUrl);
                 
                 javafx.scene.image.Image image = new javafx.scene.image.Image(imageUrl, true);
                 imgTankPreview.setImage(image);
                 
                 String fileName = tank.getName().toLowerCase().replace(" ", "_") + ".png";
                 lblTankIconPath.setText(fileName);
-                System.out.println("[Dashboard] Image loaded successfully");
+                log.debug("Image loaded successfully");
             } catch (Exception e) {
-                System.err.println("[Dashboard] Failed to load icon: " + e.getMessage());
-                e.printStackTrace();
+                log.warn("Failed to load icon: " + e.getMessage());
                 imgTankPreview.setImage(null);
                 lblTankIconPath.setText("No icon found");
             }
         } else {
-            System.out.println("[Dashboard] Cannot load icon - missing components");
+            log.debug("Cannot load icon - missing components");
         }
     }
     
@@ -690,20 +785,20 @@ public class MasterServerDashboard implements Initializable {
         if (sldItemMP != null) sldItemMP.setValue(item.getMpBoost());
         
         // Load item icon
-        System.out.println("[Dashboard] Loading icon for item: " + item.getName());
+        log.debug(() -> "Loading icon for item: " + item.getName());
         if (assetServer != null && imgItemPreview != null && lblItemIconPath != null) {
             try {
                 String imageUrl = assetServer.getItemAssetUrl(item.getName());
-                System.out.println("[Dashboard] Loading image from: " + imageUrl);
+                log.debug(() -> "Loading image from: " + imageUrl);
                 
                 javafx.scene.image.Image image = new javafx.scene.image.Image(imageUrl, true);
                 imgItemPreview.setImage(image);
                 
                 String fileName = item.getName().toLowerCase().replace(" ", "_") + ".png";
                 lblItemIconPath.setText(fileName);
-                System.out.println("[Dashboard] Image loaded successfully");
+                log.debug("Image loaded successfully");
             } catch (Exception e) {
-                System.err.println("[Dashboard] Failed to load icon: " + e.getMessage());
+                log.warn("Failed to load icon: " + e.getMessage());
                 imgItemPreview.setImage(null);
                 lblItemIconPath.setText("No icon found");
             }
@@ -887,6 +982,61 @@ public class MasterServerDashboard implements Initializable {
         }
     }
 
+    // -------------------- CATALOG IMPORT / EXPORT --------------------
+
+    @FXML
+    private void onImportCatalog() {
+        javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
+        fileChooser.setTitle("Import Catalog");
+        fileChooser.getExtensionFilters().addAll(
+            new javafx.stage.FileChooser.ExtensionFilter("Catalog (JSON, CSV)", "*.json", "*.csv")
+        );
+
+        File file = fileChooser.showOpenDialog(txtLog.getScene().getWindow());
+        if (file == null) return;
+
+        addLog("Importing catalog: " + file.getName());
+        new Thread(() -> {
+            CatalogResult result = CatalogManager.importCatalog(file, assetServer);
+            Platform.runLater(() -> {
+                if (result.isSuccess()) {
+                    addLog("Catalog imported: " + result);
+                    loadAllTanks();
+                    loadAllItems();
+                    showAlert("Success", "Catalog imported!\n" + result);
+                } else {
+                    for (String error : result.errors) addLog("Catalog error: " + error);
+                    showAlert("Error", "Catalog import failed: " + result.errors.size() + " error(s). See log for details.");
+                }
+            });
+        }).start();
+    }
+
+    @FXML
+    private void onExportCatalog() {
+        javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
+        fileChooser.setTitle("Export Catalog");
+        fileChooser.setInitialFileName("catalog.json");
+        fileChooser.getExtensionFilters().add(
+            new javafx.stage.FileChooser.ExtensionFilter("Catalog (JSON)", "*.json")
+        );
+
+        File file = fileChooser.showSaveDialog(txtLog.getScene().getWindow());
+        if (file == null) return;
+
+        new Thread(() -> {
+            CatalogResult result = CatalogManager.exportCatalog(file, assetServer);
+            Platform.runLater(() -> {
+                if (result.isSuccess()) {
+                    addLog("Catalog exported to " + file.getName() + ": " + result);
+                } else {
+                    addLog("Catalog export failed: " + result);
+                    showAlert("Error", "Failed to export catalog!");
+                }
+            });
+        }).start();
+    }
+
     // -------------------- NAVIGATION --------------------
     @FXML
     private void showItemManagement(){
@@ -968,6 +1118,7 @@ public class MasterServerDashboard implements Initializable {
                     boolean success = accountRepo.banUser(selected.getId());
                     Platform.runLater(() -> {
                         if (success) {
+                            SessionRegistry.kick(selected.getUsername(), "Your account has been banned");
                             addLog("✅ Banned user: " + selected.getUsername());
                             loadAllUsers();
                         } else {
@@ -1030,6 +1181,7 @@ public class MasterServerDashboard implements Initializable {
                 
                 new Thread(() -> {
                     boolean success = accountRepo.updateUserGold(selected.getId(), newGold);
+                    if (success) InventoryCache.onGoldChanged(selected.getId(), newGold);
                     Platform.runLater(() -> {
                         if (success) {
                             addLog("💰 Added " + goldAmount + " gold to " + selected.getUsername());
@@ -1063,6 +1215,10 @@ public class MasterServerDashboard implements Initializable {
             if (response == ButtonType.OK) {
                 new Thread(() -> {
                     boolean success = accountRepo.deleteUser(selected.getId());
+                    if (success) {
+                        SessionRegistry.kick(selected.getUsername(), "Your account has been deleted");
+                        InventoryCache.evict(selected.getId());
+                    }
                     Platform.runLater(() -> {
                         if (success) {
                             addLog("🗑️ Deleted user: " + selected.getUsername());
@@ -1087,14 +1243,54 @@ public class MasterServerDashboard implements Initializable {
     
     // -------------------- UTILITIES --------------------
 
+    /** Thread-safe: dòng log được đưa vào hàng đợi, TextArea cập nhật theo batch */
     private void addLog(String message) {
-        String ts = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        txtLog.appendText("[" + ts + "] " + message + "\n");
+        String ts = LocalDateTime.now().format(logTimeFormatter);
+        logLines.offer("[" + ts + "] " + message);
+    }
+
+    private void appendLogLines(List<String> lines) {
+        logView.append(lines);
     }
 
     @FXML
     private void onClearLog() {
-        txtLog.clear();
+        logView.clear();
+    }
+
+    /** Đổi level của server log (console) lúc đang chạy */
+    @FXML
+    private void onLogLevelChanged() {
+        LogLevel level = cmbLogLevel.getValue();
+        if (level == null || level == Log.getLevel()) return;
+        Log.setLevel(level);
+        addLog("Log level set to " + level);
+    }
+
+    /**
+     * Hiện bảng metrics (PacketType latency, bytes theo connection); "Dump" ghi ra thư mục metrics/
+     */
+    @FXML
+    private void onShowMetrics() {
+        TextArea area = new TextArea(MetricsRegistry.dump());
+        area.setEditable(false);
+        area.setPrefSize(900, 500);
+        area.setStyle("-fx-font-family: 'Consolas', 'Courier New', monospace; -fx-font-size: 11;");
+
+        ButtonType dump = new ButtonType("💾 Dump", ButtonBar.ButtonData.LEFT);
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Server Metrics");
+        dialog.getDialogPane().setContent(area);
+        dialog.getDialogPane().getButtonTypes().addAll(dump, ButtonType.CLOSE);
+
+        dialog.showAndWait().filter(b -> b == dump).ifPresent(b -> {
+            try {
+                File file = MetricsRegistry.dumpToFile(new File("metrics"));
+                addLog("Metrics dumped to " + file.getPath());
+            } catch (IOException e) {
+                addLog("Metrics dump failed: " + e.getMessage());
+            }
+        });
     }
 
     private void updateUptimeLoop() {
@@ -1113,16 +1309,19 @@ public class MasterServerDashboard implements Initializable {
     // -------------------- INNER DATA CLASSES --------------------
 
     public static class ClientInfo {
+        private final long connectionId;
         private String ipAddress;
         private String username;
         private String connectTime;
 
-        public ClientInfo(String ipAddress, String username, String connectTime) {
+        public ClientInfo(long connectionId, String ipAddress, String username, String connectTime) {
+            this.connectionId = connectionId;
             this.ipAddress = ipAddress;
             this.username = username;
             this.connectTime = connectTime;
         }
 
+        public long getConnectionId() { return connectionId; }
         public String getIpAddress() { return ipAddress; }
         public String getUsername() { return username; }
         public String getConnectTime() { return connectTime; }
@@ -1131,16 +1330,23 @@ public class MasterServerDashboard implements Initializable {
     }
 
     public static class RoomInfo {
+        private final int id;
         private String name;
         private String playerCount;
         private String status;
 
-        public RoomInfo(String name, String playerCount, String status) {
-            this.name = name;
-            this.playerCount = playerCount;
-            this.status = status;
+        public RoomInfo(RoomSnapshot room) {
+            this.id = room.id();
+            update(room);
         }
 
+        public void update(RoomSnapshot room) {
+            this.name = room.name();
+            this.playerCount = room.playerCount() + "/" + room.maxPlayers();
+            this.status = room.hasPassword() ? "Locked" : "Open";
+        }
+
+        public int getId() { return id; }
         public String getName() { return name; }
         public String getPlayerCount() { return playerCount; }
         public String getStatus() { return status; }
@@ -1224,28 +1430,28 @@ public class MasterServerDashboard implements Initializable {
     public static class ServerEvent {
         public enum Type {
             CLIENT_CONNECTED, CLIENT_DISCONNECTED, CLIENT_LOGIN, CLIENT_REGISTER,
-            ROOM_UPDATED, SERVER_ERROR
+            SERVER_ERROR
         }
 
         private final Type type;
+        private final long connectionId;
         private final String clientIP;
         private final String message;
-        private final List<Map<String, Object>> rooms;
 
         public ServerEvent(Type type, String clientIP, String message) {
-            this(type, clientIP, message, null);
+            this(type, 0, clientIP, message);
         }
 
-        public ServerEvent(Type type, String clientIP, String message, List<Map<String, Object>> rooms) {
+        public ServerEvent(Type type, long connectionId, String clientIP, String message) {
             this.type = type;
+            this.connectionId = connectionId;
             this.clientIP = clientIP;
             this.message = message;
-            this.rooms = rooms;
         }
 
         public Type getType() { return type; }
+        public long getConnectionId() { return connectionId; }
         public String getClientIP() { return clientIP; }
         public String getMessage() { return message; }
-        public List<Map<String, Object>> getRooms() { return rooms; }
     }
 }
@@ -1,5 +1,10 @@
 package com.tank2d.tankserver.utils;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
 public class PacketType {
     public static final int LOGIN = 1;
     public static final int LOGIN_OK = 2;
@@ -43,4 +48,83 @@ public class PacketType {
     // Inventory
     public static final int INVENTORY_REQUEST = 25;
     public static final int INVENTORY_DATA = 26;
+
+    // Inventory deltas (server push sau BUY_SUCCESS / EQUIP_TANK_SUCCESS)
+    public static final int INVENTORY_ITEM_CHANGED = 34;
+    public static final int INVENTORY_TANK_ADDED = 35;
+    public static final int EQUIPPED_TANK_CHANGED = 36;
+    public static final int GOLD_CHANGED = 37;
+
+    // Lobby room list push (thay cho poll ROOM_LIST)
+    public static final int ROOM_LIST_SUBSCRIBE = 38;
+    public static final int ROOM_LIST_UNSUBSCRIBE = 39;
+    public static final int ROOM_ADDED = 40;
+    public static final int ROOM_REMOVED = 41;
+    public static final int ROOM_CHANGED = 42;
+
+    // Quick play (matchmaking): ghép phòng xong server gửi ROOM_JOINED
+    public static final int QUICK_PLAY = 43;
+    public static final int QUICK_PLAY_CANCEL = 44;
+    public static final int QUICK_PLAY_QUEUED = 45;
+
+    // Heartbeat: server PING khi client im lặng, client trả PONG (client PING thì server trả PONG)
+    public static final int PING = 46;
+    public static final int PONG = 47;
+
+    // Request bị PacketRateLimiter chặn: {type, retryAfterMs}
+    public static final int RATE_LIMITED = 48;
+
+    // Server đóng session: account login ở nơi khác hoặc bị admin kick {msg}
+    public static final int SESSION_KICKED = 49;
+
+    // Bạn bè + presence: FRIEND_PRESENCE gom mọi thay đổi trạng thái trong một chu kỳ
+    // entry: {username, status: OFFLINE | ONLINE | IN_ROOM | IN_GAME, roomId?}
+    public static final int FRIEND_LIST = 50;
+    public static final int FRIEND_LIST_DATA = 51;
+    public static final int FRIEND_ADD = 52;
+    public static final int FRIEND_REMOVE = 53;
+    public static final int FRIEND_ADDED = 54;
+    public static final int FRIEND_REMOVED = 55;
+    public static final int FRIEND_PRESENCE = 56;
+
+    // Chat trong phòng: client gửi ROOM_CHAT {text}; server gửi ROOM_CHAT {roomId, lines} theo batch,
+    // người vào phòng nhận ROOM_CHAT_HISTORY {roomId, lines}; line: {seq, from, text, ts}
+    public static final int ROOM_CHAT = 57;
+    public static final int ROOM_CHAT_HISTORY = 58;
+
+    // Host báo trận P2P đã kết thúc, cả phòng quay lại sảnh chờ (server broadcast ROOM_UPDATE)
+    public static final int MATCH_END = 59;
+
+    // -------------------------------
+    // 🔹 NAMES (log / metrics / load test)
+    // -------------------------------
+
+    private static final Map<Integer, String> NAMES = new HashMap<>();
+
+    static {
+        for (Field f : PacketType.class.getFields()) {
+            if (f.getType() == int.class && Modifier.isStatic(f.getModifiers())) {
+                try {
+                    NAMES.put(f.getInt(null), f.getName());
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Packet trả lời báo lỗi (server gửi mọi lỗi chung bằng LOGIN_FAIL) */
+    public static boolean isFailure(int type) {
+        return type == LOGIN_FAIL
+                || type == REGISTER_FAIL
+                || type == ROOM_JOIN_FAIL
+                || type == BUY_FAIL
+                || type == EQUIP_TANK_FAIL
+                || type == RATE_LIMITED;
+    }
+
+    /** Tên hằng số của packet type, "UNKNOWN(n)" nếu không có */
+    public static String nameOf(int type) {
+        String name = NAMES.get(type);
+        return name != null ? name : "UNKNOWN(" + type + ")";
+    }
 }
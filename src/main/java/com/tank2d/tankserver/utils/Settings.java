@@ -0,0 +1,31 @@
+package com.tank2d.tankserver.utils;
+
+/**
+ * Đọc cấu hình runtime: system property (ưu tiên) → biến môi trường → mặc định.
+ * Tên biến môi trường suy ra từ key: tankserver.db.url → TANKSERVER_DB_URL.
+ */
+public final class Settings {
+
+    private Settings() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.toUpperCase().replace('.', '_'));
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+}
@@ -4,6 +4,8 @@ module com.tank2d.tankserver {
     requires java.sql;
     requires org.json;
     requires jdk.httpserver;
+    requires jdk.net;
+    requires java.management;
 
 
     opens com.tank2d.tankserver.ui to javafx.fxml;
@@ -0,0 +1,101 @@
+-- Schema pixeltank_db cho embedded profile (H2, MODE=MySQL).
+-- Giữ đúng tên bảng / cột mà các repository đang query.
+
+CREATE TABLE IF NOT EXISTS user (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    gold INT NOT NULL DEFAULT 0,
+    level INT NOT NULL DEFAULT 1,
+    experience INT NOT NULL DEFAULT 0,
+    is_banned TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_login TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS attribute (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS item (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    base_price INT NOT NULL DEFAULT 0,
+    item_type VARCHAR(20),
+    rarity VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS item_attribute (
+    item_id INT NOT NULL,
+    attribute_id INT NOT NULL,
+    attribute_value DOUBLE NOT NULL,
+    PRIMARY KEY (item_id, attribute_id),
+    FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE,
+    FOREIGN KEY (attribute_id) REFERENCES attribute(id)
+);
+
+CREATE TABLE IF NOT EXISTS shop (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    discount DOUBLE NOT NULL DEFAULT 0,
+    stock INT NOT NULL DEFAULT 0,
+    available TINYINT NOT NULL DEFAULT 1,
+    FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS tank (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    base_price INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS tank_attribute (
+    tank_id INT NOT NULL,
+    attribute_id INT NOT NULL,
+    attribute_value DOUBLE NOT NULL,
+    PRIMARY KEY (tank_id, attribute_id),
+    FOREIGN KEY (tank_id) REFERENCES tank(id) ON DELETE CASCADE,
+    FOREIGN KEY (attribute_id) REFERENCES attribute(id)
+);
+
+CREATE TABLE IF NOT EXISTS user_tank (
+    user_id INT NOT NULL,
+    tank_id INT NOT NULL,
+    is_equipped TINYINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, tank_id),
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE,
+    FOREIGN KEY (tank_id) REFERENCES tank(id)
+);
+
+CREATE TABLE IF NOT EXISTS user_item (
+    user_id INT NOT NULL,
+    item_id INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, item_id),
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE,
+    FOREIGN KEY (item_id) REFERENCES item(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    item_id INT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price INT NOT NULL,
+    total_price INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE
+);
+
+-- Bạn bè: mỗi quan hệ lưu 2 dòng (a→b, b→a) để danh sách bạn của một user là một range scan theo PK
+CREATE TABLE IF NOT EXISTS user_friend (
+    user_id INT NOT NULL,
+    friend_id INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, friend_id),
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE,
+    FOREIGN KEY (friend_id) REFERENCES user(id) ON DELETE CASCADE
+);
@@ -0,0 +1,61 @@
+-- Seed data cho embedded profile: đủ để login, xem shop, mua item / tank và mở inventory.
+-- Id tự tăng từ 1 theo thứ tự insert (các bảng liên kết bên dưới dựa vào thứ tự này).
+-- Tài khoản: admin / admin123, test / 123456, player1..player3 / 123456
+
+INSERT INTO attribute (name) VALUES
+    ('hp'), ('mp'), ('dmg'), ('spd');
+
+INSERT INTO user (username, password, gold, level, experience) VALUES
+    ('admin', 'admin123', 100000, 10, 5000),
+    ('test', '123456', 5000, 1, 0),
+    ('player1', '123456', 2000, 3, 450),
+    ('player2', '123456', 800, 2, 120),
+    ('player3', '123456', 0, 1, 0);
+
+INSERT INTO item (name, description, base_price, item_type, rarity) VALUES
+    ('Health Potion', 'Restores 50 HP', 100, 'consumable', 'common'),
+    ('Mana Potion', 'Restores 30 MP', 80, 'consumable', 'common'),
+    ('Big Health Potion', 'Restores 150 HP', 250, 'consumable', 'rare'),
+    ('Armor Plate', 'Permanent +40 HP', 600, 'equipment', 'rare'),
+    ('Turbo Engine', 'Permanent +2 speed', 900, 'upgrade', 'epic'),
+    ('Dragon Shell', 'Permanent +25 damage', 2500, 'upgrade', 'legendary');
+
+INSERT INTO item_attribute (item_id, attribute_id, attribute_value) VALUES
+    (1, 1, 50), (2, 2, 30), (3, 1, 150),
+    (4, 1, 40), (5, 4, 2), (6, 3, 25);
+
+INSERT INTO shop (item_id, discount, stock, available) VALUES
+    (1, 0, 999, 1), (2, 0, 999, 1), (3, 0.1, 200, 1),
+    (4, 0, 50, 1), (5, 0, 20, 1), (6, 0.2, 5, 1);
+
+-- Tank 1 là tank mặc định (không bán trong shop)
+INSERT INTO tank (name, description, base_price) VALUES
+    ('Starter Tank', 'Default tank for new players', 0),
+    ('Scout', 'Fast and light', 1500),
+    ('Guardian', 'Heavy armor, slow', 3000),
+    ('Destroyer', 'High damage cannon', 5000);
+
+INSERT INTO tank_attribute (tank_id, attribute_id, attribute_value) VALUES
+    (1, 1, 100), (1, 3, 50), (1, 4, 5),
+    (2, 1, 80), (2, 3, 40), (2, 4, 8),
+    (3, 1, 200), (3, 3, 60), (3, 4, 3),
+    (4, 1, 120), (4, 3, 90), (4, 4, 4);
+
+INSERT INTO user_tank (user_id, tank_id, is_equipped) VALUES
+    (1, 1, 0), (1, 4, 1),
+    (2, 1, 1),
+    (3, 1, 1), (3, 2, 0),
+    (4, 1, 1),
+    (5, 1, 1);
+
+INSERT INTO user_item (user_id, item_id, quantity) VALUES
+    (1, 1, 10), (1, 5, 1),
+    (2, 1, 3),
+    (3, 1, 5), (3, 2, 2);
+
+INSERT INTO transactions (user_id, item_id, quantity, unit_price, total_price) VALUES
+    (1, 1, 10, 100, 1000),
+    (1, 5, 1, 900, 900),
+    (2, 1, 3, 100, 300),
+    (3, 1, 5, 100, 500),
+    (3, 2, 2, 80, 160);
@@ -0,0 +1,67 @@
+package com.tank2d.tankserver.core.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void tryAcquireStopsAtLimit() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(TimeUnit.MINUTES.toMillis(1), 3);
+        assertTrue(counter.tryAcquire("a"));
+        assertTrue(counter.tryAcquire("a"));
+        assertTrue(counter.tryAcquire("a"));
+        assertFalse(counter.tryAcquire("a"));
+        assertTrue(counter.tryAcquire("b"));
+    }
+
+    @Test
+    void releaseGivesBackOneAttempt() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(TimeUnit.MINUTES.toMillis(1), 2);
+        assertTrue(counter.tryAcquire("a"));
+        assertTrue(counter.tryAcquire("a"));
+        counter.release("a");
+        assertTrue(counter.tryAcquire("a"));
+        assertFalse(counter.tryAcquire("a"));
+    }
+
+    @Test
+    void zeroLimitIsUnlimited() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(TimeUnit.MINUTES.toMillis(1), 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(counter.tryAcquire("a"));
+        }
+    }
+
+    @Test
+    void parallelAcquiresNeverExceedLimit() throws InterruptedException {
+        int limit = 10;
+        SlidingWindowCounter counter = new SlidingWindowCounter(TimeUnit.MINUTES.toMillis(1), limit);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger acquired = new AtomicInteger();
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (counter.tryAcquire("victim")) acquired.incrementAndGet();
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(limit, acquired.get());
+    }
+}
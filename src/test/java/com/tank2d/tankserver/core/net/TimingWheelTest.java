@@ -0,0 +1,105 @@
+package com.tank2d.tankserver.core.net;
+
+import com.tank2d.tankserver.core.log.Log;
+import com.tank2d.tankserver.core.log.LogLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    /** 8 slot x 10 ms: một vòng wheel = 80 ms */
+    private static final long TICK_MS = 10;
+    private static final int SLOTS = 8;
+
+    private final TimingWheel wheel = new TimingWheel("timing-wheel-test", TICK_MS, SLOTS);
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void runsTaskAfterDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong elapsedMs = new AtomicLong();
+        wheel.schedule(() -> {
+            elapsedMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            fired.countDown();
+        }, 50);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        // schedule() có thể đọc tick cũ nên được phép sớm tối đa một tick
+        assertTrue(elapsedMs.get() >= 50 - TICK_MS, "fired after " + elapsedMs.get() + " ms");
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    void delayLongerThanOneRevolutionWaitsForItsRound() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AtomicLong elapsedMs = new AtomicLong();
+        wheel.schedule(() -> {
+            elapsedMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            fired.countDown();
+        }, 250);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsedMs.get() >= 250 - TICK_MS, "fired after " + elapsedMs.get() + " ms");
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 30);
+        timeout.cancel();
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(later::countDown, 100);
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, runs.get());
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    void taskCanRescheduleItself() throws InterruptedException {
+        // Giống IdleMonitor.check: task chạy trên thread của wheel rồi đặt timeout kế tiếp
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Runnable[] task = new Runnable[1];
+        task[0] = () -> {
+            if (runs.incrementAndGet() < 5) wheel.schedule(task[0], 15);
+            else done.countDown();
+        };
+        wheel.schedule(task[0], 15);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(5, runs.get());
+    }
+
+    @Test
+    void failingTaskDoesNotStopWheel() throws InterruptedException {
+        LogLevel level = Log.getLevel();
+        Log.setLevel(LogLevel.OFF); // lỗi của task là cố ý, không in ra
+        try {
+            wheel.schedule(() -> {
+                throw new IllegalStateException("boom");
+            }, 10);
+            CountDownLatch after = new CountDownLatch(1);
+            wheel.schedule(after::countDown, 40);
+
+            assertTrue(after.await(2, TimeUnit.SECONDS));
+        } finally {
+            Log.setLevel(level);
+        }
+    }
+}
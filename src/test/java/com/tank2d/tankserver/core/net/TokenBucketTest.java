@@ -0,0 +1,84 @@
+package com.tank2d.tankserver.core.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void allowsBurstThenReportsWaitForNextToken() {
+        TokenBucket bucket = new TokenBucket(10, 3); // 1 token / 100 ms, burst 3
+        long now = 5_000 * MS;
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(100 * MS, bucket.tryAcquire(now));
+        assertEquals(40 * MS, bucket.tryAcquire(now + 60 * MS));
+        assertEquals(0, bucket.tryAcquire(now + 100 * MS));
+        assertEquals(100 * MS, bucket.tryAcquire(now + 100 * MS));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = 0;
+        assertEquals(0, bucket.tryAcquire(now));
+        for (int i = 0; i < 50; i++) {
+            assertTrue(bucket.tryAcquire(now + i * MS) > 0);
+        }
+        assertEquals(0, bucket.tryAcquire(now + 100 * MS));
+    }
+
+    @Test
+    void idleTimeRefillsOnlyUpToBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = 0;
+        assertEquals(0, bucket.tryAcquire(now));
+        long later = now + 60_000 * MS; // rất lâu sau: vẫn chỉ được burst 3
+        int granted = 0;
+        while (bucket.tryAcquire(later) == 0) granted++;
+        assertEquals(3, granted);
+    }
+
+    @Test
+    void burstOfOneMeansStrictRate() {
+        TokenBucket bucket = new TokenBucket(2, 1); // 1 token / 500 ms
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(500 * MS, bucket.tryAcquire(0));
+        assertEquals(1 * MS, bucket.tryAcquire(499 * MS));
+        assertEquals(0, bucket.tryAcquire(500 * MS));
+    }
+
+    @Test
+    void parallelAcquiresNeverExceedBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        long now = 1_000 * MS; // cùng một thời điểm: chỉ burst được qua
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (bucket.tryAcquire(now) == 0) granted.incrementAndGet();
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20, granted.get());
+    }
+}
@@ -0,0 +1,134 @@
+package com.tank2d.tankserver.core.room;
+
+import com.tank2d.tankserver.core.ClientHandler;
+import com.tank2d.tankserver.utils.PacketType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomChatTest {
+
+    /** Client không socket, giữ lại mọi frame được gửi */
+    private static final class CapturingClient extends ClientHandler {
+        final List<JSONObject> frames = new ArrayList<>();
+
+        CapturingClient() {
+            super(new Socket() {
+                @Override
+                public InetAddress getInetAddress() {
+                    return InetAddress.getLoopbackAddress();
+                }
+            }, event -> { });
+        }
+
+        @Override
+        public void sendEncoded(int type, String json) {
+            frames.add(new JSONObject(json));
+        }
+
+        List<Long> seqs(int frame) {
+            JSONArray lines = frames.get(frame).getJSONObject("data").getJSONArray("lines");
+            List<Long> seqs = new ArrayList<>();
+            for (int i = 0; i < lines.length(); i++) seqs.add(lines.getJSONObject(i).getLong("seq"));
+            return seqs;
+        }
+    }
+
+    private final CapturingClient host = new CapturingClient();
+    private final Room room = new Room(1, "chat", host, 4, null);
+
+    @Test
+    void appendReportsIdleOnlyForFirstPendingLine() {
+        RoomChat chat = new RoomChat(room, 4);
+        assertTrue(chat.append("a", "1"));
+        assertFalse(chat.append("a", "2"));
+        chat.flush();
+        assertTrue(chat.append("a", "3"));
+    }
+
+    @Test
+    void flushSendsPendingLinesInOneFrame() {
+        RoomChat chat = new RoomChat(room, 4);
+        chat.append("a", "1");
+        chat.append("b", "2");
+        chat.append("a", "3");
+
+        assertArrayEquals(new int[]{3, 0}, chat.flush());
+        assertEquals(1, host.frames.size());
+        assertEquals(PacketType.ROOM_CHAT, host.frames.get(0).getInt("type"));
+        assertEquals(List.of(1L, 2L, 3L), host.seqs(0));
+
+        assertArrayEquals(new int[]{0, 0}, chat.flush());
+        assertEquals(1, host.frames.size());
+    }
+
+    @Test
+    void wraparoundDropsOverwrittenLines() {
+        RoomChat chat = new RoomChat(room, 4);
+        for (int i = 1; i <= 10; i++) chat.append("a", "line " + i);
+
+        assertArrayEquals(new int[]{4, 6}, chat.flush());
+        assertEquals(List.of(7L, 8L, 9L, 10L), host.seqs(0));
+        JSONArray lines = host.frames.get(0).getJSONObject("data").getJSONArray("lines");
+        assertEquals("line 7", lines.getJSONObject(0).getString("text"));
+    }
+
+    @Test
+    void exactlyFullRingDropsNothing() {
+        RoomChat chat = new RoomChat(room, 4);
+        chat.append("a", "1");
+        chat.flush();
+        for (int i = 2; i <= 5; i++) chat.append("a", String.valueOf(i));
+
+        assertArrayEquals(new int[]{4, 0}, chat.flush());
+        assertEquals(List.of(2L, 3L, 4L, 5L), host.seqs(1));
+    }
+
+    @Test
+    void historySkipsLinesOverwrittenByPendingOnes() {
+        RoomChat chat = new RoomChat(room, 4);
+        CapturingClient joiner = new CapturingClient();
+        assertFalse(chat.sendHistory(joiner));
+
+        for (int i = 1; i <= 6; i++) chat.append("a", String.valueOf(i));
+        chat.flush();
+        chat.append("a", "7");
+        chat.append("a", "8");
+
+        assertTrue(chat.sendHistory(joiner));
+        assertEquals(PacketType.ROOM_CHAT_HISTORY, joiner.frames.get(0).getInt("type"));
+        assertEquals(List.of(5L, 6L), joiner.seqs(0));
+    }
+
+    @Test
+    void historyIsEmptyWhenPendingLinesFillTheRing() {
+        RoomChat chat = new RoomChat(room, 4);
+        chat.append("a", "1");
+        chat.flush();
+        for (int i = 2; i <= 5; i++) chat.append("a", String.valueOf(i));
+
+        assertFalse(chat.sendHistory(new CapturingClient()));
+    }
+
+    @Test
+    void historyOfPartlyFilledRingStartsAtFirstLine() {
+        RoomChat chat = new RoomChat(room, 4);
+        chat.append("a", "1");
+        chat.append("a", "2");
+        chat.flush();
+
+        CapturingClient joiner = new CapturingClient();
+        chat.sendHistory(joiner);
+        assertEquals(List.of(1L, 2L), joiner.seqs(0));
+    }
+}